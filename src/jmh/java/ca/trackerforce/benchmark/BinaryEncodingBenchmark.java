@@ -0,0 +1,65 @@
+package ca.trackerforce.benchmark;
+
+import ca.trackerforce.DotPathQL;
+import ca.trackerforce.path.api.BinaryFormat;
+import ca.trackerforce.path.api.PrinterOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding an order list as compact UTF-8 JSON against CBOR and MessagePack.
+ * The size of each encoding is printed once by the setup of the fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryEncodingBenchmark {
+
+	DotPathQL dotPathQL;
+
+	Map<String, Object> result;
+
+	@Setup
+	public void setup() {
+		dotPathQL = new DotPathQL();
+
+		List<Object> products = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			Map<String, Object> product = new LinkedHashMap<>();
+			product.put("productId", "P-" + i);
+			product.put("name", "Product " + i);
+			product.put("description", "Café edition of the product number " + i + ", shipped worldwide");
+			product.put("category", "Electronics");
+			product.put("price", 19.99 + i);
+			product.put("stockQuantity", i * 3);
+			products.add(product);
+		}
+		result = Map.of("products", products);
+
+		System.out.printf("%nEncoded sizes: JSON %d bytes, CBOR %d bytes, MessagePack %d bytes%n",
+				json().length, cbor().length, messagePack().length);
+	}
+
+	@Benchmark
+	public byte[] json() {
+		return dotPathQL.toJsonBytes(result, PrinterOptions.compact());
+	}
+
+	@Benchmark
+	public byte[] cbor() {
+		return dotPathQL.toBinary(result, BinaryFormat.CBOR);
+	}
+
+	@Benchmark
+	public byte[] messagePack() {
+		return dotPathQL.toBinary(result, BinaryFormat.MESSAGE_PACK);
+	}
+}
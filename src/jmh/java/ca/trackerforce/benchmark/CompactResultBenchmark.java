@@ -0,0 +1,70 @@
+package ca.trackerforce.benchmark;
+
+import ca.trackerforce.DotPathQL;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares filtering and converting an order list into LinkedHashMap results against compact results.
+ * Run with {@code -prof gc} to compare the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactResultBenchmark {
+
+	static final List<String> PATHS = List.of("orders[orderId,status,total,customer.name]");
+
+	DotPathQL linkedPathQL;
+
+	DotPathQL compactPathQL;
+
+	Report report;
+
+	@Setup
+	public void setup() {
+		linkedPathQL = new DotPathQL();
+		compactPathQL = new DotPathQL();
+		compactPathQL.setCompactResults(true);
+
+		List<Order> orders = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			orders.add(new Order("O-" + i, i % 2 == 0 ? "SHIPPED" : "PENDING", 19.99 + i,
+					new Customer("Customer " + i, "customer" + i + "@example.com")));
+		}
+		report = new Report("Daily orders", orders);
+	}
+
+	@Benchmark
+	public Map<String, Object> filterLinked() {
+		return linkedPathQL.filter(report, PATHS);
+	}
+
+	@Benchmark
+	public Map<String, Object> filterCompact() {
+		return compactPathQL.filter(report, PATHS);
+	}
+
+	@Benchmark
+	public Map<String, Object> toMapLinked() {
+		return linkedPathQL.toMap(report);
+	}
+
+	@Benchmark
+	public Map<String, Object> toMapCompact() {
+		return compactPathQL.toMap(report);
+	}
+
+	public record Report(String title, List<Order> orders) { }
+
+	public record Order(String orderId, String status, double total, Customer customer) { }
+
+	public record Customer(String name, String email) { }
+}
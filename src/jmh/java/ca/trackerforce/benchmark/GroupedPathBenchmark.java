@@ -0,0 +1,51 @@
+package ca.trackerforce.benchmark;
+
+import ca.trackerforce.CompiledQuery;
+import ca.trackerforce.DotPathQL;
+import ca.trackerforce.DotUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares compiling a long and wide "fields" parameter by expanding the grouped paths into individual paths,
+ * against parsing it straight into the query trie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupedPathBenchmark {
+
+	@Param({"10", "100"})
+	int width;
+
+	DotPathQL dotPathQL;
+
+	String fields;
+
+	@Setup
+	public void setup() {
+		dotPathQL = new DotPathQL();
+
+		StringJoiner joiner = new StringJoiner(",");
+		for (int i = 0; i < width; i++) {
+			joiner.add("group" + i + "[name,address[street,city,zipCode],orders[id,total,products[name,price]]]");
+			joiner.add("field" + i + ".nested.value");
+		}
+		fields = joiner.toString();
+	}
+
+	@Benchmark
+	public CompiledQuery expandGroupedPaths() {
+		return dotPathQL.compile(DotUtils.parsePaths(fields));
+	}
+
+	@Benchmark
+	public CompiledQuery parseIntoTrie() {
+		return dotPathQL.compile(fields);
+	}
+}
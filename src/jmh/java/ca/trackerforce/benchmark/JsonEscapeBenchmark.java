@@ -0,0 +1,73 @@
+package ca.trackerforce.benchmark;
+
+import ca.trackerforce.path.DotPathFactory;
+import ca.trackerforce.path.api.DotPrinter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single-pass string escaping of the printer against the former chain of five replace calls,
+ * on a string-heavy payload of product descriptions, either clean or holding quotes and line breaks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonEscapeBenchmark {
+
+	@Param({"clean", "escaped"})
+	String content;
+
+	DotPrinter printer;
+
+	List<String> strings;
+
+	StringBuilder out;
+
+	@Setup
+	public void setup() {
+		printer = DotPathFactory.buildPrinter(2);
+		out = new StringBuilder();
+		strings = new ArrayList<>();
+
+		String description = "The product ships with a two-year warranty, free returns within 30 days and "
+				+ "support available every day of the week from our customer service team.";
+		for (int i = 0; i < 500; i++) {
+			strings.add("Product " + i);
+			strings.add("SKU-" + (100000 + i));
+			strings.add("escaped".equals(content) ?
+					"The \"" + i + "\" edition.\n" + description + "\tC:\\catalog\\" + i : description + " " + i);
+		}
+	}
+
+	@Benchmark
+	public int singlePass() throws IOException {
+		out.setLength(0);
+		printer.toJson(strings, false, out);
+		return out.length();
+	}
+
+	@Benchmark
+	public int chainedReplace() {
+		out.setLength(0);
+		out.append('[');
+		for (int i = 0; i < strings.size(); i++) {
+			if (i > 0) {
+				out.append(", ");
+			}
+			out.append('"').append(strings.get(i).replace("\\", "\\\\")
+					.replace("\"", "\\\"")
+					.replace("\n", "\\n")
+					.replace("\r", "\\r")
+					.replace("\t", "\\t")).append('"');
+		}
+		out.append(']');
+		return out.length();
+	}
+}
@@ -0,0 +1,70 @@
+package ca.trackerforce.benchmark;
+
+import ca.trackerforce.DotPathQL;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares excluding a single credential from a large JSON-like payload by copying every map and list
+ * against reusing the ones nothing is excluded from. Run with {@code -prof gc} to compare the bytes
+ * allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StructuralSharingBenchmark {
+
+	static final List<String> PATHS = List.of("account.credentials.password");
+
+	DotPathQL copyingPathQL;
+
+	DotPathQL sharingPathQL;
+
+	Map<String, Object> payload;
+
+	@Setup
+	public void setup() {
+		copyingPathQL = new DotPathQL();
+		sharingPathQL = new DotPathQL();
+		sharingPathQL.setStructuralSharing(true);
+
+		List<Object> events = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			Map<String, Object> event = new LinkedHashMap<>();
+			event.put("id", i);
+			event.put("type", i % 2 == 0 ? "click" : "view");
+			event.put("page", "/products/" + i);
+			event.put("tags", List.of("web", "campaign-" + (i % 10)));
+			events.add(event);
+		}
+
+		Map<String, Object> credentials = new LinkedHashMap<>();
+		credentials.put("user", "john");
+		credentials.put("password", "secret");
+		Map<String, Object> account = new LinkedHashMap<>();
+		account.put("name", "John Doe");
+		account.put("credentials", credentials);
+
+		payload = new LinkedHashMap<>();
+		payload.put("account", account);
+		payload.put("events", events);
+	}
+
+	@Benchmark
+	public Map<String, Object> excludeCopying() {
+		return copyingPathQL.exclude(payload, PATHS);
+	}
+
+	@Benchmark
+	public Map<String, Object> excludeSharing() {
+		return sharingPathQL.exclude(payload, PATHS);
+	}
+}
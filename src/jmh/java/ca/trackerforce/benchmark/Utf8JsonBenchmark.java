@@ -0,0 +1,57 @@
+package ca.trackerforce.benchmark;
+
+import ca.trackerforce.DotPathQL;
+import ca.trackerforce.path.api.PrinterOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building the JSON of an order list as a string then encoding it to UTF-8,
+ * against writing the UTF-8 bytes straight into a pooled buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Utf8JsonBenchmark {
+
+	DotPathQL dotPathQL;
+
+	Map<String, Object> result;
+
+	@Setup
+	public void setup() {
+		dotPathQL = new DotPathQL();
+
+		List<Object> products = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			Map<String, Object> product = new LinkedHashMap<>();
+			product.put("productId", "P-" + i);
+			product.put("name", "Product " + i);
+			product.put("description", "Café edition of the product number " + i + ", shipped worldwide");
+			product.put("category", "Electronics");
+			product.put("price", 19.99 + i);
+			product.put("stockQuantity", i * 3);
+			products.add(product);
+		}
+		result = Map.of("products", products);
+	}
+
+	@Benchmark
+	public byte[] stringThenEncode() {
+		return dotPathQL.toJson(result, false).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public byte[] utf8Bytes() {
+		return dotPathQL.toJsonBytes(result, PrinterOptions.compact());
+	}
+}
@@ -0,0 +1,79 @@
+package ca.trackerforce;
+
+import ca.trackerforce.path.api.DotPath;
+import ca.trackerforce.path.api.DotQuery;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Paths parsed once by {@link DotPathQL#compile(List)} or {@link DotPathQL#compile(String)},
+ * that can be run against any number of source objects.
+ * Grouped paths are expanded and merged with the default paths of each operation when compiled.
+ * Instances are immutable and can be shared between threads.
+ */
+public class CompiledQuery {
+
+	private final DotPath pathFilter;
+	private final DotPath pathExclude;
+	private final DotPath pathObfuscate;
+	private final DotQuery filterQuery;
+	private final DotQuery excludeQuery;
+	private final DotQuery obfuscateQuery;
+
+	/**
+	 * Creates a compiled query from the queries compiled by each operation of a DotPathQL instance.
+	 *
+	 * @param pathFilter the DotPath instance for filter operations from DotPathQL
+	 * @param filterQuery the query compiled by the filter instance
+	 * @param pathExclude the DotPath instance for exclude operations from DotPathQL
+	 * @param excludeQuery the query compiled by the exclude instance
+	 * @param pathObfuscate the DotPath instance for obfuscate operations from DotPathQL
+	 * @param obfuscateQuery the query compiled by the obfuscate instance
+	 */
+	CompiledQuery(DotPath pathFilter, DotQuery filterQuery, DotPath pathExclude, DotQuery excludeQuery,
+				  DotPath pathObfuscate, DotQuery obfuscateQuery) {
+		this.pathFilter = pathFilter;
+		this.pathExclude = pathExclude;
+		this.pathObfuscate = pathObfuscate;
+		this.filterQuery = filterQuery;
+		this.excludeQuery = excludeQuery;
+		this.obfuscateQuery = obfuscateQuery;
+	}
+
+	/**
+	 * Filters the given source object with the compiled paths.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to filter
+	 * @return a map containing the filtered properties
+	 * @see DotPathQL#filter(Object, List)
+	 */
+	public <T> Map<String, Object> filter(T source) {
+		return pathFilter.run(source, filterQuery);
+	}
+
+	/**
+	 * Excludes the compiled paths from the given source object.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to extract from
+	 * @return a map containing all properties except the excluded ones
+	 * @see DotPathQL#exclude(Object, List)
+	 */
+	public <T> Map<String, Object> exclude(T source) {
+		return pathExclude.run(source, excludeQuery);
+	}
+
+	/**
+	 * Obfuscates the compiled paths of the given source object.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to obfuscate
+	 * @return a map containing the obfuscated properties
+	 * @see DotPathQL#obfuscate(Object, List)
+	 */
+	public <T> Map<String, Object> obfuscate(T source) {
+		return pathObfuscate.run(source, obfuscateQuery);
+	}
+}
@@ -1,9 +1,18 @@
 package ca.trackerforce;
 
 import ca.trackerforce.path.DotPathFactory;
+import ca.trackerforce.path.api.AccessorMode;
+import ca.trackerforce.path.api.BinaryFormat;
+import ca.trackerforce.path.api.CacheStats;
+import ca.trackerforce.path.api.DotEncoder;
 import ca.trackerforce.path.api.DotPath;
 import ca.trackerforce.path.api.DotPrinter;
+import ca.trackerforce.path.api.PrinterOptions;
+import ca.trackerforce.path.api.PropertyAccessor;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +29,8 @@ public class DotPathQL {
 	private final DotPath pathExclude;
 	private final DotPath pathObfuscate;
 	private final DotPrinter pathPrinter;
+	private final DotEncoder cborEncoder;
+	private final DotEncoder messagePackEncoder;
 
 	/**
 	 * Constructs a DotPathQL instance with an empty list of default filter paths.
@@ -28,7 +39,9 @@ public class DotPathQL {
 		pathFilter = DotPathFactory.buildFilter();
 		pathExclude = DotPathFactory.buildExclude();
 		pathObfuscate = DotPathFactory.buildObfuscate();
-		pathPrinter = DotPathFactory.buildPrinter(2);
+		pathPrinter = DotPathFactory.buildPrinter(PrinterOptions.DEFAULT_INDENT_SIZE);
+		cborEncoder = DotPathFactory.buildEncoder(BinaryFormat.CBOR);
+		messagePackEncoder = DotPathFactory.buildEncoder(BinaryFormat.MESSAGE_PACK);
 	}
 
 	/**
@@ -74,6 +87,34 @@ public class DotPathQL {
 		return pathObfuscate.run(source, obfuscatePaths);
 	}
 
+	/**
+	 * Compiles the given paths once so they can be run against any number of source objects,
+	 * skipping the path parsing on each call. Also supports grouped paths syntax like "parent[child1.prop,child2.prop]".
+	 * The default paths added so far are part of the compiled query, the ones added afterward are not.
+	 *
+	 * @param paths the list of paths to compile
+	 * @return a CompiledQuery that can filter, exclude or obfuscate the given paths
+	 */
+	public CompiledQuery compile(List<String> paths) {
+		return new CompiledQuery(pathFilter, pathFilter.compile(paths), pathExclude, pathExclude.compile(paths),
+				pathObfuscate, pathObfuscate.compile(paths));
+	}
+
+	/**
+	 * Compiles a comma-separated query string, such as a "fields" request parameter, in a single pass.
+	 * Grouped paths like "locations[home[street,city],work[city]]" are parsed straight into the query,
+	 * without being expanded into individual paths first.
+	 * The result is the same as compiling the paths returned by {@link DotUtils#parsePaths(String)}.
+	 * The default paths added so far are part of the compiled query, the ones added afterward are not.
+	 *
+	 * @param query the comma-separated paths to compile
+	 * @return a CompiledQuery that can filter, exclude or obfuscate the given paths
+	 */
+	public CompiledQuery compile(String query) {
+		return new CompiledQuery(pathFilter, pathFilter.compile(query), pathExclude, pathExclude.compile(query),
+				pathObfuscate, pathObfuscate.compile(query));
+	}
+
 	/**
 	 * Adds default filter paths that will be included in every filtering operation.
 	 *
@@ -101,6 +142,118 @@ public class DotPathQL {
 		pathObfuscate.addDefaultPaths(paths);
 	}
 
+	/**
+	 * Sets how properties are read from the source objects in every operation.
+	 * Defaults to {@link AccessorMode#REFLECTION}.
+	 *
+	 * @param accessorMode the accessor mode to use
+	 */
+	public void setAccessorMode(AccessorMode accessorMode) {
+		pathFilter.setAccessorMode(accessorMode);
+		pathExclude.setAccessorMode(accessorMode);
+		pathObfuscate.setAccessorMode(accessorMode);
+	}
+
+	/**
+	 * Sets whether filter, exclude, obfuscate and toMap return compact results, including through compiled queries.
+	 * A compact map holds only the values of its entries, its ordered keys being shared with every object
+	 * selected by the same query node, such as the elements of a large collection, which saves the entries
+	 * and hash table of a {@code LinkedHashMap} per object. The results hold the same entries in the same order,
+	 * but their maps and lists are read-only. Disabled by default.
+	 *
+	 * @param compactResults true to return compact read-only results
+	 */
+	public void setCompactResults(boolean compactResults) {
+		pathFilter.setCompactResults(compactResults);
+		pathExclude.setCompactResults(compactResults);
+		pathObfuscate.setCompactResults(compactResults);
+	}
+
+	/**
+	 * Sets whether exclude, obfuscate and toMap reuse the maps and lists of the source under which nothing
+	 * is excluded nor obfuscated, instead of copying them. Only the maps and lists leading to an excluded path
+	 * are copied, which saves copying large maps and lists of simple values left untouched.
+	 * The result then shares these maps and lists with the source, so neither must be modified while
+	 * the other is in use. Disabled by default.
+	 *
+	 * @param structuralSharing true to reuse the source maps and lists left untouched
+	 */
+	public void setStructuralSharing(boolean structuralSharing) {
+		pathExclude.setStructuralSharing(structuralSharing);
+		pathObfuscate.setStructuralSharing(structuralSharing);
+	}
+
+	/**
+	 * Sets the maximum number of compiled queries kept by each operation, evicting the least recently used
+	 * ones when exceeded. A query is compiled once per raw path list, so repeated calls with the same paths
+	 * skip the parsing and the expansion of grouped paths. Zero disables the cache.
+	 *
+	 * @param maximumSize the maximum number of queries per operation
+	 */
+	public void setQueryCacheSize(int maximumSize) {
+		pathFilter.setQueryCacheSize(maximumSize);
+		pathExclude.setQueryCacheSize(maximumSize);
+		pathObfuscate.setQueryCacheSize(maximumSize);
+	}
+
+	/**
+	 * Returns the statistics of the compiled query caches, aggregated across all operations.
+	 *
+	 * @return the query cache statistics
+	 */
+	public CacheStats getQueryCacheStats() {
+		return pathFilter.getQueryCacheStats().plus(pathExclude.getQueryCacheStats())
+				.plus(pathObfuscate.getQueryCacheStats());
+	}
+
+	/**
+	 * Sets the maximum number of execution plans kept by each operation, evicting the least recently used
+	 * ones when exceeded. A plan is specialized per source class and query so repeated calls on the same types
+	 * skip the type discovery. Zero disables the cache.
+	 *
+	 * @param maximumSize the maximum number of plans per operation
+	 */
+	public void setPlanCacheSize(int maximumSize) {
+		pathFilter.setPlanCacheSize(maximumSize);
+		pathExclude.setPlanCacheSize(maximumSize);
+		pathObfuscate.setPlanCacheSize(maximumSize);
+	}
+
+	/**
+	 * Returns the statistics of the execution plan caches, aggregated across all operations.
+	 *
+	 * @return the plan cache statistics
+	 */
+	public CacheStats getPlanCacheStats() {
+		return pathFilter.getPlanCacheStats().plus(pathExclude.getPlanCacheStats())
+				.plus(pathObfuscate.getPlanCacheStats());
+	}
+
+	/**
+	 * Registers an accessor used to read the properties of its type in every operation,
+	 * taking precedence over records, getters, fields and map entries.
+	 * Useful for proxies, types with computed properties or {@link Map} subclasses.
+	 *
+	 * @param <T> the type handled by the accessor
+	 * @param accessor the accessor to register
+	 */
+	public <T> void registerAccessor(PropertyAccessor<T> accessor) {
+		pathFilter.registerAccessor(accessor);
+		pathExclude.registerAccessor(accessor);
+		pathObfuscate.registerAccessor(accessor);
+	}
+
+	/**
+	 * Returns the number of missing members resolved without a NoSuchMethodException or NoSuchFieldException
+	 * across all operations, counted once per execution plan when it is built rather than on every property read.
+	 *
+	 * @return the number of avoided exceptions
+	 */
+	public long getAvoidedExceptions() {
+		return pathFilter.getAvoidedExceptions() + pathExclude.getAvoidedExceptions() +
+				pathObfuscate.getAvoidedExceptions();
+	}
+
 	/**
 	 * Converts the source object to a map representation.
 	 *
@@ -112,16 +265,68 @@ public class DotPathQL {
 		return exclude(source, Collections.emptyList());
 	}
 
+	/**
+	 * Filters the given source object like {@link #filter(Object, List)}, returning a lazy read-only view
+	 * of the result instead of building it. Each property is read from the source on first access,
+	 * through {@code get} or iteration, then memoized. Nested objects and collections are lazy views as well.
+	 * Views are not thread-safe until fully read, and reflect the source as it is when each entry is accessed.
+	 *
+	 * @param <T>         the type of the source object
+	 * @param source      the source object to filter
+	 * @param filterPaths the list of paths to filter
+	 * @return a lazy view of the filtered properties
+	 */
+	public <T> Map<String, Object> filterView(T source, List<String> filterPaths) {
+		return pathFilter.runView(source, filterPaths);
+	}
+
+	/**
+	 * Excludes the given paths from the source object like {@link #exclude(Object, List)}, returning a lazy
+	 * read-only view of the result instead of building it, see {@link #filterView(Object, List)}.
+	 * The property names are listed when a view is created, their values read on first access.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to extract from
+	 * @param excludePaths list of dot paths to exclude
+	 * @return a lazy view of all properties except the excluded ones
+	 */
+	public <T> Map<String, Object> excludeView(T source, List<String> excludePaths) {
+		return pathExclude.runView(source, excludePaths);
+	}
+
+	/**
+	 * Converts the source object to a lazy read-only map view, reading only the properties accessed,
+	 * see {@link #excludeView(Object, List)}. Useful to read a few properties of a large aggregate.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to convert
+	 * @return a lazy view of all properties of the source object
+	 */
+	public <T> Map<String, Object> toMapView(T source) {
+		return excludeView(source, Collections.emptyList());
+	}
+
 	/**
 	 * Converts the given sourceMap to a JSON string representation with optional formatting.
+	 * The indentation only applies to this call, other calls keep their own formatting.
 	 *
 	 * @param sourceMap the source map to convert to JSON
 	 * @param indentSize the number of spaces to use for indentation
 	 * @return a JSON string representation of the object
 	 */
 	public String toJson(Map<String, Object> sourceMap, int indentSize) {
-		pathPrinter.setIndentSize(indentSize);
-		return toJson(sourceMap, true);
+		return toJson(sourceMap, PrinterOptions.pretty(indentSize));
+	}
+
+	/**
+	 * Converts the given sourceMap to a JSON string representation formatted with the given options.
+	 *
+	 * @param sourceMap the source map to convert to JSON
+	 * @param options the JSON output options, such as {@link PrinterOptions#pretty(int)}
+	 * @return a JSON string representation of the object
+	 */
+	public String toJson(Map<String, Object> sourceMap, PrinterOptions options) {
+		return pathPrinter.toJson(sourceMap, options);
 	}
 
 	/**
@@ -135,6 +340,256 @@ public class DotPathQL {
 		return pathPrinter.toJson(sourceMap, prettier);
 	}
 
+	/**
+	 * Writes the JSON representation of the given sourceMap into the given output, without building
+	 * the whole document as a string first.
+	 *
+	 * @param sourceMap the source map to convert to JSON
+	 * @param prettier if true, formats with proper indentation; if false, compact single-line format
+	 * @param out the output to write to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+	 * @throws IOException if the output fails to be written
+	 */
+	public void toJson(Map<String, Object> sourceMap, boolean prettier, Appendable out) throws IOException {
+		pathPrinter.toJson(sourceMap, prettier, out);
+	}
+
+	/**
+	 * Writes the JSON representation of the given sourceMap, formatted with the given options, into the given output.
+	 *
+	 * @param sourceMap the source map to convert to JSON
+	 * @param options the JSON output options, such as {@link PrinterOptions#pretty(int)}
+	 * @param out the output to write to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+	 * @throws IOException if the output fails to be written
+	 */
+	public void toJson(Map<String, Object> sourceMap, PrinterOptions options, Appendable out) throws IOException {
+		pathPrinter.toJson(sourceMap, options, out);
+	}
+
+	/**
+	 * Writes the UTF-8 encoded JSON representation of the given sourceMap into the given stream, such as
+	 * a socket or response output stream, without building the whole document as a string first.
+	 * The stream is flushed but not closed.
+	 *
+	 * @param sourceMap the source map to convert to JSON
+	 * @param prettier if true, formats with proper indentation; if false, compact single-line format
+	 * @param out the stream to write to
+	 * @throws IOException if the stream fails to be written
+	 */
+	public void toJson(Map<String, Object> sourceMap, boolean prettier, OutputStream out) throws IOException {
+		pathPrinter.toJson(sourceMap, prettier, out);
+	}
+
+	/**
+	 * Converts the given sourceMap to its UTF-8 encoded JSON representation, written straight as bytes
+	 * instead of being built as a string and encoded afterward.
+	 *
+	 * @param sourceMap the source map to convert to JSON
+	 * @param options the JSON output options, such as {@link PrinterOptions#compact()}
+	 * @return the UTF-8 bytes of the JSON representation
+	 */
+	public byte[] toJsonBytes(Map<String, Object> sourceMap, PrinterOptions options) {
+		return pathPrinter.toJsonBytes(sourceMap, options);
+	}
+
+	/**
+	 * Writes the UTF-8 encoded JSON representation of the given sourceMap into the given buffer, heap or direct,
+	 * starting at its position and advancing it.
+	 *
+	 * @param sourceMap the source map to convert to JSON
+	 * @param options the JSON output options, such as {@link PrinterOptions#compact()}
+	 * @param out the buffer to write to
+	 * @throws java.nio.BufferOverflowException if the buffer has not enough room left, part of the JSON
+	 * may have been written already
+	 */
+	public void toJson(Map<String, Object> sourceMap, PrinterOptions options, ByteBuffer out) {
+		pathPrinter.toJson(sourceMap, options, out);
+	}
+
+	/**
+	 * Encodes the given sourceMap to the given binary format, a compact alternative to JSON
+	 * for service-to-service traffic.
+	 *
+	 * @param sourceMap the source map to encode, such as the result of {@link #filter(Object, List)}
+	 * @param format the binary format, such as {@link BinaryFormat#CBOR}
+	 * @return the encoded bytes
+	 */
+	public byte[] toBinary(Map<String, Object> sourceMap, BinaryFormat format) {
+		return encoder(format).encode(sourceMap);
+	}
+
+	/**
+	 * Writes the given sourceMap encoded to the given binary format into the given stream, as it is produced.
+	 * The stream is flushed but not closed.
+	 *
+	 * @param sourceMap the source map to encode, such as the result of {@link #filter(Object, List)}
+	 * @param format the binary format, such as {@link BinaryFormat#CBOR}
+	 * @param out the stream to write to
+	 * @throws IOException if the stream fails to be written
+	 */
+	public void toBinary(Map<String, Object> sourceMap, BinaryFormat format, OutputStream out) throws IOException {
+		encoder(format).encode(sourceMap, out);
+	}
+
+	/**
+	 * Writes the given sourceMap encoded to the given binary format into the given buffer, heap or direct,
+	 * starting at its position and advancing it.
+	 *
+	 * @param sourceMap the source map to encode, such as the result of {@link #filter(Object, List)}
+	 * @param format the binary format, such as {@link BinaryFormat#CBOR}
+	 * @param out the buffer to write to
+	 * @throws java.nio.BufferOverflowException if the buffer has not enough room left, part of the encoding
+	 * may have been written already
+	 */
+	public void toBinary(Map<String, Object> sourceMap, BinaryFormat format, ByteBuffer out) {
+		encoder(format).encode(sourceMap, out);
+	}
+
+	/**
+	 * Filters the given source object like {@link #filter(Object, List)} and writes the result as JSON
+	 * into the given output, without building the intermediate result map.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to filter
+	 * @param filterPaths the list of paths to filter
+	 * @param prettier if true, formats with proper indentation; if false, compact single-line format
+	 * @param out the output to write to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+	 * @throws IOException if the output fails to be written
+	 */
+	public <T> void filterToJson(T source, List<String> filterPaths, boolean prettier, Appendable out)
+			throws IOException {
+		filterToJson(source, filterPaths, PrinterOptions.of(prettier), out);
+	}
+
+	/**
+	 * Filters the given source object like {@link #filter(Object, List)} and writes the result as JSON,
+	 * formatted with the given options, into the given output, without building the intermediate result map.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to filter
+	 * @param filterPaths the list of paths to filter
+	 * @param options the JSON output options, such as {@link PrinterOptions#pretty(int)}
+	 * @param out the output to write to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+	 * @throws IOException if the output fails to be written
+	 */
+	public <T> void filterToJson(T source, List<String> filterPaths, PrinterOptions options, Appendable out)
+			throws IOException {
+		pathFilter.runToJson(source, filterPaths, options, out);
+	}
+
+	/**
+	 * Filters the given source object like {@link #filter(Object, List)} and writes the result as UTF-8 encoded JSON
+	 * into the given stream, without building the intermediate result map. The stream is flushed but not closed.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to filter
+	 * @param filterPaths the list of paths to filter
+	 * @param prettier if true, formats with proper indentation; if false, compact single-line format
+	 * @param out the stream to write to
+	 * @throws IOException if the stream fails to be written
+	 */
+	public <T> void filterToJson(T source, List<String> filterPaths, boolean prettier, OutputStream out)
+			throws IOException {
+		pathFilter.runToJson(source, filterPaths, PrinterOptions.of(prettier), out);
+	}
+
+	/**
+	 * Excludes the given paths from the source object like {@link #exclude(Object, List)} and writes the result
+	 * as JSON into the given output, without building the intermediate result map.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to extract from
+	 * @param excludePaths list of dot paths to exclude
+	 * @param prettier if true, formats with proper indentation; if false, compact single-line format
+	 * @param out the output to write to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+	 * @throws IOException if the output fails to be written
+	 */
+	public <T> void excludeToJson(T source, List<String> excludePaths, boolean prettier, Appendable out)
+			throws IOException {
+		excludeToJson(source, excludePaths, PrinterOptions.of(prettier), out);
+	}
+
+	/**
+	 * Excludes the given paths from the source object like {@link #exclude(Object, List)} and writes the result
+	 * as JSON, formatted with the given options, into the given output, without building the intermediate result map.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to extract from
+	 * @param excludePaths list of dot paths to exclude
+	 * @param options the JSON output options, such as {@link PrinterOptions#pretty(int)}
+	 * @param out the output to write to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+	 * @throws IOException if the output fails to be written
+	 */
+	public <T> void excludeToJson(T source, List<String> excludePaths, PrinterOptions options, Appendable out)
+			throws IOException {
+		pathExclude.runToJson(source, excludePaths, options, out);
+	}
+
+	/**
+	 * Excludes the given paths from the source object like {@link #exclude(Object, List)} and writes the result
+	 * as UTF-8 encoded JSON into the given stream, without building the intermediate result map.
+	 * The stream is flushed but not closed.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to extract from
+	 * @param excludePaths list of dot paths to exclude
+	 * @param prettier if true, formats with proper indentation; if false, compact single-line format
+	 * @param out the stream to write to
+	 * @throws IOException if the stream fails to be written
+	 */
+	public <T> void excludeToJson(T source, List<String> excludePaths, boolean prettier, OutputStream out)
+			throws IOException {
+		pathExclude.runToJson(source, excludePaths, PrinterOptions.of(prettier), out);
+	}
+
+	/**
+	 * Obfuscates the given source object like {@link #obfuscate(Object, List)} and writes the result
+	 * as JSON into the given output, without building the intermediate result map.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to obfuscate
+	 * @param obfuscatePaths the list of paths to obfuscate
+	 * @param prettier if true, formats with proper indentation; if false, compact single-line format
+	 * @param out the output to write to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+	 * @throws IOException if the output fails to be written
+	 */
+	public <T> void obfuscateToJson(T source, List<String> obfuscatePaths, boolean prettier, Appendable out)
+			throws IOException {
+		obfuscateToJson(source, obfuscatePaths, PrinterOptions.of(prettier), out);
+	}
+
+	/**
+	 * Obfuscates the given source object like {@link #obfuscate(Object, List)} and writes the result as JSON,
+	 * formatted with the given options, into the given output, without building the intermediate result map.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to obfuscate
+	 * @param obfuscatePaths the list of paths to obfuscate
+	 * @param options the JSON output options, such as {@link PrinterOptions#pretty(int)}
+	 * @param out the output to write to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+	 * @throws IOException if the output fails to be written
+	 */
+	public <T> void obfuscateToJson(T source, List<String> obfuscatePaths, PrinterOptions options, Appendable out)
+			throws IOException {
+		pathObfuscate.runToJson(source, obfuscatePaths, options, out);
+	}
+
+	/**
+	 * Obfuscates the given source object like {@link #obfuscate(Object, List)} and writes the result as UTF-8
+	 * encoded JSON into the given stream, without building the intermediate result map.
+	 * The stream is flushed but not closed.
+	 *
+	 * @param <T> the type of the source object
+	 * @param source the source object to obfuscate
+	 * @param obfuscatePaths the list of paths to obfuscate
+	 * @param prettier if true, formats with proper indentation; if false, compact single-line format
+	 * @param out the stream to write to
+	 * @throws IOException if the stream fails to be written
+	 */
+	public <T> void obfuscateToJson(T source, List<String> obfuscatePaths, boolean prettier, OutputStream out)
+			throws IOException {
+		pathObfuscate.runToJson(source, obfuscatePaths, PrinterOptions.of(prettier), out);
+	}
+
 	/**
 	 * Creates a pipeline for the given source object that allows chaining multiple operations.
 	 *
@@ -146,4 +601,7 @@ public class DotPathQL {
 		return new Pipeline<>(source, pathExclude, pathObfuscate);
 	}
 
+	private DotEncoder encoder(BinaryFormat format) {
+		return format == BinaryFormat.CBOR ? cborEncoder : messagePackEncoder;
+	}
 }
@@ -0,0 +1,60 @@
+package ca.trackerforce.path;
+
+/**
+ * Ready-to-invoke reader for a single property of a resolved class.
+ * Accessors bound to a primitive member can also read it without boxing through the typed methods.
+ */
+@FunctionalInterface
+interface Accessor {
+
+	/**
+	 * Reads the property value from the given source object.
+	 *
+	 * @param source the source object, an instance of the class the accessor was resolved for
+	 * @return the property value, which may be null
+	 * @throws Exception if the underlying member cannot be read
+	 */
+	Object get(Object source) throws Exception;
+
+	/**
+	 * Returns the primitive type of the member read by this accessor.
+	 *
+	 * @return the primitive type, or null if the member type is a reference or unknown
+	 */
+	default Class<?> primitiveType() {
+		return null;
+	}
+
+	/**
+	 * Reads a byte, short, int or long property.
+	 *
+	 * @param source the source object
+	 * @return the property value
+	 * @throws Exception if the underlying member cannot be read
+	 */
+	default long getLong(Object source) throws Exception {
+		return ((Number) get(source)).longValue();
+	}
+
+	/**
+	 * Reads a float or double property.
+	 *
+	 * @param source the source object
+	 * @return the property value
+	 * @throws Exception if the underlying member cannot be read
+	 */
+	default double getDouble(Object source) throws Exception {
+		return ((Number) get(source)).doubleValue();
+	}
+
+	/**
+	 * Reads a boolean property.
+	 *
+	 * @param source the source object
+	 * @return the property value
+	 * @throws Exception if the underlying member cannot be read
+	 */
+	default boolean getBoolean(Object source) throws Exception {
+		return (Boolean) get(source);
+	}
+}
@@ -0,0 +1,415 @@
+package ca.trackerforce.path;
+
+import ca.trackerforce.path.api.AccessorMode;
+import ca.trackerforce.path.api.PropertyAccessor;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-class cache of property accessors.
+ * Each (class, propertyName) pair is resolved once and the resulting {@link Accessor} is reused
+ * by every following lookup, so the reflective member discovery is not repeated per object.
+ * There is one cache per {@link AccessorMode}, each building its accessors with its own {@link AccessorFactory}.
+ */
+final class AccessorCache {
+
+	private static final AccessorCache REFLECTION = new AccessorCache(new ReflectionAccessorFactory());
+
+	private static final AccessorCache METHOD_HANDLE = new AccessorCache(new MethodHandleAccessorFactory());
+
+	private static final AccessorCache VAR_HANDLE = new AccessorCache(new VarHandleAccessorFactory());
+
+	private static final AccessorCache GENERATED = new AccessorCache(new ReflectionAccessorFactory(), true);
+
+	/**
+	 * Maximum number of missing properties cached per class, the following ones are resolved on each lookup.
+	 */
+	static final int MAX_MISSING_ENTRIES = 64;
+
+	private final AccessorFactory factory;
+
+	private final boolean generatedTables;
+
+	private final ClassValue<ClassAccessors> cache = new ClassValue<>() {
+		@Override
+		protected ClassAccessors computeValue(Class<?> type) {
+			return new ClassAccessors(type, factory, generatedTables ? AccessorRegistry.find(type) : null);
+		}
+	};
+
+	private AccessorCache(AccessorFactory factory) {
+		this(factory, false);
+	}
+
+	private AccessorCache(AccessorFactory factory, boolean generatedTables) {
+		this.factory = factory;
+		this.generatedTables = generatedTables;
+	}
+
+	/**
+	 * Returns the shared cache for the given accessor mode.
+	 *
+	 * @param mode the accessor mode
+	 * @return the accessor cache
+	 */
+	static AccessorCache of(AccessorMode mode) {
+		return switch (mode) {
+			case METHOD_HANDLE -> METHOD_HANDLE;
+			case VAR_HANDLE -> VAR_HANDLE;
+			case GENERATED -> GENERATED;
+			default -> REFLECTION;
+		};
+	}
+
+	/**
+	 * Returns the resolution of the given property of the class of the given source object, including the number
+	 * of member lookups known to be missing, which used to be answered by a thrown exception.
+	 * Missing properties are cached up to {@value #MAX_MISSING_ENTRIES} per class, and never for map types
+	 * whose unknown names are map entries, so names coming from client queries cannot grow the cache.
+	 *
+	 * @param source the source object
+	 * @param propertyName the name of the property
+	 * @return the cached resolution
+	 */
+	Resolution resolve(Object source, String propertyName) {
+		return cache.get(source.getClass()).get(source, propertyName);
+	}
+
+	/**
+	 * Returns the property plan of the class of the given source object.
+	 * The plan is built once per class and shared across calls and threads.
+	 *
+	 * @param source the source object
+	 * @return the property plan
+	 */
+	PropertyPlan plan(Object source) {
+		return cache.get(source.getClass()).plan(source);
+	}
+
+	/**
+	 * Cached outcome of a property resolution.
+	 * A null accessor is the negative entry recording that the class has no such property.
+	 *
+	 * @param accessor the resolved accessor, or null if the property does not exist
+	 * @param missingMembers the number of members (record component, getter, field) the lookup of the property
+	 *                       would have probed in vain, each answered by a thrown exception
+	 */
+	record Resolution(Accessor accessor, int missingMembers) { }
+
+	/**
+	 * Resolved accessors of a single class, keyed by property name.
+	 * Members are looked up in indexes built from {@link Class#getMethods()} and
+	 * {@link Class#getDeclaredFields()}, so resolving a missing property never throws.
+	 * When a generated table is given, the names it lists are read through it without any reflection, and the
+	 * indexes are only built the first time a name the table does not list is resolved.
+	 */
+	private static final class ClassAccessors {
+
+		private final Class<?> type;
+
+		private final AccessorFactory factory;
+
+		private final PropertyAccessor<Object> generated;
+
+		private volatile List<String> generatedNames;
+
+		private volatile Members members;
+
+		private final Map<String, Resolution> resolutions = new ConcurrentHashMap<>();
+
+		private final AtomicInteger missingEntries = new AtomicInteger();
+
+		private volatile PropertyPlan plan;
+
+		private ClassAccessors(Class<?> type, AccessorFactory factory, PropertyAccessor<Object> generated) {
+			this.type = type;
+			this.factory = factory;
+			this.generated = generated;
+		}
+
+		/**
+		 * Returns the cached resolution of the property, resolving it on a miss. Properties backed by a member
+		 * are always cached, there are as many as the class has. Map entries are never cached, and missing
+		 * properties only until {@value #MAX_MISSING_ENTRIES} of them are.
+		 */
+		private Resolution get(Object source, String propertyName) {
+			Resolution resolution = resolutions.get(propertyName);
+			if (resolution != null) {
+				return resolution;
+			}
+
+			resolution = resolve(source, propertyName);
+			if (resolution.accessor() instanceof MapEntryAccessor) {
+				return resolution;
+			}
+
+			if (resolution.accessor() == null && missingEntries.getAndIncrement() >= MAX_MISSING_ENTRIES) {
+				missingEntries.decrementAndGet();
+				return resolution;
+			}
+
+			Resolution cached = resolutions.putIfAbsent(propertyName, resolution);
+			if (cached != null && resolution.accessor() == null) {
+				missingEntries.decrementAndGet();
+			}
+			return cached != null ? cached : resolution;
+		}
+
+		private PropertyPlan plan(Object source) {
+			PropertyPlan current = plan;
+			if (current == null) {
+				current = buildPlan(source);
+				plan = current;
+			}
+			return current;
+		}
+
+		/**
+		 * Builds the plan from the generated table names,
+		 * or from the record components and the fields having an accessible getter.
+		 */
+		private PropertyPlan buildPlan(Object source) {
+			List<String> names = generated != null ? generatedNames(source) : getPropertyNames();
+
+			return new PropertyPlan(names.toArray(String[]::new),
+					names.stream().map(name -> get(source, name).accessor()).toArray(Accessor[]::new));
+		}
+
+		/**
+		 * Returns the names listed by the generated table, which are the same for every instance of the type,
+		 * so the names listed for the first source are kept.
+		 */
+		private List<String> generatedNames(Object source) {
+			List<String> names = generatedNames;
+			if (names == null) {
+				names = List.copyOf(generated.getPropertyNames(source));
+				generatedNames = names;
+			}
+			return names;
+		}
+
+		/**
+		 * Returns the member indexes of the class, built on the first call.
+		 */
+		private Members members() {
+			Members current = members;
+			if (current == null) {
+				current = new Members(indexMethods(type), indexFields(type));
+				members = current;
+			}
+			return current;
+		}
+
+		private List<String> getPropertyNames() {
+			List<String> names = new ArrayList<>();
+			if (type.isRecord()) {
+				Arrays.stream(type.getRecordComponents()).forEach(rc -> names.add(rc.getName()));
+			} else {
+				for (Field f : members().fields().values()) {
+					if (Modifier.isStatic(f.getModifiers())) {
+						continue;
+					}
+
+					if (hasAccessibleGetter(f)) {
+						names.add(f.getName());
+					}
+				}
+			}
+			return names;
+		}
+
+		private boolean hasAccessibleGetter(Field field) {
+			String fieldName = field.getName();
+
+			return isMethodAccessible(field, getterName("get", fieldName)) ||
+					isMethodAccessible(field, getterName("is", fieldName)) ||
+					isMethodAccessible(field, fieldName);
+		}
+
+		private boolean isMethodAccessible(Field field, String getterName) {
+			Method getter = members().methods().get(getterName);
+			return getter != null && getter.getReturnType().equals(field.getType());
+		}
+
+		/**
+		 * Resolves the accessor through the generated table when it lists the property, which probes no member.
+		 * Any other name is resolved from the member indexes.
+		 */
+		private Resolution resolve(Object source, String propertyName) {
+			if (generated != null && generatedNames(source).contains(propertyName)) {
+				return new Resolution(target -> generated.getValue(target, propertyName), 0);
+			}
+			return resolveMember(propertyName);
+		}
+
+		/**
+		 * Resolves the accessor following the same order used by the property lookup: record component,
+		 * getter method, map entry and finally direct field access.
+		 * Map types without a matching getter or field resolve straight to the map entry.
+		 * A missing property of a class misses both its getter and its field, a map entry only misses its getter
+		 * since the map answers before the field is probed.
+		 */
+		private Resolution resolveMember(String propertyName) {
+			Map<String, Method> methods = members().methods();
+			if (type.isRecord()) {
+				Accessor component = ofMethod(methods.get(propertyName));
+				return new Resolution(component, component == null ? 1 : 0);
+			}
+
+			Accessor getter = propertyName.isEmpty() ? null : ofMethod(methods.get(getterName("get", propertyName)));
+			Accessor field = ofField(members().fields().get(propertyName));
+			boolean isMap = Map.class.isAssignableFrom(type);
+
+			if (getter == null && field == null) {
+				return isMap ? new Resolution(new MapEntryAccessor(propertyName), 1) : new Resolution(null, 2);
+			}
+
+			return new Resolution(new MemberAccessor(propertyName, getter, field, isMap), getter == null ? 1 : 0);
+		}
+
+		private Accessor ofMethod(Method method) {
+			return method == null ? null : factory.ofMethod(method);
+		}
+
+		private Accessor ofField(Field field) {
+			if (field == null) {
+				return null;
+			}
+
+			try {
+				return factory.ofField(field);
+			} catch (RuntimeException e) {
+				return null;
+			}
+		}
+
+		private static String getterName(String prefix, String propertyName) {
+			return prefix + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+		}
+
+		/**
+		 * Indexes the public no-argument methods by name, keeping the most specific return type
+		 * like {@link Class#getMethod(String, Class[])} does.
+		 */
+		private static Map<String, Method> indexMethods(Class<?> type) {
+			Map<String, Method> index = new HashMap<>();
+			try {
+				for (Method method : type.getMethods()) {
+					if (method.getParameterCount() == 0) {
+						index.merge(method.getName(), method, (current, candidate) ->
+								current.getReturnType().isAssignableFrom(candidate.getReturnType()) &&
+										!candidate.isBridge() ? candidate : current);
+					}
+				}
+			} catch (LinkageError e) {
+				// Members referencing missing classes cannot be resolved, the class is handled as having none
+			}
+			return index;
+		}
+
+		private static Map<String, Field> indexFields(Class<?> type) {
+			Map<String, Field> index = new LinkedHashMap<>();
+			try {
+				for (Field field : type.getDeclaredFields()) {
+					index.put(field.getName(), field);
+				}
+			} catch (LinkageError e) {
+				// Members referencing missing classes cannot be resolved, the class is handled as having none
+			}
+			return index;
+		}
+
+		/**
+		 * Public no-argument methods and declared fields of a class, indexed by name.
+		 */
+		private record Members(Map<String, Method> methods, Map<String, Field> fields) { }
+	}
+
+	/**
+	 * Accessor of a map entry, used for the names of a map type that are neither a getter nor a field.
+	 */
+	private record MapEntryAccessor(String propertyName) implements Accessor {
+
+		@Override
+		public Object get(Object source) {
+			return ((Map<?, ?>) source).get(propertyName);
+		}
+	}
+
+	/**
+	 * Accessor of a class property, reading its getter first, then the map entry and finally the field when
+	 * the getter is missing, returns null or fails. A getter of a primitive value never returns null, so its
+	 * typed reads go straight to the getter, falling back to the other members only when it fails.
+	 */
+	private record MemberAccessor(String propertyName, Accessor getter, Accessor field, boolean isMap)
+			implements Accessor {
+
+		@Override
+		public Object get(Object source) throws Exception {
+			Object getterResult = invokeQuietly(getter, source);
+			if (getterResult != null) {
+				return getterResult;
+			}
+
+			if (isMap && ((Map<?, ?>) source).containsKey(propertyName)) {
+				return ((Map<?, ?>) source).get(propertyName);
+			}
+
+			return field == null ? null : field.get(source);
+		}
+
+		@Override
+		public Class<?> primitiveType() {
+			return getter == null ? null : getter.primitiveType();
+		}
+
+		@Override
+		public long getLong(Object source) throws Exception {
+			try {
+				return getter.getLong(source);
+			} catch (Exception e) {
+				return Accessor.super.getLong(source);
+			}
+		}
+
+		@Override
+		public double getDouble(Object source) throws Exception {
+			try {
+				return getter.getDouble(source);
+			} catch (Exception e) {
+				return Accessor.super.getDouble(source);
+			}
+		}
+
+		@Override
+		public boolean getBoolean(Object source) throws Exception {
+			try {
+				return getter.getBoolean(source);
+			} catch (Exception e) {
+				return Accessor.super.getBoolean(source);
+			}
+		}
+
+		private static Object invokeQuietly(Accessor accessor, Object source) {
+			if (accessor == null) {
+				return null;
+			}
+
+			try {
+				return accessor.get(source);
+			} catch (Exception e) {
+				return null;
+			}
+		}
+	}
+}
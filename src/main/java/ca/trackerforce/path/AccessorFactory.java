@@ -0,0 +1,27 @@
+package ca.trackerforce.path;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Turns resolved members into ready-to-invoke {@link Accessor} instances.
+ */
+interface AccessorFactory {
+
+	/**
+	 * Creates an accessor that invokes the given no-argument method.
+	 *
+	 * @param method the record component accessor or getter method
+	 * @return the accessor for the method
+	 */
+	Accessor ofMethod(Method method);
+
+	/**
+	 * Creates an accessor that reads the given field, bypassing its access modifiers.
+	 *
+	 * @param field the field
+	 * @return the accessor for the field
+	 * @throws RuntimeException if the field cannot be made accessible
+	 */
+	Accessor ofField(Field field);
+}
@@ -0,0 +1,53 @@
+package ca.trackerforce.path;
+
+import ca.trackerforce.path.api.PropertyAccessor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the {@link PropertyAccessor} tables generated at build time for types annotated with
+ * {@link ca.trackerforce.path.api.DotPathQLType}. The tables are discovered once with {@link ServiceLoader}.
+ */
+@SuppressWarnings("unchecked")
+final class AccessorRegistry {
+
+	private AccessorRegistry() { }
+
+	/**
+	 * Returns the generated accessor for the given type.
+	 *
+	 * @param type the source type
+	 * @return the generated accessor, or null if the type has none
+	 */
+	static PropertyAccessor<Object> find(Class<?> type) {
+		return (PropertyAccessor<Object>) Generated.ACCESSORS.get(type);
+	}
+
+	private static final class Generated {
+
+		private static final Map<Class<?>, PropertyAccessor<?>> ACCESSORS = load();
+
+		private static Map<Class<?>, PropertyAccessor<?>> load() {
+			Map<Class<?>, PropertyAccessor<?>> accessors = new HashMap<>();
+			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+			if (classLoader == null) {
+				classLoader = AccessorRegistry.class.getClassLoader();
+			}
+
+			var iterator = ServiceLoader.load(PropertyAccessor.class, classLoader).iterator();
+			while (iterator.hasNext()) {
+				try {
+					PropertyAccessor<?> accessor = iterator.next();
+					accessors.put(accessor.getType(), accessor);
+				} catch (ServiceConfigurationError e) {
+					// Skips stale registrations, the type then falls back to reflection
+				}
+			}
+
+			return Map.copyOf(accessors);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package ca.trackerforce.path;
+
+import java.io.IOException;
+
+/**
+ * Writes the JSON tokens as characters into an {@link Appendable}, such as a {@link StringBuilder} or a Writer.
+ */
+final class AppendableOutput implements JsonOutput {
+
+	private final Appendable out;
+
+	private final JsonEscaper escaper = new JsonEscaper();
+
+	private final byte[] digits = new byte[JsonNumbers.MAX_LENGTH];
+
+	AppendableOutput(Appendable out) {
+		this.out = out;
+	}
+
+	@Override
+	public void append(char c) throws IOException {
+		out.append(c);
+	}
+
+	@Override
+	public void append(String text) throws IOException {
+		out.append(text);
+	}
+
+	@Override
+	public void number(long value) throws IOException {
+		appendDigits(JsonNumbers.writeLong(value, digits, 0));
+	}
+
+	@Override
+	public void number(double value) throws IOException {
+		int length = JsonNumbers.writeDouble(value, digits, 0);
+		if (length < 0) {
+			out.append(Double.toString(value));
+		} else {
+			appendDigits(length);
+		}
+	}
+
+	@Override
+	public void number(float value) throws IOException {
+		int length = JsonNumbers.writeFloat(value, digits, 0);
+		if (length < 0) {
+			out.append(Float.toString(value));
+		} else {
+			appendDigits(length);
+		}
+	}
+
+	@Override
+	public void string(String value) throws IOException {
+		out.append('"');
+		escaper.escape(value, out);
+		out.append('"');
+	}
+
+	@Override
+	public void name(String name, byte[] encoded) throws IOException {
+		string(name);
+		out.append(": ");
+	}
+
+	private void appendDigits(int length) throws IOException {
+		for (int i = 0; i < length; i++) {
+			out.append((char) digits[i]);
+		}
+	}
+}
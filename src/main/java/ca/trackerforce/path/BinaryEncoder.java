@@ -0,0 +1,226 @@
+package ca.trackerforce.path;
+
+import ca.trackerforce.path.api.BinaryFormat;
+import ca.trackerforce.path.api.DotEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Walks objects the way {@link JsonWriter} does and writes them in a binary format, each item preceded by
+ * a head carrying its type and length. The heads are left to the subclasses, the bytes go through a pooled
+ * {@link Utf8Output} drained into the destination whenever it is full.
+ * Maps, collections and arrays are written with their size known upfront, so no item is ever patched.
+ * Map keys, mostly the same few names taken from the queries, are copied from a cache of their encoding.
+ */
+abstract class BinaryEncoder implements DotEncoder {
+
+	/**
+	 * Keys longer than this are not cached.
+	 */
+	private static final int MAX_CACHED_KEY_LENGTH = 64;
+
+	/**
+	 * Largest size of a head, one byte followed by an 8-byte argument.
+	 */
+	private static final int MAX_HEAD_SIZE = 9;
+
+	/**
+	 * Largest number of bytes a char is given by the UTF-8 encoder, see {@link Utf8Output}.
+	 */
+	private static final int MAX_BYTES_PER_CHAR = 6;
+
+	@Override
+	public byte[] encode(Object obj) {
+		Utf8Output output = Utf8Output.acquire(null);
+		try {
+			value(output, obj);
+			return output.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			output.release();
+		}
+	}
+
+	@Override
+	public void encode(Object obj, OutputStream out) throws IOException {
+		write(obj, out::write);
+		out.flush();
+	}
+
+	@Override
+	public void encode(Object obj, ByteBuffer out) {
+		try {
+			write(obj, out::put);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	abstract void writeNull(Utf8Output out) throws IOException;
+
+	abstract void writeBoolean(Utf8Output out, boolean value) throws IOException;
+
+	abstract void writeLong(Utf8Output out, long value) throws IOException;
+
+	abstract void writeDouble(Utf8Output out, double value) throws IOException;
+
+	abstract void writeFloat(Utf8Output out, float value) throws IOException;
+
+	abstract void writeBigInteger(Utf8Output out, BigInteger value) throws IOException;
+
+	abstract void writeBigDecimal(Utf8Output out, BigDecimal value) throws IOException;
+
+	abstract void writeString(Utf8Output out, String value) throws IOException;
+
+	abstract void writeBinary(Utf8Output out, byte[] value) throws IOException;
+
+	abstract void writeArrayHead(Utf8Output out, int size) throws IOException;
+
+	abstract void writeMapHead(Utf8Output out, int size) throws IOException;
+
+	private void write(Object obj, Utf8Output.ByteSink sink) throws IOException {
+		Utf8Output output = Utf8Output.acquire(sink);
+		try {
+			value(output, obj);
+			output.flush();
+		} finally {
+			output.release();
+		}
+	}
+
+	/**
+	 * Writes a value, in the order of the checks of {@link JsonWriter#value(Object)}.
+	 */
+	private void value(Utf8Output out, Object value) throws IOException {
+		if (value instanceof String str) {
+			writeString(out, str);
+		} else if (value == null) {
+			writeNull(out);
+		} else if (value instanceof Number number) {
+			writeNumber(out, number);
+		} else if (value instanceof Boolean bool) {
+			writeBoolean(out, bool);
+		} else if (value instanceof Map<?, ?> map) {
+			writeMap(out, map);
+		} else if (value instanceof Collection<?> collection) {
+			writeCollection(out, collection);
+		} else if (value.getClass().isArray()) {
+			writeArray(out, value);
+		} else {
+			writeString(out, value.toString());
+		}
+	}
+
+	private void writeMap(Utf8Output out, Map<?, ?> map) throws IOException {
+		writeMapHead(out, map.size());
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			writeKey(out, entry.getKey().toString());
+			value(out, entry.getValue());
+		}
+	}
+
+	private void writeKey(Utf8Output out, String key) throws IOException {
+		BinaryFormat format = getFormat();
+		byte[] cached = out.cachedKey(key, format);
+		if (cached != null) {
+			out.writeBytes(cached);
+		} else if (key.length() <= MAX_CACHED_KEY_LENGTH) {
+			int start = out.reserve(MAX_HEAD_SIZE + key.length() * MAX_BYTES_PER_CHAR);
+			writeString(out, key);
+			out.cacheKey(key, format, start);
+		} else {
+			writeString(out, key);
+		}
+	}
+
+	private void writeCollection(Utf8Output out, Collection<?> collection) throws IOException {
+		writeArrayHead(out, collection.size());
+		for (Object item : collection) {
+			value(out, item);
+		}
+	}
+
+	/**
+	 * Writes the boxed integral and floating-point types with their own types. Other numbers,
+	 * such as atomic ones, are written as their {@code toString()} like the JSON printer does.
+	 */
+	private void writeNumber(Utf8Output out, Number number) throws IOException {
+		if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+			writeLong(out, number.longValue());
+		} else if (number instanceof Double d) {
+			writeDouble(out, d);
+		} else if (number instanceof Float f) {
+			writeFloat(out, f);
+		} else if (number instanceof BigInteger bigInteger) {
+			writeBigInteger(out, bigInteger);
+		} else if (number instanceof BigDecimal bigDecimal) {
+			writeBigDecimal(out, bigDecimal);
+		} else {
+			writeString(out, number.toString());
+		}
+	}
+
+	/**
+	 * Writes byte arrays as binary strings, and the elements of other arrays reading the primitive ones
+	 * without boxing them.
+	 */
+	private void writeArray(Utf8Output out, Object array) throws IOException {
+		if (array instanceof byte[] bytes) {
+			writeBinary(out, bytes);
+		} else if (array instanceof Object[] objects) {
+			writeArrayHead(out, objects.length);
+			for (Object element : objects) {
+				value(out, element);
+			}
+		} else if (array instanceof int[] ints) {
+			writeArrayHead(out, ints.length);
+			for (int element : ints) {
+				writeLong(out, element);
+			}
+		} else if (array instanceof long[] longs) {
+			writeArrayHead(out, longs.length);
+			for (long element : longs) {
+				writeLong(out, element);
+			}
+		} else if (array instanceof double[] doubles) {
+			writeArrayHead(out, doubles.length);
+			for (double element : doubles) {
+				writeDouble(out, element);
+			}
+		} else {
+			writePrimitiveArray(out, array);
+		}
+	}
+
+	private void writePrimitiveArray(Utf8Output out, Object array) throws IOException {
+		if (array instanceof float[] floats) {
+			writeArrayHead(out, floats.length);
+			for (float element : floats) {
+				writeFloat(out, element);
+			}
+		} else if (array instanceof short[] shorts) {
+			writeArrayHead(out, shorts.length);
+			for (short element : shorts) {
+				writeLong(out, element);
+			}
+		} else if (array instanceof boolean[] booleans) {
+			writeArrayHead(out, booleans.length);
+			for (boolean element : booleans) {
+				writeBoolean(out, element);
+			}
+		} else if (array instanceof char[] chars) {
+			writeArrayHead(out, chars.length);
+			for (char element : chars) {
+				writeString(out, String.valueOf(element));
+			}
+		}
+	}
+}
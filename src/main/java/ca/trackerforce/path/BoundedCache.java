@@ -0,0 +1,181 @@
+package ca.trackerforce.path;
+
+import ca.trackerforce.path.api.CacheStats;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Cache holding up to a maximum number of entries, evicting the least recently used ones when full.
+ * <p>
+ * Lookups read a {@link ConcurrentHashMap} without locking and only mark the entry they hit as referenced.
+ * Inserts and evictions take a lock and approximate the least recently used order with a clock: entries are
+ * queued in insertion order, and a referenced entry reaching the head of the queue gets a second chance at the
+ * tail instead of being evicted. Values are built outside the lock.
+ * A maximum size of zero disables the cache, every lookup then builds its value.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+final class BoundedCache<K, V> {
+
+	private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Keys in clock order, guarded by {@link #lock}.
+	 */
+	private final ArrayDeque<K> clock = new ArrayDeque<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	private volatile int maximumSize;
+
+	BoundedCache(int maximumSize) {
+		setMaximumSize(maximumSize);
+	}
+
+	/**
+	 * Returns the cached value of the given key, building and caching it if absent.
+	 *
+	 * @param key the key
+	 * @param loader builds the value when the key is not cached
+	 * @return the cached or newly built value
+	 */
+	V get(K key, Supplier<? extends V> loader) {
+		if (maximumSize == 0) {
+			misses.increment();
+			return loader.get();
+		}
+
+		Entry<V> entry = entries.get(key);
+		if (entry != null) {
+			entry.touch();
+			hits.increment();
+			return entry.value;
+		}
+
+		misses.increment();
+		V loaded = loader.get();
+		lock.lock();
+		try {
+			entry = entries.get(key);
+			if (entry != null) {
+				return entry.value;
+			}
+
+			entries.put(key, new Entry<>(loaded));
+			clock.addLast(key);
+			evictExceeding();
+		} finally {
+			lock.unlock();
+		}
+		return loaded;
+	}
+
+	/**
+	 * Counts a lookup answered by a copy of a cached value kept by the caller.
+	 */
+	void recordHit() {
+		hits.increment();
+	}
+
+	/**
+	 * @return true if the cache keeps values, false if its maximum size is zero
+	 */
+	boolean isEnabled() {
+		return maximumSize > 0;
+	}
+
+	/**
+	 * Sets the maximum number of entries, evicting the least recently used ones if needed.
+	 *
+	 * @param maximumSize the maximum number of entries, zero to disable the cache
+	 * @throws IllegalArgumentException if the maximum size is negative
+	 */
+	void setMaximumSize(int maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException("The maximum size cannot be negative: " + maximumSize);
+		}
+
+		lock.lock();
+		try {
+			this.maximumSize = maximumSize;
+			evictExceeding();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes all entries, keeping the statistics.
+	 */
+	void clear() {
+		lock.lock();
+		try {
+			entries.clear();
+			clock.clear();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	CacheStats stats() {
+		return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), maximumSize);
+	}
+
+	/**
+	 * Removes entries from the head of the clock until the cache fits its maximum size, giving each
+	 * referenced entry one more turn. Once every queued entry had its turn, the head is evicted regardless,
+	 * so lookups marking entries concurrently cannot keep the loop going. Called holding the lock.
+	 */
+	private void evictExceeding() {
+		int chances = clock.size();
+		while (entries.size() > maximumSize && !clock.isEmpty()) {
+			K key = clock.pollFirst();
+			Entry<V> entry = entries.get(key);
+			if (entry == null) {
+				continue;
+			}
+
+			if (entry.referenced && chances-- > 0) {
+				entry.referenced = false;
+				clock.addLast(key);
+			} else {
+				entries.remove(key);
+				evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * Cached value with the reference bit of the clock.
+	 */
+	private static final class Entry<V> {
+
+		private final V value;
+
+		private volatile boolean referenced;
+
+		private Entry(V value) {
+			this.value = value;
+		}
+
+		/**
+		 * Marks the entry as referenced, writing the shared field only when it changes.
+		 */
+		private void touch() {
+			if (!referenced) {
+				referenced = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package ca.trackerforce.path;
+
+import ca.trackerforce.path.api.BinaryFormat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Encodes objects as CBOR, defined by RFC 8949, with definite lengths only.
+ * Integers and lengths take the shortest head of their value, floats and doubles keep their own precision.
+ * Integers beyond the range of a long are written as bignums (tags 2 and 3), decimals as decimal fractions (tag 4).
+ */
+final class CborEncoder extends BinaryEncoder {
+
+	static final int UNSIGNED = 0;
+
+	static final int NEGATIVE = 1;
+
+	static final int BYTES = 2;
+
+	static final int TEXT = 3;
+
+	static final int ARRAY = 4;
+
+	static final int MAP = 5;
+
+	static final int TAG = 6;
+
+	static final int FALSE = 0xF4;
+
+	static final int TRUE = 0xF5;
+
+	static final int NULL = 0xF6;
+
+	static final int FLOAT = 0xFA;
+
+	static final int DOUBLE = 0xFB;
+
+	static final int POSITIVE_BIGNUM = 2;
+
+	static final int NEGATIVE_BIGNUM = 3;
+
+	static final int DECIMAL_FRACTION = 4;
+
+	/**
+	 * Largest argument held by the head byte itself, larger ones follow it on 1, 2, 4 or 8 bytes.
+	 */
+	private static final int MAX_DIRECT = 23;
+
+	@Override
+	public BinaryFormat getFormat() {
+		return BinaryFormat.CBOR;
+	}
+
+	@Override
+	void writeNull(Utf8Output out) throws IOException {
+		out.writeByte(NULL);
+	}
+
+	@Override
+	void writeBoolean(Utf8Output out, boolean value) throws IOException {
+		out.writeByte(value ? TRUE : FALSE);
+	}
+
+	@Override
+	void writeLong(Utf8Output out, long value) throws IOException {
+		if (value >= 0) {
+			writeHead(out, UNSIGNED, value);
+		} else {
+			writeHead(out, NEGATIVE, -1 - value);
+		}
+	}
+
+	@Override
+	void writeDouble(Utf8Output out, double value) throws IOException {
+		out.writeHead(DOUBLE, Double.doubleToLongBits(value), Double.BYTES);
+	}
+
+	@Override
+	void writeFloat(Utf8Output out, float value) throws IOException {
+		out.writeHead(FLOAT, Float.floatToIntBits(value), Float.BYTES);
+	}
+
+	@Override
+	void writeBigInteger(Utf8Output out, BigInteger value) throws IOException {
+		if (value.bitLength() < Long.SIZE) {
+			writeLong(out, value.longValue());
+		} else if (value.signum() > 0) {
+			writeHead(out, TAG, POSITIVE_BIGNUM);
+			writeBinary(out, magnitude(value));
+		} else {
+			writeHead(out, TAG, NEGATIVE_BIGNUM);
+			writeBinary(out, magnitude(value.not()));
+		}
+	}
+
+	@Override
+	void writeBigDecimal(Utf8Output out, BigDecimal value) throws IOException {
+		writeHead(out, TAG, DECIMAL_FRACTION);
+		writeArrayHead(out, 2);
+		writeLong(out, -(long) value.scale());
+		writeBigInteger(out, value.unscaledValue());
+	}
+
+	@Override
+	void writeString(Utf8Output out, String value) throws IOException {
+		writeHead(out, TEXT, Utf8Output.utf8Length(value));
+		out.writeUtf8(value);
+	}
+
+	@Override
+	void writeBinary(Utf8Output out, byte[] value) throws IOException {
+		writeHead(out, BYTES, value.length);
+		out.writeBytes(value);
+	}
+
+	@Override
+	void writeArrayHead(Utf8Output out, int size) throws IOException {
+		writeHead(out, ARRAY, size);
+	}
+
+	@Override
+	void writeMapHead(Utf8Output out, int size) throws IOException {
+		writeHead(out, MAP, size);
+	}
+
+	/**
+	 * Writes the head of an item, the argument being an unsigned value.
+	 */
+	private static void writeHead(Utf8Output out, int majorType, long argument) throws IOException {
+		int type = majorType << 5;
+		if (argument <= MAX_DIRECT) {
+			out.writeByte(type | (int) argument);
+		} else if (argument <= 0xFF) {
+			out.writeHead(type | 24, argument, 1);
+		} else if (argument <= 0xFFFF) {
+			out.writeHead(type | 25, argument, 2);
+		} else if (argument <= 0xFFFFFFFFL) {
+			out.writeHead(type | 26, argument, 4);
+		} else {
+			out.writeHead(type | 27, argument, 8);
+		}
+	}
+
+	/**
+	 * Returns the big-endian bytes of a positive value, without the sign byte {@link BigInteger#toByteArray()} may add.
+	 */
+	private static byte[] magnitude(BigInteger value) {
+		byte[] bytes = value.toByteArray();
+		if (bytes[0] != 0) {
+			return bytes;
+		}
+
+		byte[] magnitude = new byte[bytes.length - 1];
+		System.arraycopy(bytes, 1, magnitude, 0, magnitude.length);
+		return magnitude;
+	}
+}
@@ -0,0 +1,174 @@
+package ca.trackerforce.path;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable result map holding only the values of its entries, its keys being taken from a {@link ResultShape}
+ * shared by every result of the same query node or execution plan. Unlike a {@code LinkedHashMap},
+ * it has no entry object nor hash table of its own, and iterates in the order of the shape.
+ * The entries are resolved all at once when built, with the same resolvers as the lazy views.
+ */
+final class CompactResultMap extends AbstractMap<String, Object> {
+
+	private final ResultShape shape;
+
+	private final Object[] values;
+
+	private CompactResultMap(ResultShape shape, Object[] values) {
+		this.shape = shape;
+		this.values = values;
+	}
+
+	/**
+	 * Resolves every entry of the given shape into a compact map. The entries resolving to
+	 * {@link LazyResultMap#ABSENT} are left out, the map then taking the shape of the present ones.
+	 *
+	 * @param shape the candidate keys
+	 * @param resolver resolves the value of the entry at a given index
+	 * @return the result map, immutable
+	 */
+	static Map<String, Object> of(ResultShape shape, LazyResultMap.Resolver resolver) {
+		int size = shape.size();
+		if (size == 0) {
+			return Collections.emptyMap();
+		}
+
+		Object[] values = new Object[size];
+		int count = 0;
+		long present = 0;
+		BitSet widePresent = null;
+		for (int i = 0; i < size; i++) {
+			Object value = resolver.resolve(i);
+			if (value == LazyResultMap.ABSENT) {
+				continue;
+			}
+
+			values[count++] = value;
+			if (i < Long.SIZE) {
+				present |= 1L << i;
+			} else {
+				if (widePresent == null) {
+					widePresent = new BitSet(size);
+				}
+				widePresent.set(i);
+			}
+		}
+
+		if (count == size) {
+			return new CompactResultMap(shape, values);
+		}
+
+		if (count == 0) {
+			return Collections.emptyMap();
+		}
+
+		ResultShape kept;
+		if (size <= Long.SIZE) {
+			kept = shape.subset(present);
+		} else {
+			BitSet all = BitSet.valueOf(new long[] { present });
+			if (widePresent != null) {
+				all.or(widePresent);
+			}
+			kept = shape.subset(all);
+		}
+		return new CompactResultMap(kept, Arrays.copyOf(values, count));
+	}
+
+	/**
+	 * Resolves every element of a result list.
+	 *
+	 * @param size the number of source elements
+	 * @param skipEmpty true to leave out the elements resolving to an empty map
+	 * @param resolver resolves the element at a given index from the source element
+	 * @return the result list, immutable
+	 */
+	static List<Object> list(int size, boolean skipEmpty, LazyResultMap.Resolver resolver) {
+		Object[] elements = new Object[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			Object element = resolver.resolve(i);
+			if (!skipEmpty || !(element instanceof Map<?, ?> map && map.isEmpty())) {
+				elements[count++] = element;
+			}
+		}
+
+		if (count == 0) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(Arrays.asList(count == size ? elements : Arrays.copyOf(elements, count)));
+	}
+
+	@Override
+	public Object get(Object key) {
+		int index = shape.indexOf(key);
+		return index < 0 ? null : values[index];
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return shape.indexOf(key) >= 0;
+	}
+
+	@Override
+	public int size() {
+		return values.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return values.length == 0;
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super Object> action) {
+		for (int i = 0; i < values.length; i++) {
+			action.accept(shape.key(i), values[i]);
+		}
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<>() {
+
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new Iterator<>() {
+
+					private int next;
+
+					@Override
+					public boolean hasNext() {
+						return next < values.length;
+					}
+
+					@Override
+					public Entry<String, Object> next() {
+						if (next >= values.length) {
+							throw new NoSuchElementException();
+						}
+
+						Entry<String, Object> entry = new SimpleImmutableEntry<>(shape.key(next), values[next]);
+						next++;
+						return entry;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return values.length;
+			}
+		};
+	}
+}
@@ -1,11 +1,13 @@
 package ca.trackerforce.path;
 
+import ca.trackerforce.path.api.BinaryFormat;
+import ca.trackerforce.path.api.DotEncoder;
 import ca.trackerforce.path.api.DotParse;
 import ca.trackerforce.path.api.DotPath;
 import ca.trackerforce.path.api.DotPrinter;
 
 /**
- * Factory class for creating instances of DotPath and DotPrinter implementations.
+ * Factory class for creating instances of DotPath, DotPrinter and DotEncoder implementations.
  */
 public class DotPathFactory {
 
@@ -50,6 +52,19 @@ public class DotPathFactory {
 		return new PathPrinter(indentSize);
 	}
 
+	/**
+	 * Builds and returns a new encoder of the given binary format.
+	 *
+	 * @param format the binary format to encode to
+	 * @return a new CborEncoder or MessagePackEncoder instance
+	 */
+	public static DotEncoder buildEncoder(BinaryFormat format) {
+		return switch (format) {
+			case CBOR -> new CborEncoder();
+			case MESSAGE_PACK -> new MessagePackEncoder();
+		};
+	}
+
 	/**
 	 * Builds and returns a new instance of PathParser.
 	 *
@@ -0,0 +1,80 @@
+package ca.trackerforce.path;
+
+import java.util.Arrays;
+
+/**
+ * Execution plan of an exclusion tree node for a concrete source class.
+ * Pairs each property of the class with its child exclusion node, so running the plan
+ * does no type discovery nor child lookup.
+ */
+final class ExcludePlan {
+
+	private final PropertyPlan properties;
+
+	private final PathTrie[] children;
+
+	private final int[] retained;
+
+	private final ResultShape shape;
+
+	private final ResultShape retainedShape;
+
+	ExcludePlan(PropertyPlan properties, PathTrie node) {
+		this.properties = properties;
+		this.children = new PathTrie[properties.size()];
+
+		int count = 0;
+		int[] indexes = new int[children.length];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = node.find(properties.name(i));
+			if (children[i] == null || !children[i].isTerminalLeaf()) {
+				indexes[count++] = i;
+			}
+		}
+
+		this.shape = new ResultShape(properties.names());
+
+		this.retained = Arrays.copyOf(indexes, count);
+		String[] retainedNames = new String[count];
+		for (int i = 0; i < count; i++) {
+			retainedNames[i] = properties.name(retained[i]);
+		}
+		this.retainedShape = count == children.length ? shape : new ResultShape(retainedNames);
+	}
+
+	/**
+	 * @return the properties of the class, with their accessors
+	 */
+	PropertyPlan properties() {
+		return properties;
+	}
+
+	/**
+	 * @param index the property index
+	 * @return the exclusion node of the property at the given index, or null if nothing is excluded under it
+	 */
+	PathTrie child(int index) {
+		return children[index];
+	}
+
+	/**
+	 * @return the indexes of the properties not excluded as a whole, in declaration order
+	 */
+	int[] retained() {
+		return retained;
+	}
+
+	/**
+	 * @return the shape of the results keeping every property, the excluded ones being masked
+	 */
+	ResultShape shape() {
+		return shape;
+	}
+
+	/**
+	 * @return the shape of the results keeping the properties not excluded as a whole, in declaration order
+	 */
+	ResultShape retainedShape() {
+		return retainedShape;
+	}
+}
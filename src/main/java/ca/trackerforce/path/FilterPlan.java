@@ -0,0 +1,83 @@
+package ca.trackerforce.path;
+
+/**
+ * Execution plan of a filter trie node for a concrete source class.
+ * The accessor of each selected property is resolved once, so running the plan does no type discovery,
+ * and its name is encoded once, by the first JSON written as UTF-8.
+ */
+final class FilterPlan {
+
+	private final PathTrie node;
+
+	private final AccessorCache.Resolution[] resolutions;
+
+	private final int missingMembers;
+
+	private volatile byte[][] encodedNames;
+
+	FilterPlan(Object source, PathTrie node, AccessorCache accessorCache) {
+		this.node = node;
+		this.resolutions = new AccessorCache.Resolution[node.size()];
+
+		int missing = 0;
+		for (int i = 0; i < resolutions.length; i++) {
+			resolutions[i] = accessorCache.resolve(source, node.name(i));
+			missing += resolutions[i].missingMembers();
+		}
+		this.missingMembers = missing;
+	}
+
+	/**
+	 * @return the number of missing members probed by the resolutions of the selected properties
+	 */
+	int missingMembers() {
+		return missingMembers;
+	}
+
+	/**
+	 * @return the number of selected properties
+	 */
+	int size() {
+		return resolutions.length;
+	}
+
+	/**
+	 * @param index the property index
+	 * @return the name of the property at the given index
+	 */
+	String name(int index) {
+		return node.name(index);
+	}
+
+	/**
+	 * @param index the property index
+	 * @return the name of the property at the given index as encoded by {@link Utf8Output#encodeName(String)}
+	 */
+	byte[] encodedName(int index) {
+		byte[][] encoded = encodedNames;
+		if (encoded == null) {
+			encoded = new byte[resolutions.length][];
+			for (int i = 0; i < encoded.length; i++) {
+				encoded[i] = Utf8Output.encodeName(node.name(i));
+			}
+			encodedNames = encoded;
+		}
+		return encoded[index];
+	}
+
+	/**
+	 * @param index the property index
+	 * @return the trie node of the property at the given index
+	 */
+	PathTrie child(int index) {
+		return node.child(index);
+	}
+
+	/**
+	 * @param index the property index
+	 * @return the resolution of the property at the given index
+	 */
+	AccessorCache.Resolution resolution(int index) {
+		return resolutions[index];
+	}
+}
@@ -0,0 +1,102 @@
+package ca.trackerforce.path;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Accessor invoking an exact {@link MethodHandle}, with typed handles for primitive members
+ * so they can be read without boxing.
+ * Anything thrown by the member, errors included, is wrapped in an {@link InvocationTargetException}
+ * as {@link java.lang.reflect.Method#invoke} does, so a failing getter reads as a missing value in every mode.
+ */
+final class HandleAccessor implements Accessor {
+
+	private static final MethodType OBJECT_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType LONG_TYPE = MethodType.methodType(long.class, Object.class);
+
+	private static final MethodType DOUBLE_TYPE = MethodType.methodType(double.class, Object.class);
+
+	private static final MethodType BOOLEAN_TYPE = MethodType.methodType(boolean.class, Object.class);
+
+	private final Class<?> primitiveType;
+
+	private final MethodHandle objectHandle;
+
+	private final MethodHandle longHandle;
+
+	private final MethodHandle doubleHandle;
+
+	private final MethodHandle booleanHandle;
+
+	/**
+	 * @param handle a getter handle taking the source object, or no argument for static members
+	 */
+	HandleAccessor(MethodHandle handle) {
+		MethodHandle getter = handle.type().parameterCount() == 0 ?
+				MethodHandles.dropArguments(handle, 0, Object.class) : handle;
+		Class<?> type = getter.type().returnType();
+
+		this.primitiveType = type.isPrimitive() ? type : null;
+		this.objectHandle = getter.asType(OBJECT_TYPE);
+		this.longHandle = type == byte.class || type == short.class || type == int.class || type == long.class ?
+				getter.asType(LONG_TYPE) : null;
+		this.doubleHandle = type == float.class || type == double.class ? getter.asType(DOUBLE_TYPE) : null;
+		this.booleanHandle = type == boolean.class ? getter.asType(BOOLEAN_TYPE) : null;
+	}
+
+	@Override
+	public Object get(Object source) throws Exception {
+		try {
+			return (Object) objectHandle.invokeExact(source);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	@Override
+	public Class<?> primitiveType() {
+		return primitiveType;
+	}
+
+	@Override
+	public long getLong(Object source) throws Exception {
+		if (longHandle == null) {
+			return Accessor.super.getLong(source);
+		}
+
+		try {
+			return (long) longHandle.invokeExact(source);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	@Override
+	public double getDouble(Object source) throws Exception {
+		if (doubleHandle == null) {
+			return Accessor.super.getDouble(source);
+		}
+
+		try {
+			return (double) doubleHandle.invokeExact(source);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	@Override
+	public boolean getBoolean(Object source) throws Exception {
+		if (booleanHandle == null) {
+			return Accessor.super.getBoolean(source);
+		}
+
+		try {
+			return (boolean) booleanHandle.invokeExact(source);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+}
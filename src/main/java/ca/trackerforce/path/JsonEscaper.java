@@ -0,0 +1,156 @@
+package ca.trackerforce.path;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Escapes JSON strings as defined by RFC 8259 in a single pass: quotation mark, reverse solidus and
+ * every control character below U+0020, the common ones with their two-character form.
+ * Runs of characters needing no escape are appended as a whole. Strings long enough are first scanned
+ * eight characters at a time (SWAR), comparing a long of their low bytes against the escaped ranges,
+ * so a clean string is appended at once after a few word comparisons.
+ * An instance reuses its scan buffer and is not thread-safe.
+ */
+final class JsonEscaper {
+
+	private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private static final long ONES = 0x0101010101010101L;
+
+	private static final long HIGH_BITS = 0x8080808080808080L;
+
+	private static final long CONTROL_LIMIT = 0x20 * ONES;
+
+	private static final long QUOTES = '"' * ONES;
+
+	private static final long BACKSLASHES = '\\' * ONES;
+
+	/**
+	 * Strings shorter than this are scanned char by char, copying them into the buffer would cost more.
+	 */
+	private static final int SWAR_THRESHOLD = 16;
+
+	private static final String[] ESCAPES = new String['\\' + 1];
+
+	static {
+		for (char c = 0; c < 0x20; c++) {
+			ESCAPES[c] = String.format("\\u%04x", (int) c);
+		}
+		ESCAPES['\b'] = "\\b";
+		ESCAPES['\f'] = "\\f";
+		ESCAPES['\n'] = "\\n";
+		ESCAPES['\r'] = "\\r";
+		ESCAPES['\t'] = "\\t";
+		ESCAPES['"'] = "\\\"";
+		ESCAPES['\\'] = "\\\\";
+	}
+
+	private byte[] buffer = new byte[64];
+
+	/**
+	 * Appends the given string, escaped, to the output. The surrounding quotes are not appended.
+	 *
+	 * @param str the string to escape
+	 * @param out the output to append to
+	 * @throws IOException if the output fails to be written
+	 */
+	void escape(String str, Appendable out) throws IOException {
+		int length = str.length();
+		int start = 0;
+
+		if (length < SWAR_THRESHOLD) {
+			for (int i = 0; i < length; i++) {
+				start = escapeAt(str, i, start, out);
+			}
+		} else {
+			byte[] bytes = lowBytes(str, length);
+			for (int i = nextCandidate(bytes, 0, length); i < length; i = nextCandidate(bytes, i + 1, length)) {
+				start = escapeAt(str, i, start, out);
+			}
+		}
+
+		if (start == 0) {
+			out.append(str);
+		} else if (start < length) {
+			out.append(str, start, length);
+		}
+	}
+
+	/**
+	 * Returns the escape sequence of the given character.
+	 *
+	 * @param c the character
+	 * @return the escape sequence, or null if the character is written as it is
+	 */
+	static String escapeOf(char c) {
+		return c < ESCAPES.length ? ESCAPES[c] : null;
+	}
+
+	/**
+	 * Escapes the character at the given index if needed, appending the clean run preceding it first.
+	 *
+	 * @return the start of the next clean run
+	 */
+	private static int escapeAt(String str, int index, int start, Appendable out) throws IOException {
+		String escape = escapeOf(str.charAt(index));
+		if (escape == null) {
+			return start;
+		}
+
+		if (index > start) {
+			out.append(str, start, index);
+		}
+		out.append(escape);
+		return index + 1;
+	}
+
+	/**
+	 * Copies the low byte of each character into the buffer. Characters needing an escape are all
+	 * below U+0080 and keep their value, other characters may only turn into false candidates.
+	 */
+	@SuppressWarnings("deprecation")
+	private byte[] lowBytes(String str, int length) {
+		if (buffer.length < length) {
+			buffer = new byte[Math.max(length, buffer.length * 2)];
+		}
+
+		str.getBytes(0, length, buffer, 0);
+		return buffer;
+	}
+
+	/**
+	 * Returns the index of the first byte, from the given one, that may need an escape, or the length if none does.
+	 */
+	private static int nextCandidate(byte[] bytes, int from, int length) {
+		int i = from;
+		for (; i + Long.BYTES <= length; i += Long.BYTES) {
+			long word = (long) LONGS.get(bytes, i);
+			long matches = below(word, CONTROL_LIMIT) | zeroBytes(word ^ QUOTES) | zeroBytes(word ^ BACKSLASHES);
+			if (matches != 0) {
+				return i + (Long.numberOfTrailingZeros(matches) >>> 3);
+			}
+		}
+
+		for (; i < length; i++) {
+			int b = bytes[i] & 0xFF;
+			if (b < 0x20 || b == '"' || b == '\\') {
+				return i;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Flags the high bit of each byte below the given limit. The lowest flagged byte is always exact,
+	 * the borrows only reach the bytes above it.
+	 */
+	private static long below(long word, long limits) {
+		return (word - limits) & ~word & HIGH_BITS;
+	}
+
+	private static long zeroBytes(long word) {
+		return below(word, ONES);
+	}
+}
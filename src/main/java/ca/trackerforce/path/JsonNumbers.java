@@ -0,0 +1,183 @@
+package ca.trackerforce.path;
+
+/**
+ * Writes numbers as ASCII digits straight into a byte array, without the temporary string of {@code toString()}.
+ * Integers are written digit by digit. Doubles and floats in the plain notation range of {@link Double#toString(double)},
+ * from 10^-3 included to 10^7 excluded, are written with the fewest fractional digits that read back to the same value,
+ * found by scaling the value by increasing powers of ten, ties between two candidates rounded half to even like
+ * the JDK does. Other values are left to their {@code toString()}.
+ */
+final class JsonNumbers {
+
+	/**
+	 * Upper bound of the length of the text written by this class, {@link Long#MIN_VALUE} taking 20 bytes.
+	 */
+	static final int MAX_LENGTH = 24;
+
+	private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes();
+
+	/**
+	 * Powers of ten exactly represented as doubles.
+	 */
+	private static final double[] POWERS_OF_TEN = new double[18];
+
+	private static final long[] LONG_POWERS_OF_TEN = new long[18];
+
+	/**
+	 * Scaled values must stay below 2^53, where every integer is exactly represented as a double.
+	 */
+	private static final double MAX_EXACT = 0x1p53;
+
+	private static final double MIN_PLAIN = 1e-3;
+
+	private static final double MAX_PLAIN = 1e7;
+
+	static {
+		long power = 1;
+		for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+			LONG_POWERS_OF_TEN[i] = power;
+			POWERS_OF_TEN[i] = power;
+			power *= 10;
+		}
+	}
+
+	private JsonNumbers() { }
+
+	/**
+	 * Writes the decimal digits of the given value.
+	 *
+	 * @param value the value to write
+	 * @param bytes the destination, with room for {@link #MAX_LENGTH} bytes from the position
+	 * @param position the position to write at
+	 * @return the position after the last written byte
+	 */
+	static int writeLong(long value, byte[] bytes, int position) {
+		if (value == Long.MIN_VALUE) {
+			System.arraycopy(MIN_LONG, 0, bytes, position, MIN_LONG.length);
+			return position + MIN_LONG.length;
+		}
+
+		int pos = position;
+		long remaining = value;
+		if (remaining < 0) {
+			bytes[pos++] = '-';
+			remaining = -remaining;
+		}
+
+		int end = pos + digitCount(remaining);
+		for (int i = end - 1; i >= pos; i--) {
+			bytes[i] = (byte) ('0' + remaining % 10);
+			remaining /= 10;
+		}
+		return end;
+	}
+
+	/**
+	 * Writes the given value with the fewest fractional digits reading back to it, and at least one.
+	 *
+	 * @param value the value to write
+	 * @param bytes the destination, with room for {@link #MAX_LENGTH} bytes from the position
+	 * @param position the position to write at
+	 * @return the position after the last written byte, or -1 if the value must be written by {@link Double#toString(double)}
+	 */
+	static int writeDouble(double value, byte[] bytes, int position) {
+		if (value == 0) {
+			return writeZero(Double.doubleToRawLongBits(value) < 0, bytes, position);
+		}
+
+		double abs = Math.abs(value);
+		if (!(abs >= MIN_PLAIN && abs < MAX_PLAIN)) {
+			return -1;
+		}
+
+		for (int scale = 0; scale < POWERS_OF_TEN.length; scale++) {
+			double scaled = abs * POWERS_OF_TEN[scale];
+			if (scaled >= MAX_EXACT) {
+				return -1;
+			}
+
+			long digits = (long) Math.rint(scaled);
+			if (digits / POWERS_OF_TEN[scale] == abs) {
+				return writeDecimal(value < 0, digits, scale, bytes, position);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Writes the given value with the fewest fractional digits reading back to it as a float, and at least one.
+	 *
+	 * @param value the value to write
+	 * @param bytes the destination, with room for {@link #MAX_LENGTH} bytes from the position
+	 * @param position the position to write at
+	 * @return the position after the last written byte, or -1 if the value must be written by {@link Float#toString(float)}
+	 */
+	static int writeFloat(float value, byte[] bytes, int position) {
+		if (value == 0) {
+			return writeZero(Float.floatToRawIntBits(value) < 0, bytes, position);
+		}
+
+		float abs = Math.abs(value);
+		if (!(abs >= MIN_PLAIN && abs < MAX_PLAIN)) {
+			return -1;
+		}
+
+		for (int scale = 0; scale < POWERS_OF_TEN.length; scale++) {
+			double scaled = abs * POWERS_OF_TEN[scale];
+			if (scaled >= MAX_EXACT) {
+				return -1;
+			}
+
+			long digits = (long) Math.rint(scaled);
+			if ((float) (digits / POWERS_OF_TEN[scale]) == abs) {
+				return writeDecimal(value < 0, digits, scale, bytes, position);
+			}
+		}
+		return -1;
+	}
+
+	private static int writeZero(boolean negative, byte[] bytes, int position) {
+		int pos = position;
+		if (negative) {
+			bytes[pos++] = '-';
+		}
+		bytes[pos++] = '0';
+		bytes[pos++] = '.';
+		bytes[pos++] = '0';
+		return pos;
+	}
+
+	/**
+	 * Writes digits * 10^-scale, with a ".0" fraction when the scale is zero.
+	 */
+	private static int writeDecimal(boolean negative, long digits, int scale, byte[] bytes, int position) {
+		int pos = position;
+		if (negative) {
+			bytes[pos++] = '-';
+		}
+
+		long power = LONG_POWERS_OF_TEN[scale];
+		pos = writeLong(digits / power, bytes, pos);
+		bytes[pos++] = '.';
+		if (scale == 0) {
+			bytes[pos++] = '0';
+			return pos;
+		}
+
+		long fraction = digits % power;
+		int end = pos + scale;
+		for (int i = end - 1; i >= pos; i--) {
+			bytes[i] = (byte) ('0' + fraction % 10);
+			fraction /= 10;
+		}
+		return end;
+	}
+
+	private static int digitCount(long value) {
+		int count = 1;
+		for (long bound = 10; count < 19 && value >= bound; bound *= 10) {
+			count++;
+		}
+		return count;
+	}
+}
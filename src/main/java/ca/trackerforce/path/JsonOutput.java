@@ -0,0 +1,66 @@
+package ca.trackerforce.path;
+
+import java.io.IOException;
+
+/**
+ * Destination of the tokens written by a {@link JsonWriter}, either characters or UTF-8 encoded bytes.
+ */
+interface JsonOutput {
+
+	/**
+	 * Appends a structural character, such as a bracket or a comma.
+	 *
+	 * @param c the ASCII character
+	 * @throws IOException if the output fails to be written
+	 */
+	void append(char c) throws IOException;
+
+	/**
+	 * Appends text written as it is, such as a number, a literal or indentation.
+	 *
+	 * @param text the ASCII text
+	 * @throws IOException if the output fails to be written
+	 */
+	void append(String text) throws IOException;
+
+	/**
+	 * Appends an integral number.
+	 *
+	 * @param value the number
+	 * @throws IOException if the output fails to be written
+	 */
+	void number(long value) throws IOException;
+
+	/**
+	 * Appends a double, with the shortest fraction reading back to it.
+	 *
+	 * @param value the number
+	 * @throws IOException if the output fails to be written
+	 */
+	void number(double value) throws IOException;
+
+	/**
+	 * Appends a float, with the shortest fraction reading back to it.
+	 *
+	 * @param value the number
+	 * @throws IOException if the output fails to be written
+	 */
+	void number(float value) throws IOException;
+
+	/**
+	 * Appends a string value, quoted and escaped.
+	 *
+	 * @param value the string value
+	 * @throws IOException if the output fails to be written
+	 */
+	void string(String value) throws IOException;
+
+	/**
+	 * Appends an entry name, quoted and escaped, followed by the name separator.
+	 *
+	 * @param name the entry name
+	 * @param encoded the UTF-8 bytes of the quoted name and its separator, or null if not encoded yet
+	 * @throws IOException if the output fails to be written
+	 */
+	void name(String name, byte[] encoded) throws IOException;
+}
@@ -0,0 +1,346 @@
+package ca.trackerforce.path;
+
+import ca.trackerforce.path.api.PrinterOptions;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes JSON tokens straight into a {@link JsonOutput}, in the format of {@link PathPrinter}.
+ * Objects and arrays are opened lazily on their first entry, so an empty one is written as "{}" or "[]",
+ * and an object begun as omissible leaves no trace at all when it ends without entries.
+ * An instance is meant to write a single document and is not thread-safe.
+ */
+final class JsonWriter {
+
+	private static final int INITIAL_DEPTH = 16;
+
+	private final JsonOutput out;
+
+	private final boolean prettier;
+
+	private final boolean encodesNames;
+
+	private final PrinterOptions options;
+
+	/**
+	 * Open objects and arrays, the innermost one at {@link #depth}.
+	 */
+	private boolean[] arrays = new boolean[INITIAL_DEPTH];
+
+	private boolean[] omissible = new boolean[INITIAL_DEPTH];
+
+	private boolean[] opened = new boolean[INITIAL_DEPTH];
+
+	private int[] counts = new int[INITIAL_DEPTH];
+
+	private int depth = -1;
+
+	JsonWriter(JsonOutput out, PrinterOptions options) {
+		this.out = out;
+		this.prettier = options.isPrettier();
+		this.encodesNames = out instanceof Utf8Output;
+		this.options = options;
+	}
+
+	/**
+	 * Begins an object, written once it gets its first entry or when it ends.
+	 *
+	 * @param omitIfEmpty if true, nothing is written when the object ends without entries
+	 */
+	void beginObject(boolean omitIfEmpty) {
+		push(false, omitIfEmpty);
+	}
+
+	/**
+	 * Begins an array, written once it gets its first element or when it ends.
+	 */
+	void beginArray() {
+		push(true, false);
+	}
+
+	/**
+	 * Ends the innermost object or array.
+	 *
+	 * @throws IOException if the output fails to be written
+	 */
+	void end() throws IOException {
+		int frame = depth;
+		if (opened[frame]) {
+			if (prettier) {
+				out.append('\n');
+				writeIndent(frame);
+			}
+			out.append(arrays[frame] ? ']' : '}');
+		} else if (!omissible[frame]) {
+			beforeValue(frame - 1);
+			out.append(arrays[frame] ? "[]" : "{}");
+		}
+		depth--;
+	}
+
+	/**
+	 * Writes the name of the next entry of the innermost object, which must be followed by its value.
+	 *
+	 * @param name the entry name
+	 * @throws IOException if the output fails to be written
+	 */
+	void name(String name) throws IOException {
+		name(name, null);
+	}
+
+	/**
+	 * @return true if the output is UTF-8, where names given pre-encoded to {@link #name(String, byte[])}
+	 * are copied as they are
+	 */
+	boolean encodesNames() {
+		return encodesNames;
+	}
+
+	/**
+	 * Writes the name of the next entry of the innermost object, copying its pre-encoded bytes when
+	 * the output is UTF-8.
+	 *
+	 * @param name the entry name
+	 * @param encoded the name as encoded by {@link Utf8Output#encodeName(String)}, or null if not encoded yet
+	 * @throws IOException if the output fails to be written
+	 */
+	void name(String name, byte[] encoded) throws IOException {
+		open(depth);
+		writeSeparator(depth);
+		counts[depth]++;
+		out.name(name, encoded);
+	}
+
+	/**
+	 * Writes a value, either the value of the last named entry or the next element of the innermost array.
+	 * Maps, lists and arrays are written recursively, numbers and booleans as they are, anything else as a string.
+	 *
+	 * @param value the value to write, which may be null
+	 * @throws IOException if the output fails to be written
+	 */
+	void value(Object value) throws IOException {
+		if (value instanceof String str) {
+			beforeValue(depth);
+			out.string(str);
+		} else if (value == null) {
+			beforeValue(depth);
+			out.append("null");
+		} else if (value instanceof Number number) {
+			beforeValue(depth);
+			writeNumber(number);
+		} else if (value instanceof Boolean bool) {
+			beforeValue(depth);
+			out.append(bool ? "true" : "false");
+		} else if (value instanceof Map<?, ?> map) {
+			writeMap(map);
+		} else if (value instanceof List<?> list) {
+			writeList(list);
+		} else if (value.getClass().isArray()) {
+			writeArray(value);
+		} else {
+			beforeValue(depth);
+			out.string(value.toString());
+		}
+	}
+
+	/**
+	 * Writes an entry of the innermost object whose value is a primitive member, read through the typed
+	 * methods of its accessor so it is never boxed. Char members, and any member read by an accessor without
+	 * a known primitive type, are left to the caller.
+	 *
+	 * @param name the entry name
+	 * @param encoded the name as encoded by {@link Utf8Output#encodeName(String)}, or null if not encoded yet
+	 * @param accessor the accessor of the member, which may be null
+	 * @param source the source object
+	 * @return true if the entry was written, false if nothing was written because the member is not a
+	 * primitive one or cannot be read
+	 * @throws IOException if the output fails to be written
+	 */
+	boolean primitiveEntry(String name, byte[] encoded, Accessor accessor, Object source) throws IOException {
+		Class<?> type = accessor == null ? null : accessor.primitiveType();
+		if (type == null || type == char.class) {
+			return false;
+		}
+
+		try {
+			if (type == boolean.class) {
+				boolean value = accessor.getBoolean(source);
+				name(name, encoded);
+				out.append(value ? "true" : "false");
+			} else if (type == double.class) {
+				double value = accessor.getDouble(source);
+				name(name, encoded);
+				out.number(value);
+			} else if (type == float.class) {
+				float value = (float) accessor.getDouble(source);
+				name(name, encoded);
+				out.number(value);
+			} else {
+				long value = accessor.getLong(source);
+				name(name, encoded);
+				out.number(value);
+			}
+		} catch (Exception e) {
+			return false;
+		}
+		return true;
+	}
+
+	private void writeMap(Map<?, ?> map) throws IOException {
+		beginObject(false);
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			name(entry.getKey().toString());
+			value(entry.getValue());
+		}
+		end();
+	}
+
+	private void writeList(List<?> list) throws IOException {
+		beginArray();
+		for (Object item : list) {
+			value(item);
+		}
+		end();
+	}
+
+	/**
+	 * Writes the boxed integral and floating-point types as digits straight into the output. Other numbers,
+	 * such as BigDecimal whose text the JDK caches per instance, are written as their {@code toString()}.
+	 */
+	private void writeNumber(Number number) throws IOException {
+		if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+			out.number(number.longValue());
+		} else if (number instanceof Double d) {
+			out.number(d.doubleValue());
+		} else if (number instanceof Float f) {
+			out.number(f.floatValue());
+		} else {
+			out.append(number.toString());
+		}
+	}
+
+	/**
+	 * Writes the elements of an array, reading the primitive ones without boxing them.
+	 */
+	private void writeArray(Object array) throws IOException {
+		beginArray();
+		if (array instanceof Object[] objects) {
+			for (Object element : objects) {
+				value(element);
+			}
+		} else if (array instanceof int[] ints) {
+			for (int element : ints) {
+				beforeValue(depth);
+				out.number(element);
+			}
+		} else if (array instanceof long[] longs) {
+			for (long element : longs) {
+				beforeValue(depth);
+				out.number(element);
+			}
+		} else if (array instanceof double[] doubles) {
+			for (double element : doubles) {
+				beforeValue(depth);
+				out.number(element);
+			}
+		} else {
+			writePrimitiveArray(array);
+		}
+		end();
+	}
+
+	private void writePrimitiveArray(Object array) throws IOException {
+		if (array instanceof float[] floats) {
+			for (float element : floats) {
+				beforeValue(depth);
+				out.number(element);
+			}
+		} else if (array instanceof short[] shorts) {
+			for (short element : shorts) {
+				beforeValue(depth);
+				out.number(element);
+			}
+		} else if (array instanceof byte[] bytes) {
+			for (byte element : bytes) {
+				beforeValue(depth);
+				out.number(element);
+			}
+		} else if (array instanceof boolean[] booleans) {
+			for (boolean element : booleans) {
+				beforeValue(depth);
+				out.append(element ? "true" : "false");
+			}
+		} else if (array instanceof char[] chars) {
+			for (char element : chars) {
+				beforeValue(depth);
+				out.string(String.valueOf(element));
+			}
+		}
+	}
+
+	private void push(boolean array, boolean omitIfEmpty) {
+		if (++depth == arrays.length) {
+			int size = depth * 2;
+			arrays = Arrays.copyOf(arrays, size);
+			omissible = Arrays.copyOf(omissible, size);
+			opened = Arrays.copyOf(opened, size);
+			counts = Arrays.copyOf(counts, size);
+		}
+
+		arrays[depth] = array;
+		omissible[depth] = omitIfEmpty;
+		opened[depth] = false;
+		counts[depth] = 0;
+	}
+
+	/**
+	 * Writes the opening of the given frame, and of the enclosing ones not written yet.
+	 */
+	private void open(int frame) throws IOException {
+		if (opened[frame]) {
+			return;
+		}
+
+		beforeValue(frame - 1);
+		out.append(arrays[frame] ? '[' : '{');
+		opened[frame] = true;
+	}
+
+	/**
+	 * Makes room for a value in the given frame. Values of objects follow their name,
+	 * the ones of arrays are separated from the previous element.
+	 */
+	private void beforeValue(int frame) throws IOException {
+		if (frame < 0 || !arrays[frame]) {
+			return;
+		}
+
+		open(frame);
+		writeSeparator(frame);
+		counts[frame]++;
+	}
+
+	/**
+	 * Writes what precedes an entry: a comma unless it is the first one, then a new line and indentation
+	 * in pretty mode, or a space in compact mode.
+	 */
+	private void writeSeparator(int frame) throws IOException {
+		boolean first = counts[frame] == 0;
+		if (prettier) {
+			if (!first) {
+				out.append(',');
+			}
+			out.append('\n');
+			writeIndent(frame + 1);
+		} else if (!first) {
+			out.append(", ");
+		}
+	}
+
+	private void writeIndent(int level) throws IOException {
+		out.append(options.indent(level));
+	}
+}
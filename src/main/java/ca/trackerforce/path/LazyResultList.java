@@ -0,0 +1,84 @@
+package ca.trackerforce.path;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Read-only result list whose elements are resolved from the source elements on first access, then memoized.
+ * Elements resolving to an empty map can be left out, like the filter does, in which case all of them
+ * are resolved by the first access to tell their positions.
+ * An instance is not thread-safe until all of its elements are resolved.
+ */
+final class LazyResultList extends AbstractList<Object> implements RandomAccess {
+
+	/**
+	 * Memoized null element, told apart from an element not resolved yet.
+	 */
+	private static final Object NULL = new Object();
+
+	private final boolean skipEmpty;
+
+	private final LazyResultMap.Resolver resolver;
+
+	private final Object[] values;
+
+	/**
+	 * Indexes of the elements kept when empty ones are left out, computed on first access.
+	 */
+	private int[] kept;
+
+	/**
+	 * @param size the number of source elements
+	 * @param skipEmpty true to leave out the elements resolving to an empty map
+	 * @param resolver resolves the element at a given index from the source element
+	 */
+	LazyResultList(int size, boolean skipEmpty, LazyResultMap.Resolver resolver) {
+		this.skipEmpty = skipEmpty;
+		this.resolver = resolver;
+		this.values = new Object[size];
+	}
+
+	@Override
+	public Object get(int index) {
+		if (!skipEmpty) {
+			return resolve(index);
+		}
+
+		int[] indexes = kept();
+		if (index < 0 || index >= indexes.length) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + indexes.length);
+		}
+		return resolve(indexes[index]);
+	}
+
+	@Override
+	public int size() {
+		return skipEmpty ? kept().length : values.length;
+	}
+
+	private Object resolve(int index) {
+		Object value = values[index];
+		if (value == null) {
+			Object resolved = resolver.resolve(index);
+			value = resolved == null ? NULL : resolved;
+			values[index] = value;
+		}
+		return value == NULL ? null : value;
+	}
+
+	private int[] kept() {
+		if (kept == null) {
+			int[] indexes = new int[values.length];
+			int count = 0;
+			for (int i = 0; i < values.length; i++) {
+				if (!(resolve(i) instanceof Map<?, ?> map && map.isEmpty())) {
+					indexes[count++] = i;
+				}
+			}
+			kept = count == indexes.length ? indexes : Arrays.copyOf(indexes, count);
+		}
+		return kept;
+	}
+}
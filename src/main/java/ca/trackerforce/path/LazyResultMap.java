@@ -0,0 +1,163 @@
+package ca.trackerforce.path;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only result map whose values are resolved from the source on first access, then memoized.
+ * The candidate keys are known upfront, in the order of the eager result. An entry may turn out to be absent
+ * once resolved, such as a filtered property whose value is null, so counting the entries of such a map
+ * resolves all of them, while {@link #get(Object)} only resolves the requested one.
+ * Nested objects and collections are resolved as lazy views themselves, see {@link LazyResultList}.
+ * An instance is not thread-safe until all of its entries are resolved.
+ */
+final class LazyResultMap extends AbstractMap<String, Object> {
+
+	/**
+	 * Value resolved for an entry left out of the result.
+	 */
+	static final Object ABSENT = new Object();
+
+	/**
+	 * Memoized null value, told apart from an entry not resolved yet.
+	 */
+	private static final Object NULL = new Object();
+
+	private final ResultShape shape;
+
+	private final boolean optional;
+
+	private final Resolver resolver;
+
+	private final Object[] values;
+
+	private int size = -1;
+
+	private Set<Entry<String, Object>> entrySet;
+
+	/**
+	 * @param shape the candidate keys, in iteration order
+	 * @param optional true if some entries may resolve to {@link #ABSENT}
+	 * @param resolver resolves the value of the entry at a given index
+	 */
+	LazyResultMap(ResultShape shape, boolean optional, Resolver resolver) {
+		this.shape = shape;
+		this.optional = optional;
+		this.resolver = resolver;
+		this.values = new Object[shape.size()];
+	}
+
+	@Override
+	public Object get(Object key) {
+		int index = shape.indexOf(key);
+		return index < 0 ? null : unwrap(resolve(index));
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		int index = shape.indexOf(key);
+		return index >= 0 && (!optional || resolve(index) != ABSENT);
+	}
+
+	@Override
+	public int size() {
+		if (size < 0) {
+			int count = values.length;
+			if (optional) {
+				for (int i = 0; i < values.length; i++) {
+					if (resolve(i) == ABSENT) {
+						count--;
+					}
+				}
+			}
+			size = count;
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size < 0 ? nextPresent(0) == values.length : size == 0;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+		}
+		return entrySet;
+	}
+
+	private Object resolve(int index) {
+		Object value = values[index];
+		if (value == null) {
+			Object resolved = resolver.resolve(index);
+			value = resolved == null ? NULL : resolved;
+			values[index] = value;
+		}
+		return value;
+	}
+
+	private static Object unwrap(Object value) {
+		return value == NULL || value == ABSENT ? null : value;
+	}
+
+	/**
+	 * Returns the index of the first present entry from the given one, or the number of candidate keys if none is.
+	 */
+	private int nextPresent(int from) {
+		int index = from;
+		while (index < values.length && optional && resolve(index) == ABSENT) {
+			index++;
+		}
+		return index;
+	}
+
+	/**
+	 * Resolves the value of an entry of a lazy result.
+	 */
+	@FunctionalInterface
+	interface Resolver {
+
+		/**
+		 * @param index the index of the entry
+		 * @return the value of the entry, which may be null, or {@link #ABSENT} if it is left out
+		 */
+		Object resolve(int index);
+	}
+
+	private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+		@Override
+		public Iterator<Entry<String, Object>> iterator() {
+			return new Iterator<>() {
+
+				private int next = nextPresent(0);
+
+				@Override
+				public boolean hasNext() {
+					return next < values.length;
+				}
+
+				@Override
+				public Entry<String, Object> next() {
+					if (next >= values.length) {
+						throw new NoSuchElementException();
+					}
+
+					Entry<String, Object> entry = new SimpleImmutableEntry<>(shape.key(next), unwrap(resolve(next)));
+					next = nextPresent(next + 1);
+					return entry;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return LazyResultMap.this.size();
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package ca.trackerforce.path;
+
+import ca.trackerforce.path.api.BinaryFormat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Encodes objects as MessagePack. Integers, strings, binaries, arrays and maps take the smallest of their
+ * formats, floats and doubles keep their own precision. Integers up to 2^64 - 1 are written as unsigned 64-bit ones,
+ * larger integers and decimals, which have no MessagePack type, as their {@code toString()}.
+ */
+final class MessagePackEncoder extends BinaryEncoder {
+
+	static final int POSITIVE_FIXINT_MAX = 0x7F;
+
+	static final int FIXMAP = 0x80;
+
+	static final int FIXARRAY = 0x90;
+
+	static final int FIXSTR = 0xA0;
+
+	static final int NIL = 0xC0;
+
+	static final int FALSE = 0xC2;
+
+	static final int TRUE = 0xC3;
+
+	static final int BIN8 = 0xC4;
+
+	static final int BIN16 = 0xC5;
+
+	static final int BIN32 = 0xC6;
+
+	static final int FLOAT32 = 0xCA;
+
+	static final int FLOAT64 = 0xCB;
+
+	static final int UINT8 = 0xCC;
+
+	static final int UINT16 = 0xCD;
+
+	static final int UINT32 = 0xCE;
+
+	static final int UINT64 = 0xCF;
+
+	static final int INT8 = 0xD0;
+
+	static final int INT16 = 0xD1;
+
+	static final int INT32 = 0xD2;
+
+	static final int INT64 = 0xD3;
+
+	static final int STR8 = 0xD9;
+
+	static final int STR16 = 0xDA;
+
+	static final int STR32 = 0xDB;
+
+	static final int ARRAY16 = 0xDC;
+
+	static final int ARRAY32 = 0xDD;
+
+	static final int MAP16 = 0xDE;
+
+	static final int MAP32 = 0xDF;
+
+	static final int NEGATIVE_FIXINT = 0xE0;
+
+	private static final int FIXSTR_LIMIT = 32;
+
+	private static final int FIXCOLLECTION_LIMIT = 16;
+
+	private static final int MIN_NEGATIVE_FIXINT = -32;
+
+	@Override
+	public BinaryFormat getFormat() {
+		return BinaryFormat.MESSAGE_PACK;
+	}
+
+	@Override
+	void writeNull(Utf8Output out) throws IOException {
+		out.writeByte(NIL);
+	}
+
+	@Override
+	void writeBoolean(Utf8Output out, boolean value) throws IOException {
+		out.writeByte(value ? TRUE : FALSE);
+	}
+
+	@Override
+	void writeLong(Utf8Output out, long value) throws IOException {
+		if (value >= 0) {
+			if (value <= POSITIVE_FIXINT_MAX) {
+				out.writeByte((int) value);
+			} else if (value <= 0xFF) {
+				out.writeHead(UINT8, value, 1);
+			} else if (value <= 0xFFFF) {
+				out.writeHead(UINT16, value, 2);
+			} else if (value <= 0xFFFFFFFFL) {
+				out.writeHead(UINT32, value, 4);
+			} else {
+				out.writeHead(UINT64, value, 8);
+			}
+		} else if (value >= MIN_NEGATIVE_FIXINT) {
+			out.writeByte((int) value);
+		} else if (value >= Byte.MIN_VALUE) {
+			out.writeHead(INT8, value, 1);
+		} else if (value >= Short.MIN_VALUE) {
+			out.writeHead(INT16, value, 2);
+		} else if (value >= Integer.MIN_VALUE) {
+			out.writeHead(INT32, value, 4);
+		} else {
+			out.writeHead(INT64, value, 8);
+		}
+	}
+
+	@Override
+	void writeDouble(Utf8Output out, double value) throws IOException {
+		out.writeHead(FLOAT64, Double.doubleToLongBits(value), Double.BYTES);
+	}
+
+	@Override
+	void writeFloat(Utf8Output out, float value) throws IOException {
+		out.writeHead(FLOAT32, Float.floatToIntBits(value), Float.BYTES);
+	}
+
+	@Override
+	void writeBigInteger(Utf8Output out, BigInteger value) throws IOException {
+		if (value.bitLength() < Long.SIZE) {
+			writeLong(out, value.longValue());
+		} else if (value.signum() > 0 && value.bitLength() == Long.SIZE) {
+			out.writeHead(UINT64, value.longValue(), 8);
+		} else {
+			writeString(out, value.toString());
+		}
+	}
+
+	@Override
+	void writeBigDecimal(Utf8Output out, BigDecimal value) throws IOException {
+		writeString(out, value.toString());
+	}
+
+	@Override
+	void writeString(Utf8Output out, String value) throws IOException {
+		int length = Utf8Output.utf8Length(value);
+		if (length < FIXSTR_LIMIT) {
+			out.writeByte(FIXSTR | length);
+		} else if (length <= 0xFF) {
+			out.writeHead(STR8, length, 1);
+		} else if (length <= 0xFFFF) {
+			out.writeHead(STR16, length, 2);
+		} else {
+			out.writeHead(STR32, length, 4);
+		}
+		out.writeUtf8(value);
+	}
+
+	@Override
+	void writeBinary(Utf8Output out, byte[] value) throws IOException {
+		int length = value.length;
+		if (length <= 0xFF) {
+			out.writeHead(BIN8, length, 1);
+		} else if (length <= 0xFFFF) {
+			out.writeHead(BIN16, length, 2);
+		} else {
+			out.writeHead(BIN32, length, 4);
+		}
+		out.writeBytes(value);
+	}
+
+	@Override
+	void writeArrayHead(Utf8Output out, int size) throws IOException {
+		if (size < FIXCOLLECTION_LIMIT) {
+			out.writeByte(FIXARRAY | size);
+		} else if (size <= 0xFFFF) {
+			out.writeHead(ARRAY16, size, 2);
+		} else {
+			out.writeHead(ARRAY32, size, 4);
+		}
+	}
+
+	@Override
+	void writeMapHead(Utf8Output out, int size) throws IOException {
+		if (size < FIXCOLLECTION_LIMIT) {
+			out.writeByte(FIXMAP | size);
+		} else if (size <= 0xFFFF) {
+			out.writeHead(MAP16, size, 2);
+		} else {
+			out.writeHead(MAP32, size, 4);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package ca.trackerforce.path;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+/**
+ * Creates accessors backed by {@link LambdaMetafactory} generated functions or {@link MethodHandle}s.
+ * Getters of primitive values use typed handles instead, so they can be read without boxing.
+ * Falls back to reflection when the member is not accessible from this library.
+ * Exceptions and errors thrown by a getter are wrapped in an {@link InvocationTargetException}, like reflection does.
+ */
+@SuppressWarnings("unchecked")
+class MethodHandleAccessorFactory implements AccessorFactory {
+
+	protected static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private final AccessorFactory fallback = new ReflectionAccessorFactory();
+
+	@Override
+	public Accessor ofMethod(Method method) {
+		Function<Object, Object> function = method.getReturnType().isPrimitive() ? null : compileFunction(method);
+		if (function != null) {
+			return source -> {
+				try {
+					return function.apply(source);
+				} catch (RuntimeException | Error e) {
+					throw new InvocationTargetException(e);
+				}
+			};
+		}
+
+		try {
+			return new HandleAccessor(LOOKUP.unreflect(method));
+		} catch (IllegalAccessException e) {
+			return fallback.ofMethod(method);
+		}
+	}
+
+	@Override
+	public Accessor ofField(Field field) {
+		try {
+			field.setAccessible(true);
+			return new HandleAccessor(LOOKUP.unreflectGetter(field));
+		} catch (IllegalAccessException e) {
+			return fallback.ofField(field);
+		}
+	}
+
+	/**
+	 * Compiles the getter into a {@link Function} so the call site is a plain interface call.
+	 * Only possible when the declaring class is public and visible from this library class loader.
+	 *
+	 * @param method the getter method
+	 * @return the compiled function, or null if it cannot be generated
+	 */
+	private Function<Object, Object> compileFunction(Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(declaringClass.getModifiers()) ||
+				!isVisible(declaringClass)) {
+			return null;
+		}
+
+		try {
+			MethodHandle target = LOOKUP.unreflect(method);
+			CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+					MethodType.methodType(Function.class),
+					MethodType.methodType(Object.class, Object.class),
+					target,
+					MethodType.methodType(Object.class, declaringClass));
+
+			return (Function<Object, Object>) site.getTarget().invokeExact();
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	private boolean isVisible(Class<?> type) {
+		try {
+			return Class.forName(type.getName(), false, LOOKUP.lookupClass().getClassLoader()) == type;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+}
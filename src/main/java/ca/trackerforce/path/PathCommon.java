@@ -1,33 +1,130 @@
 package ca.trackerforce.path;
 
+import ca.trackerforce.path.api.AccessorMode;
+import ca.trackerforce.path.api.CacheStats;
 import ca.trackerforce.path.api.DotPath;
+import ca.trackerforce.path.api.DotQuery;
+import ca.trackerforce.path.api.PrinterOptions;
+import ca.trackerforce.path.api.PropertyAccessor;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * Common functionality for handling paths in the DotPathQL library.
  * Provides methods to expand grouped paths, retrieve property values,
  * and manage default filter paths.
  */
+@SuppressWarnings("unchecked")
 abstract class PathCommon implements DotPath {
 
+	private static final PathParser PARSER = new PathParser();
+
+	/**
+	 * Default maximum number of compiled queries kept per instance.
+	 */
+	static final int DEFAULT_QUERY_CACHE_SIZE = 1024;
+
+	/**
+	 * Default maximum number of execution plans kept per instance.
+	 */
+	static final int DEFAULT_PLAN_CACHE_SIZE = 1024;
+
+	private static final PropertyAccessor<Object> NOT_REGISTERED = new PropertyAccessor<>() {
+		@Override
+		public Class<Object> getType() {
+			return Object.class;
+		}
+
+		@Override
+		public List<String> getPropertyNames(Object source) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Object getValue(Object source, String propertyName) {
+			return null;
+		}
+	};
+
 	/**
 	 * Default paths that can be used across different implementations.
 	 */
 	protected final List<String> defaultPaths;
 
+	/**
+	 * Accessors used to read properties from the source objects.
+	 */
+	protected AccessorCache accessors;
+
+	/**
+	 * Number of missing member lookups resolved by the execution plans instead of a thrown exception.
+	 */
+	private final LongAdder avoidedExceptions = new LongAdder();
+
+	/**
+	 * Accessors registered by the user, keyed by the type they handle.
+	 */
+	private final Map<Class<?>, PropertyAccessor<?>> registeredAccessors = new ConcurrentHashMap<>();
+
+	/**
+	 * Registered accessor resolved for each source class, including subclasses of a registered type.
+	 * A {@link ClassValue} does not keep the source classes and their class loaders reachable, and it is
+	 * replaced as a whole when an accessor is registered.
+	 */
+	private volatile ClassValue<PropertyAccessor<Object>> resolvedAccessors = newResolvedAccessors();
+
+	/**
+	 * Queries compiled from raw path lists.
+	 */
+	private final BoundedCache<QueryKey, PathQuery> queries = new BoundedCache<>(DEFAULT_QUERY_CACHE_SIZE);
+
+	/**
+	 * Execution plans specialized per (source class, query node).
+	 */
+	private final BoundedCache<PlanKey, Object> plans = new BoundedCache<>(DEFAULT_PLAN_CACHE_SIZE);
+
+	/**
+	 * Token of the plans currently cached, replaced whenever they are invalidated so the plans remembered
+	 * by the trie nodes are no longer used.
+	 */
+	private volatile Object planOwner = new Object();
+
+	/**
+	 * Trie of the default paths, built when they are added and never changed afterward.
+	 * Compiled queries merge their paths into it, sharing the nodes they do not go through.
+	 */
+	private volatile PathTrie defaultTree = PathTrie.EMPTY;
+
+	/**
+	 * Expanded default paths, the ones in {@link #defaultTree}.
+	 */
+	private volatile List<String> defaultTreePaths = List.of();
+
+	/**
+	 * Whether the results are built as compact maps sharing their keys instead of {@code LinkedHashMap}s.
+	 */
+	private volatile boolean compactResults = false;
+
+	/**
+	 * Whether the results reuse the source maps and lists under which nothing is excluded, instead of copies.
+	 */
+	private volatile boolean structuralSharing = false;
+
 	/**
 	 * Constructor to initialize the PathCommon with an empty list of default paths.
 	 * This allows subclasses to add their own default paths as needed.
 	 */
 	protected PathCommon() {
 		this.defaultPaths = new ArrayList<>();
+		this.accessors = AccessorCache.of(AccessorMode.REFLECTION);
 	}
 
 	@Override
@@ -36,12 +133,105 @@ abstract class PathCommon implements DotPath {
 			return Collections.emptyMap();
 		}
 
-		return execute(source, expandGroupedPaths(paths));
+		PathQuery query = queries.get(new QueryKey(new ArrayList<>(paths)), () -> compile(paths));
+		return compactResults ? view(source, query, false) : execute(source, query);
+	}
+
+	@Override
+	public PathQuery compile(List<String> paths) {
+		List<String> extraPaths = expandGroupedPaths(paths);
+		PathTrie tree = defaultTree;
+		if (!extraPaths.isEmpty()) {
+			PathTrie.Builder builder = PathTrie.builder(tree);
+			for (String path : extraPaths) {
+				String[] segments = segments(path);
+				if (segments != null) {
+					builder.add(segments);
+				}
+			}
+			tree = builder.build();
+		}
+
+		List<String> queryPaths = new ArrayList<>(defaultTreePaths);
+		queryPaths.addAll(extraPaths);
+		return new PathQuery(this, queryPaths, tree);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The query compiles to the same paths as {@link #compile(List)} of {@link PathParser#parse(String)}, each path
+	 * going through the same {@link #normalize(String[])} as a path of the list.
+	 */
+	@Override
+	public PathQuery compile(String query) {
+		PathTrie.Builder builder = PathTrie.builder(defaultTree);
+		PARSER.parseInto(query, rawSegments -> {
+			String[] segments = normalize(rawSegments);
+			if (segments != null) {
+				builder.add(segments);
+			}
+		});
+		PathTrie tree = builder.build();
+		return new PathQuery(this, null, tree);
+	}
+
+	@Override
+	public <T> Map<String, Object> run(T source, DotQuery query) {
+		if (!(query instanceof PathQuery pathQuery) || !pathQuery.isOwnedBy(this)) {
+			throw new IllegalArgumentException("The query was not compiled by this instance");
+		}
+
+		if (source == null) {
+			return Collections.emptyMap();
+		}
+
+		return compactResults ? view(source, pathQuery, false) : execute(source, pathQuery);
+	}
+
+	@Override
+	public <T> Map<String, Object> runView(T source, List<String> paths) {
+		if (source == null) {
+			return Collections.emptyMap();
+		}
+
+		PathQuery query = queries.get(new QueryKey(new ArrayList<>(paths)), () -> compile(paths));
+		return view(source, query, true);
+	}
+
+	@Override
+	public <T> void runToJson(T source, List<String> paths, PrinterOptions options, Appendable out)
+			throws IOException {
+		runToJson(source, paths, new JsonWriter(new AppendableOutput(out), options));
+	}
+
+	@Override
+	public <T> void runToJson(T source, List<String> paths, PrinterOptions options, OutputStream out)
+			throws IOException {
+		Utf8Output output = Utf8Output.acquire(out::write);
+		try {
+			runToJson(source, paths, new JsonWriter(output, options));
+			output.flush();
+		} finally {
+			output.release();
+		}
+		out.flush();
 	}
 
 	@Override
 	public void addDefaultPaths(List<String> paths) {
 		defaultPaths.addAll(paths);
+		defaultTreePaths = expandGroupedPaths(defaultPaths);
+
+		PathTrie.Builder builder = PathTrie.builder(PathTrie.EMPTY);
+		for (String path : defaultTreePaths) {
+			String[] segments = segments(path);
+			if (segments != null) {
+				builder.add(segments);
+			}
+		}
+		defaultTree = builder.build();
+		queries.clear();
+		clearPlans();
 	}
 
 	@Override
@@ -49,18 +239,236 @@ abstract class PathCommon implements DotPath {
 		return !defaultPaths.isEmpty();
 	}
 
+	@Override
+	public void setAccessorMode(AccessorMode accessorMode) {
+		this.accessors = AccessorCache.of(accessorMode);
+		clearPlans();
+	}
+
+	@Override
+	public long getAvoidedExceptions() {
+		return avoidedExceptions.sum();
+	}
+
+	@Override
+	public void setCompactResults(boolean compactResults) {
+		this.compactResults = compactResults;
+	}
+
+	@Override
+	public void setStructuralSharing(boolean structuralSharing) {
+		this.structuralSharing = structuralSharing;
+	}
+
+	/**
+	 * @return true if the results reuse the source maps and lists under which nothing is excluded
+	 */
+	boolean isStructuralSharing() {
+		return structuralSharing;
+	}
+
+	@Override
+	public void setQueryCacheSize(int maximumSize) {
+		queries.setMaximumSize(maximumSize);
+	}
+
+	@Override
+	public CacheStats getQueryCacheStats() {
+		return queries.stats();
+	}
+
+	@Override
+	public void setPlanCacheSize(int maximumSize) {
+		plans.setMaximumSize(maximumSize);
+		planOwner = new Object();
+	}
+
+	@Override
+	public CacheStats getPlanCacheStats() {
+		return plans.stats();
+	}
+
+	@Override
+	public void registerAccessor(PropertyAccessor<?> accessor) {
+		registeredAccessors.put(accessor.getType(), accessor);
+		resolvedAccessors = newResolvedAccessors();
+	}
+
+	private <T> void runToJson(T source, List<String> paths, JsonWriter writer) throws IOException {
+		if (source == null) {
+			writer.value(Collections.emptyMap());
+			return;
+		}
+
+		PathQuery query = queries.get(new QueryKey(new ArrayList<>(paths)), () -> compile(paths));
+		writer.beginObject(false);
+		write(writer, source, query);
+		writer.end();
+	}
+
+	/**
+	 * Returns the execution plan of the given query node for the given source class, building it on the first call.
+	 * The node remembers the plan it last ran, so consecutive objects of the same class are planned without
+	 * any lookup. Other plans come from a bounded cache shared by all the queries run by this instance.
+	 *
+	 * @param <P> the type of the plan
+	 * @param type the class of the source object
+	 * @param node the query node the plan executes
+	 * @param builder builds the plan when it is not cached
+	 * @return the execution plan
+	 */
+	protected <P> P plan(Class<?> type, PathTrie node, Supplier<P> builder) {
+		if (!plans.isEnabled()) {
+			return (P) plans.get(new PlanKey(type, node), builder);
+		}
+
+		Object owner = planOwner;
+		Object plan = node.cachedPlan(owner, type);
+		if (plan != null) {
+			plans.recordHit();
+			return (P) plan;
+		}
+
+		plan = plans.get(new PlanKey(type, node), builder);
+		node.cachePlan(owner, type, plan);
+		return (P) plan;
+	}
+
+	/**
+	 * Removes the cached plans, including the ones remembered by the trie nodes.
+	 */
+	private void clearPlans() {
+		plans.clear();
+		planOwner = new Object();
+	}
+
+	/**
+	 * Reads a property with the accessor resolved in an execution plan.
+	 *
+	 * @param source the source object
+	 * @param resolution the resolved accessor
+	 * @return the value of the property, or null if not found or an error occurs
+	 */
+	protected Object readProperty(Object source, AccessorCache.Resolution resolution) {
+		try {
+			return resolution.accessor() == null ? null : resolution.accessor().get(source);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Counts the member lookups an execution plan answers without a thrown exception. Plans are counted once,
+	 * when they are built, rather than on every property read.
+	 *
+	 * @param missingMembers the number of missing members probed by the resolutions of the plan
+	 */
+	protected void countAvoidedExceptions(int missingMembers) {
+		if (missingMembers > 0) {
+			avoidedExceptions.add(missingMembers);
+		}
+	}
+
+	/**
+	 * Returns the registered accessor handling the class of the given source object.
+	 * The closest registered superclass or interface is used when the class itself is not registered,
+	 * which covers proxies and subclasses. The result is cached per class.
+	 *
+	 * @param source the source object
+	 * @return the registered accessor, or null if none handles the source class
+	 */
+	protected PropertyAccessor<Object> findAccessor(Object source) {
+		if (registeredAccessors.isEmpty()) {
+			return null;
+		}
+
+		PropertyAccessor<Object> accessor = resolvedAccessors.get(source.getClass());
+		return accessor == NOT_REGISTERED ? null : accessor;
+	}
+
+	/**
+	 * Splits an expanded path into the segments added to the query trie.
+	 *
+	 * @param path the expanded path
+	 * @return the path segments, or null if the path is ignored
+	 */
+	String[] segments(String path) {
+		return path == null ? null : normalize(path.split("\\.", -1));
+	}
+
+	/**
+	 * Turns the segments of a path, split on every dot with the empty ones kept, into the segments added
+	 * to the query trie. Paths from a list and from a query string both go through it.
+	 *
+	 * @param segments the raw path segments, at least one
+	 * @return the path segments, or null if the path is ignored
+	 */
+	abstract String[] normalize(String[] segments);
+
 	/**
 	 * Executes the path processing logic for the given source object.
 	 *
-	 * @param <T>         the type of the source object
-	 * @param source      the source object to process
-	 * @param filterPaths the list of paths to filter or exclude
+	 * @param <T>    the type of the source object
+	 * @param source the source object to process
+	 * @param query  the compiled query, holding the paths to filter or exclude
 	 * @return a map containing the processed properties
 	 */
-	abstract <T> Map<String, Object> execute(T source, List<String> filterPaths);
+	abstract <T> Map<String, Object> execute(T source, PathQuery query);
+
+	/**
+	 * Returns a read-only copy of the result of {@link #execute(Object, PathQuery)}, either as a lazy view
+	 * resolving each entry from the source on first access, or as compact maps resolved at once.
+	 *
+	 * @param <T>    the type of the source object
+	 * @param source the source object to process
+	 * @param query  the compiled query, holding the paths to filter or exclude
+	 * @param lazy   true for a lazy view, false for compact maps
+	 * @return a read-only map of the processed properties
+	 */
+	abstract <T> Map<String, Object> view(T source, PathQuery query, boolean lazy);
+
+	/**
+	 * Builds a read-only result map of the given shape, see {@link #view(Object, PathQuery, boolean)}.
+	 *
+	 * @param shape    the candidate keys
+	 * @param optional true if some entries may resolve to {@link LazyResultMap#ABSENT}
+	 * @param resolver resolves the value of the entry at a given index
+	 * @param lazy     true for a lazy view, false for a compact map
+	 * @return the result map
+	 */
+	static Map<String, Object> resultMap(ResultShape shape, boolean optional, LazyResultMap.Resolver resolver,
+										 boolean lazy) {
+		return lazy ? new LazyResultMap(shape, optional, resolver) : CompactResultMap.of(shape, resolver);
+	}
+
+	/**
+	 * Builds a read-only result list, see {@link #view(Object, PathQuery, boolean)}.
+	 *
+	 * @param size      the number of source elements
+	 * @param skipEmpty true to leave out the elements resolving to an empty map
+	 * @param resolver  resolves the element at a given index from the source element
+	 * @param lazy      true for a lazy view, false for a compact list
+	 * @return the result list
+	 */
+	static List<Object> resultList(int size, boolean skipEmpty, LazyResultMap.Resolver resolver, boolean lazy) {
+		return lazy ? new LazyResultList(size, skipEmpty, resolver) : CompactResultMap.list(size, skipEmpty, resolver);
+	}
+
+	/**
+	 * Executes the path processing logic for the given source object, writing the entries of the result
+	 * into the object begun on the given writer instead of putting them into a map.
+	 *
+	 * @param <T>    the type of the source object
+	 * @param writer the writer of the result object
+	 * @param source the source object to process
+	 * @param query  the compiled query, holding the paths to filter or exclude
+	 * @throws IOException if the output fails to be written
+	 */
+	abstract <T> void write(JsonWriter writer, T source, PathQuery query) throws IOException;
 
 	/**
 	 * Expands grouped paths like "parent[child1.prop,child2.prop]" into individual paths.
+	 * The expansion is part of the query compilation, so it runs once per cached raw path list.
 	 *
 	 * @param filterPaths the list of paths that may contain grouped syntax
 	 * @return a list of expanded individual paths
@@ -81,9 +489,11 @@ abstract class PathCommon implements DotPath {
 
 	/**
 	 * Retrieves the value of a property from the given source object.
-	 * This method first checks if the source is a record and uses the record component accessor method
-	 * if available. If not, it attempts to find a getter method or directly access the field.
-	 * If any of these methods fail, it returns null.
+	 * Accessors registered for the source class take precedence, see {@link #registerAccessor(PropertyAccessor)}.
+	 * Otherwise the accessor is resolved once per (class, property) pair and cached, see {@link AccessorCache}.
+	 * Missing properties are cached as well, so later lookups return null without probing the class again.
+	 * Records use the component accessor method, other classes a getter method, map entry or direct
+	 * field access, in that order. If the property cannot be resolved or read, it returns null.
 	 *
 	 * @param source the source object from which to retrieve the property value
 	 * @param propertyName the name of the property to retrieve
@@ -92,56 +502,50 @@ abstract class PathCommon implements DotPath {
 	 */
 	protected <T> Object getPropertyValue(T source, String propertyName) {
 		try {
-			Class<?> clazz = source.getClass();
-
-			// Try record component accessor method first (most efficient for records)
-			if (clazz.isRecord()) {
-				return getRecordProperty(source, propertyName, clazz);
-			}
-
-			// Try getter method for regular classes
-			Object getterResult = tryGetterMethod(source, propertyName, clazz);
-			if (getterResult != null) {
-				return getterResult;
+			PropertyAccessor<Object> registered = findAccessor(source);
+			if (registered != null) {
+				return registered.getValue(source, propertyName);
 			}
 
-			// Try mapping method for Map instances
-			if (source instanceof Map<?, ?> map && map.containsKey(propertyName)) {
-				return map.get(propertyName);
-			}
-
-			// Fall back to direct field access
-			return tryDirectFieldAccess(source, propertyName, clazz);
+			return readProperty(source, accessors.resolve(source, propertyName));
 		} catch (Exception e) {
 			return null;
 		}
 	}
 
-	private <T> Object getRecordProperty(T source, String propertyName, Class<?> clazz) throws
-			NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-		Method method = clazz.getMethod(propertyName);
-		return method.invoke(source);
+	/**
+	 * Checks if any accessor has been registered.
+	 *
+	 * @return true if at least one accessor is registered, false otherwise
+	 */
+	protected boolean hasRegisteredAccessors() {
+		return !registeredAccessors.isEmpty();
 	}
 
-	private <T> Object tryGetterMethod(T source, String propertyName, Class<?> clazz) {
-		try {
-			String getterName = "get" + Character.toUpperCase(propertyName.charAt(0)) +
-					propertyName.substring(1);
-			Method getter = clazz.getMethod(getterName);
-			return getter.invoke(source);
-		} catch (Exception e) {
-			return null;
-		}
+	private ClassValue<PropertyAccessor<Object>> newResolvedAccessors() {
+		return new ClassValue<>() {
+			@Override
+			protected PropertyAccessor<Object> computeValue(Class<?> type) {
+				return lookupAccessor(type);
+			}
+		};
 	}
 
-	private <T> Object tryDirectFieldAccess(T source, String propertyName, Class<?> clazz) {
-		try {
-			Field field = clazz.getDeclaredField(propertyName);
-			field.setAccessible(true);
-			return field.get(source);
-		} catch (Exception e) {
-			return null;
+	private PropertyAccessor<Object> lookupAccessor(Class<?> type) {
+		for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+			PropertyAccessor<?> accessor = registeredAccessors.get(current);
+			if (accessor != null) {
+				return (PropertyAccessor<Object>) accessor;
+			}
 		}
+
+		for (Map.Entry<Class<?>, PropertyAccessor<?>> entry : registeredAccessors.entrySet()) {
+			if (entry.getKey().isInterface() && entry.getKey().isAssignableFrom(type)) {
+				return (PropertyAccessor<Object>) entry.getValue();
+			}
+		}
+
+		return NOT_REGISTERED;
 	}
 
 	/**
@@ -277,13 +681,9 @@ abstract class PathCommon implements DotPath {
 			String prefix = subPath.substring(0, startBracket);
 			String nestedContent = subPath.substring(startBracket + 1, endBracket);
 
-			// Parse nested content that may contain its own comma-separated values
-			List<String> nestedPaths = parseCommaSeparatedPaths(nestedContent);
-			for (String nestedPath : nestedPaths) {
-				String trimmed = nestedPath.trim();
-				if (!trimmed.isEmpty()) {
-					expandedPaths.add(prefix + "." + trimmed);
-				}
+			// Parse nested content that may contain its own grouped sub-paths, at any depth
+			for (String nestedPath : parseGroupedContent(nestedContent)) {
+				expandedPaths.add(prefix + "." + nestedPath);
 			}
 		}
 
@@ -291,37 +691,13 @@ abstract class PathCommon implements DotPath {
 	}
 
 	/**
-	 * Parses comma-separated paths, respecting bracket nesting.
-	 * For example: "street,city" -> ["street", "city"]
-	 * For example: "prop1,nested[sub1,sub2]" -> ["prop1", "nested[sub1,sub2]"]
-	 *
-	 * @param content the content to parse
-	 * @return a list of paths
+	 * Key of an execution plan.
 	 */
-	private List<String> parseCommaSeparatedPaths(String content) {
-		List<String> paths = new ArrayList<>();
-		int start = 0;
+	private record PlanKey(Class<?> type, PathTrie node) { }
 
-		for (int i = 0; i < content.length(); i++) {
-			char ch = content.charAt(i);
-
-			if (ch == ',') {
-				// Found a comma at the top level - this is a separator
-				String path = content.substring(start, i).trim();
-				if (!path.isEmpty()) {
-					paths.add(path);
-				}
-				start = i + 1;
-			}
-		}
-
-		// Add the last path
-		String lastPath = content.substring(start).trim();
-		if (!lastPath.isEmpty()) {
-			paths.add(lastPath);
-		}
-
-		return paths;
-	}
+	/**
+	 * Key of a query compiled from a raw path list.
+	 */
+	private record QueryKey(List<String> paths) { }
 
 }
@@ -1,7 +1,8 @@
 package ca.trackerforce.path;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import ca.trackerforce.path.api.PropertyAccessor;
+
+import java.io.IOException;
 import java.util.*;
 
 class PathExclude extends PathCommon {
@@ -16,72 +17,97 @@ class PathExclude extends PathCommon {
 		this.obfuscateMode = obfuscateMode;
 	}
 
-	public <T> Map<String, Object> execute(T source, List<String> excludePaths) {
-		Map<String, Object> result = new LinkedHashMap<>();
-		excludePaths.addAll(0, defaultPaths);
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> Map<String, Object> execute(T source, PathQuery query) {
+		if (isStructuralSharing() && source instanceof Map<?, ?> map && findAccessor(source) == null) {
+			return (Map<String, Object>) shareMapExcluding(map, query.getTree());
+		}
 
-		ExclusionNode root = buildExclusionTree(excludePaths);
-		buildExcluding(result, source, "", root);
+		Map<String, Object> result = new LinkedHashMap<>();
+		buildExcluding(result, source, query.getTree());
 		return result;
 	}
 
-	private ExclusionNode buildExclusionTree(List<String> paths) {
-		ExclusionNode root = new ExclusionNode();
-
-		for (String path : paths) {
-			if (path == null || path.isBlank()) continue;
-			String[] parts = path.split("\\.");
-			ExclusionNode current = root;
-			for (int i = 0; i < parts.length; i++) {
-				String p = parts[i];
-				current = current.getChildren().computeIfAbsent(p, k -> new ExclusionNode());
-				if (i == parts.length - 1) {
-					current.setExcludeSelf(true);
-				}
-			}
+	@Override
+	String[] normalize(String[] segments) {
+		if (segments.length == 1 && segments[0].isBlank()) {
+			return null;
 		}
 
-		return root;
+		int length = segments.length;
+		while (length > 0 && segments[length - 1].isEmpty()) {
+			length--;
+		}
+		return length == segments.length ? segments : Arrays.copyOf(segments, length);
 	}
 
-	private void buildExcluding(Map<String, Object> target, Object source, String currentPath, ExclusionNode node) {
+	private void buildExcluding(Map<String, Object> target, Object source, PathTrie node) {
 		if (source == null || isSimpleValue(source)) {
 			return;
 		}
 
+		PropertyAccessor<Object> registered = findAccessor(source);
+		if (registered != null) {
+			excludeFromAccessor(target, source, node, registered);
+			return;
+		}
+
 		if (source instanceof Map<?, ?> map) {
-			excludeFromMap(target, currentPath, node, map);
+			excludeFromMap(target, node, map);
 			return;
 		}
 
-		excludeFromNode(target, source, currentPath, node);
+		excludeFromNode(target, source, node);
 	}
 
-	private void excludeFromNode(Map<String, Object> target, Object source, String currentPath, ExclusionNode node) {
-		for (String prop : getPropertyNames(source.getClass())) {
-			ExclusionNode childNode = node == null ? null : node.getChildren().get(prop);
-			if (childNode != null && childNode.isExcludeSelf() && childNode.getChildren().isEmpty()) {
+	private void excludeFromNode(Map<String, Object> target, Object source, PathTrie node) {
+		PathTrie current = node == null ? PathTrie.EMPTY : node;
+		ExcludePlan excludePlan = excludePlan(source, current);
+		PropertyPlan plan = excludePlan.properties();
+		for (int i = 0; i < plan.size(); i++) {
+			String prop = plan.name(i);
+			PathTrie childNode = excludePlan.child(i);
+			if (childNode != null && childNode.isTerminalLeaf()) {
 				if (obfuscateMode) {
 					target.put(prop, "****");
 				}
 				continue;
 			}
 
-			Object value = getPropertyValue(source, prop);
-			String path = currentPath.isEmpty() ? prop : currentPath + "." + prop;
-			Object built = buildValueExcluding(value, path, childNode);
+			Object value = plan.read(i, source);
+			Object built = buildValueExcluding(value, childNode);
 			if (built != SkipValue.INSTANCE) {
 				target.put(prop, built);
 			}
 		}
 	}
 
-	private void excludeFromMap(Map<String, Object> target, String currentPath, ExclusionNode node, Map<?, ?> map) {
+	private void excludeFromAccessor(Map<String, Object> target, Object source, PathTrie node,
+									 PropertyAccessor<Object> accessor) {
+		for (String prop : accessor.getPropertyNames(source)) {
+			PathTrie childNode = node == null ? null : node.find(prop);
+			if (childNode != null && childNode.isTerminalLeaf()) {
+				if (obfuscateMode) {
+					target.put(prop, "****");
+				}
+				continue;
+			}
+
+			Object value = accessor.getValue(source, prop);
+			Object built = buildValueExcluding(value, childNode);
+			if (built != SkipValue.INSTANCE) {
+				target.put(prop, built);
+			}
+		}
+	}
+
+	private void excludeFromMap(Map<String, Object> target, PathTrie node, Map<?, ?> map) {
 		for (Map.Entry<?, ?> entry : map.entrySet()) {
 			String key = String.valueOf(entry.getKey());
-			ExclusionNode childNode = node == null ? null : node.getChildren().get(key);
+			PathTrie childNode = node == null ? null : node.find(key);
 
-			if (childNode != null && childNode.isExcludeSelf() && childNode.getChildren().isEmpty()) {
+			if (childNode != null && childNode.isTerminalLeaf()) {
 				if (obfuscateMode) {
 					target.put(key, "****");
 				}
@@ -89,35 +115,38 @@ class PathExclude extends PathCommon {
 			}
 
 			Object value = entry.getValue();
-			String path = currentPath.isEmpty() ? key : currentPath + "." + key;
-			Object built = buildValueExcluding(value, path, childNode);
+			Object built = buildValueExcluding(value, childNode);
 			if (built != SkipValue.INSTANCE) {
 				target.put(key, built);
 			}
 		}
 	}
 
-	private Object buildValueExcluding(Object value, String path, ExclusionNode node) {
+	private Object buildValueExcluding(Object value, PathTrie node) {
 		if (isSimpleValue(value)) {
 			return value;
 		}
 
-		if (value instanceof Map<?, ?> mapVal) {
+		if (value instanceof Map<?, ?> mapVal && findAccessor(value) == null) {
+			if (isStructuralSharing()) {
+				return shareMapExcluding(mapVal, node);
+			}
+
 			Map<String, Object> nested = new LinkedHashMap<>();
-			buildExcluding(nested, mapVal, path, node == null ? new ExclusionNode() : node);
+			buildExcluding(nested, mapVal, node == null ? PathTrie.EMPTY : node);
 			return nested;
 		}
 
-		if (value instanceof Collection<?> || value.getClass().isArray()) {
-			return handleCollectionOrArray(value, path, node);
+		if ((value instanceof Collection<?> || value.getClass().isArray()) && findAccessor(value) == null) {
+			return handleCollectionOrArray(value, node);
 		}
 
 		Map<String, Object> nested = new LinkedHashMap<>();
-		buildExcluding(nested, value, path, node == null ? new ExclusionNode() : node);
+		buildExcluding(nested, value, node == null ? PathTrie.EMPTY : node);
 		return nested;
 	}
 
-	private Object handleCollectionOrArray(Object value, String path, ExclusionNode node) {
+	private Object handleCollectionOrArray(Object value, PathTrie node) {
 		Object[] array = null;
 		List<?> list;
 		boolean isArray = value.getClass().isArray();
@@ -129,78 +158,398 @@ class PathExclude extends PathCommon {
 
 			array = (Object[]) value;
 			list = Arrays.asList((Object[]) value);
+		} else if (isStructuralSharing() && value instanceof List<?> source) {
+			return shareListExcluding(source, node);
 		} else {
 			list = new ArrayList<>((Collection<?>) value);
 		}
 
 		boolean allSimple = list.stream().allMatch(this::isSimpleValue);
-		if (allSimple && (node == null || node.getChildren().isEmpty())) {
+		if (allSimple && (node == null || node.size() == 0)) {
 			return isArray ? array : list;
 		}
 
-		return addElementsToList(path, node, list);
+		return addElementsToList(node, list);
 	}
 
-	private List<Object> addElementsToList(String path, ExclusionNode node, List<?> list) {
+	private List<Object> addElementsToList(PathTrie node, List<?> list) {
 		List<Object> items = new ArrayList<>();
 		for (Object element : list) {
 			if (isSimpleValue(element)) {
 				items.add(element);
 			} else {
 				Map<String, Object> elementMap = new LinkedHashMap<>();
-				buildExcluding(elementMap, element, path, node == null ? new ExclusionNode() : node);
+				buildExcluding(elementMap, element, node == null ? PathTrie.EMPTY : node);
 				items.add(elementMap);
 			}
 		}
 		return items;
 	}
 
-	private boolean isSimpleValue(Object value) {
-		return value == null || value instanceof String || value instanceof Number || value instanceof Boolean ||
-				value instanceof Character || value instanceof Enum<?> || value instanceof java.util.Date ||
-				value.getClass().isPrimitive();
+	/**
+	 * Returns the source map itself when none of its entries is excluded, obfuscated nor converted, otherwise
+	 * a copy following the same rules as {@link #excludeFromMap(Map, PathTrie, Map)}, begun once
+	 * the first entry differing from the source is met.
+	 */
+	private Object shareMapExcluding(Map<?, ?> map, PathTrie node) {
+		Map<String, Object> copy = null;
+		int index = 0;
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			String key = String.valueOf(entry.getKey());
+			PathTrie childNode = node == null ? null : node.find(key);
+			Object value = entry.getValue();
+			Object built;
+			if (isExcluded(childNode)) {
+				built = obfuscateMode ? "****" : SkipValue.INSTANCE;
+			} else {
+				built = buildValueExcluding(value, childNode);
+			}
+
+			if (copy == null && (built != value || !(entry.getKey() instanceof String))) {
+				copy = copyEntries(map, index);
+			}
+			if (copy != null && built != SkipValue.INSTANCE) {
+				copy.put(key, built);
+			}
+			index++;
+		}
+		return copy == null ? map : copy;
 	}
 
-	private boolean isPrimitiveArray(Object value) {
-		return value instanceof boolean[] || value instanceof byte[] || value instanceof char[] ||
-				value instanceof short[] || value instanceof int[] || value instanceof long[] ||
-				value instanceof float[] || value instanceof double[];
+	/**
+	 * Copies the first entries of a map, whose keys are known to be strings.
+	 */
+	private static Map<String, Object> copyEntries(Map<?, ?> map, int count) {
+		Map<String, Object> copy = new LinkedHashMap<>();
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			if (copy.size() == count) {
+				break;
+			}
+			copy.put((String) entry.getKey(), entry.getValue());
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the source list itself when its elements are simple values or shared maps, otherwise a copy
+	 * following the same rules as {@link #addElementsToList(PathTrie, List)}, begun once
+	 * the first element differing from the source is met.
+	 */
+	private Object shareListExcluding(List<?> list, PathTrie node) {
+		PathTrie current = node == null ? PathTrie.EMPTY : node;
+		List<Object> copy = null;
+		int index = 0;
+		for (Object element : list) {
+			Object built = element;
+			if (element instanceof Map<?, ?> map && findAccessor(element) == null) {
+				built = shareMapExcluding(map, current);
+			} else if (!isSimpleValue(element)) {
+				Map<String, Object> elementMap = new LinkedHashMap<>();
+				buildExcluding(elementMap, element, current);
+				built = elementMap;
+			}
+
+			if (copy == null && built != element) {
+				copy = new ArrayList<>(list.size());
+				copy.addAll(list.subList(0, index));
+			}
+			if (copy != null) {
+				copy.add(built);
+			}
+			index++;
+		}
+		return copy == null ? list : copy;
 	}
 
-	private List<String> getPropertyNames(Class<?> clazz) {
-		List<String> names = new ArrayList<>();
-		if (clazz.isRecord()) {
-			Arrays.stream(clazz.getRecordComponents()).forEach(rc -> names.add(rc.getName()));
+	@Override
+	<T> Map<String, Object> view(T source, PathQuery query, boolean lazy) {
+		return excludingView(source, query.getTree(), lazy);
+	}
+
+	/**
+	 * Returns a read-only result of the properties of the source object, following the same rules as
+	 * {@link #buildExcluding(Map, Object, PathTrie)}. The property names are listed upfront,
+	 * a lazy view reading their values once their entry is accessed.
+	 */
+	private Map<String, Object> excludingView(Object source, PathTrie node, boolean lazy) {
+		if (source == null || isSimpleValue(source)) {
+			return Collections.emptyMap();
+		}
+
+		PropertyAccessor<Object> registered = findAccessor(source);
+		if (registered != null) {
+			List<String> props = retainedNames(registered.getPropertyNames(source), node);
+			return resultMap(new ResultShape(props.toArray(String[]::new)), false, i -> {
+				String prop = props.get(i);
+				PathTrie childNode = node.find(prop);
+				return isExcluded(childNode) ? "****" : valueView(registered.getValue(source, prop), childNode, lazy);
+			}, lazy);
+		}
+
+		if (source instanceof Map<?, ?> map) {
+			if (!lazy && isStructuralSharing()) {
+				return shareMapView(map, node);
+			}
+
+			List<String> keys = new ArrayList<>(map.size());
+			List<Object> sourceKeys = new ArrayList<>(map.size());
+			for (Object sourceKey : map.keySet()) {
+				String key = String.valueOf(sourceKey);
+				if (obfuscateMode || !isExcluded(node.find(key))) {
+					keys.add(key);
+					sourceKeys.add(sourceKey);
+				}
+			}
+
+			return resultMap(new ResultShape(keys.toArray(String[]::new)), false, i -> {
+				PathTrie childNode = node.find(keys.get(i));
+				return isExcluded(childNode) ? "****" : valueView(map.get(sourceKeys.get(i)), childNode, lazy);
+			}, lazy);
+		}
+
+		ExcludePlan excludePlan = excludePlan(source, node);
+		PropertyPlan plan = excludePlan.properties();
+		if (obfuscateMode) {
+			return resultMap(excludePlan.shape(), false, i -> {
+				PathTrie childNode = excludePlan.child(i);
+				return isExcluded(childNode) ? "****" : valueView(plan.read(i, source), childNode, lazy);
+			}, lazy);
+		}
+
+		int[] retained = excludePlan.retained();
+		return resultMap(excludePlan.retainedShape(), false,
+				i -> valueView(plan.read(retained[i], source), excludePlan.child(retained[i]), lazy), lazy);
+	}
+
+	/**
+	 * Returns the source map itself when none of its entries is excluded, obfuscated nor converted,
+	 * otherwise a compact copy of its entries.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> shareMapView(Map<?, ?> map, PathTrie node) {
+		String[] keys = new String[map.size()];
+		Object[] values = new Object[keys.length];
+		int count = 0;
+		boolean shared = true;
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			PathTrie childNode = node.find(String.valueOf(entry.getKey()));
+			boolean excluded = isExcluded(childNode);
+			if (excluded && !obfuscateMode) {
+				shared = false;
+				continue;
+			}
+
+			Object value = entry.getValue();
+			Object built = excluded ? "****" : valueView(value, childNode, false);
+			shared &= built == value && entry.getKey() instanceof String;
+			keys[count] = String.valueOf(entry.getKey());
+			values[count++] = built;
+		}
+
+		if (shared) {
+			return (Map<String, Object>) map;
+		}
+
+		ResultShape shape = new ResultShape(count == keys.length ? keys : Arrays.copyOf(keys, count));
+		return resultMap(shape, false, i -> values[i], false);
+	}
+
+	private List<String> retainedNames(List<String> props, PathTrie node) {
+		if (obfuscateMode) {
+			return props;
+		}
+
+		List<String> retained = new ArrayList<>(props.size());
+		for (String prop : props) {
+			if (!isExcluded(node.find(prop))) {
+				retained.add(prop);
+			}
+		}
+		return retained;
+	}
+
+	private static boolean isExcluded(PathTrie childNode) {
+		return childNode != null && childNode.isTerminalLeaf();
+	}
+
+	/**
+	 * Returns a value as it is when simple, or a read-only result of it, following the same rules as
+	 * {@link #buildValueExcluding(Object, PathTrie)}.
+	 */
+	private Object valueView(Object value, PathTrie node, boolean lazy) {
+		PathTrie current = node == null ? PathTrie.EMPTY : node;
+		if (isSimpleValue(value)) {
+			return value;
+		}
+
+		if ((value instanceof Collection<?> || value.getClass().isArray()) && findAccessor(value) == null) {
+			return collectionView(value, current, lazy);
+		}
+
+		return excludingView(value, current, lazy);
+	}
+
+	private Object collectionView(Object value, PathTrie node, boolean lazy) {
+		if (isPrimitiveArray(value)) {
+			return value;
+		}
+
+		Object[] elements;
+		if (value instanceof Object[] array) {
+			if (node.size() == 0 && Arrays.stream(array).allMatch(this::isSimpleValue)) {
+				return array;
+			}
+			elements = array;
+		} else if (!lazy && isStructuralSharing() && value instanceof List<?> list) {
+			return shareListView(list, node);
 		} else {
-			for (Field f : clazz.getDeclaredFields()) {
-				if (java.lang.reflect.Modifier.isStatic(f.getModifiers())) {
-					continue;
+			elements = ((Collection<?>) value).toArray();
+		}
+
+		return resultList(elements.length, false, i -> {
+			Object element = elements[i];
+			return isSimpleValue(element) ? element : excludingView(element, node, lazy);
+		}, lazy);
+	}
+
+	/**
+	 * Returns the source list itself when its elements are simple values or shared maps,
+	 * otherwise a compact copy of its elements.
+	 */
+	private Object shareListView(List<?> list, PathTrie node) {
+		Object[] elements = list.toArray();
+		boolean shared = true;
+		for (int i = 0; i < elements.length; i++) {
+			Object element = elements[i];
+			elements[i] = isSimpleValue(element) ? element : excludingView(element, node, false);
+			shared &= elements[i] == element;
+		}
+		return shared ? list : resultList(elements.length, false, i -> elements[i], false);
+	}
+
+	@Override
+	<T> void write(JsonWriter writer, T source, PathQuery query) throws IOException {
+		writeExcluding(writer, source, query.getTree());
+	}
+
+	/**
+	 * Writes the properties of the source object as entries of the current object,
+	 * following the same rules as {@link #buildExcluding(Map, Object, PathTrie)}.
+	 */
+	private void writeExcluding(JsonWriter writer, Object source, PathTrie node) throws IOException {
+		if (source == null || isSimpleValue(source)) {
+			return;
+		}
+
+		PropertyAccessor<Object> registered = findAccessor(source);
+		if (registered != null) {
+			for (String prop : registered.getPropertyNames(source)) {
+				PathTrie childNode = node.find(prop);
+				if (!writeObfuscated(writer, prop, null, childNode)) {
+					writer.name(prop);
+					writeValueExcluding(writer, registered.getValue(source, prop), childNode);
 				}
+			}
+			return;
+		}
 
-				if (hasAccessibleGetter(clazz, f)) {
-					names.add(f.getName());
+		if (source instanceof Map<?, ?> map) {
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				String key = String.valueOf(entry.getKey());
+				PathTrie childNode = node.find(key);
+				if (!writeObfuscated(writer, key, null, childNode)) {
+					writer.name(key);
+					writeValueExcluding(writer, entry.getValue(), childNode);
 				}
 			}
+			return;
+		}
+
+		ExcludePlan excludePlan = excludePlan(source, node);
+		PropertyPlan plan = excludePlan.properties();
+		for (int i = 0; i < plan.size(); i++) {
+			String prop = plan.name(i);
+			PathTrie childNode = excludePlan.child(i);
+			byte[] encodedProp = writer.encodesNames() ? plan.encodedName(i) : null;
+			if (!writeObfuscated(writer, prop, encodedProp, childNode) &&
+					!writer.primitiveEntry(prop, encodedProp, plan.accessor(i), source)) {
+				writer.name(prop, encodedProp);
+				writeValueExcluding(writer, plan.read(i, source), childNode);
+			}
 		}
-		return names;
 	}
 
-	private boolean hasAccessibleGetter(Class<?> clazz, Field field) {
-		String fieldName = field.getName();
-		String getterName = "get" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
-		String booleanGetterName = "is" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+	/**
+	 * Handles a property excluded as a whole, written masked in obfuscation mode and left out otherwise.
+	 *
+	 * @return true if the property is excluded
+	 */
+	private boolean writeObfuscated(JsonWriter writer, String prop, byte[] encodedProp, PathTrie childNode)
+			throws IOException {
+		if (childNode == null || !childNode.isTerminalLeaf()) {
+			return false;
+		}
 
-		return isMethodAccessible(clazz, field, getterName) ||
-				isMethodAccessible(clazz, field, booleanGetterName) ||
-				isMethodAccessible(clazz, field, fieldName);
+		if (obfuscateMode) {
+			writer.name(prop, encodedProp);
+			writer.value("****");
+		}
+		return true;
 	}
 
-	private boolean isMethodAccessible(Class<?> clazz, Field field, String getterName) {
-		try {
-			Method getter = clazz.getMethod(getterName);
-			return getter.getReturnType().equals(field.getType()) && getter.getParameterCount() == 0;
-		} catch (NoSuchMethodException e) {
-			return false;
+	private void writeValueExcluding(JsonWriter writer, Object value, PathTrie node) throws IOException {
+		PathTrie current = node == null ? PathTrie.EMPTY : node;
+		if (isSimpleValue(value)) {
+			writer.value(value);
+		} else if ((value instanceof Collection<?> || value.getClass().isArray()) && findAccessor(value) == null) {
+			writeCollectionOrArray(writer, value, current);
+		} else {
+			writer.beginObject(false);
+			writeExcluding(writer, value, current);
+			writer.end();
+		}
+	}
+
+	private void writeCollectionOrArray(JsonWriter writer, Object value, PathTrie node) throws IOException {
+		if (isPrimitiveArray(value)) {
+			writer.value(value);
+			return;
+		}
+
+		Collection<?> elements = value instanceof Object[] array ? Arrays.asList(array) : (Collection<?>) value;
+		writer.beginArray();
+		for (Object element : elements) {
+			if (isSimpleValue(element)) {
+				writer.value(element);
+			} else {
+				writer.beginObject(false);
+				writeExcluding(writer, element, node);
+				writer.end();
+			}
+		}
+		writer.end();
+	}
+
+	/**
+	 * Returns the exclusion plan of the given node for the class of the source object. The plan of a node
+	 * excluding nothing is the same for every query, so it is kept with the properties of the class.
+	 */
+	private ExcludePlan excludePlan(Object source, PathTrie node) {
+		if (node == PathTrie.EMPTY) {
+			return accessors.plan(source).excludingNothing();
 		}
+		return plan(source.getClass(), node, () -> new ExcludePlan(accessors.plan(source), node));
+	}
+
+	private boolean isSimpleValue(Object value) {
+		return value == null || value instanceof String || value instanceof Number || value instanceof Boolean ||
+				value instanceof Character || value instanceof Enum<?> || value instanceof java.util.Date ||
+				value.getClass().isPrimitive();
+	}
+
+	private boolean isPrimitiveArray(Object value) {
+		return value instanceof boolean[] || value instanceof byte[] || value instanceof char[] ||
+				value instanceof short[] || value instanceof int[] || value instanceof long[] ||
+				value instanceof float[] || value instanceof double[];
 	}
 }
@@ -1,100 +1,308 @@
 package ca.trackerforce.path;
 
+import java.io.IOException;
 import java.util.*;
 
+/**
+ * Filters the source object by walking the trie of the requested paths once.
+ * Each shared prefix is read once and each collection is iterated once for all of its sub-paths.
+ * The selected properties are either put into a result map, written straight as JSON,
+ * read on demand through a lazy view, or resolved at once into compact maps sharing their keys.
+ */
 @SuppressWarnings("unchecked")
 class PathFilter extends PathCommon {
 
-	public <T> Map<String, Object> execute(T source, List<String> filterPaths) {
+	@Override
+	String[] normalize(String[] segments) {
+		return segments;
+	}
+
+	@Override
+	public <T> Map<String, Object> execute(T source, PathQuery query) {
 		Map<String, Object> result = new LinkedHashMap<>();
-		filterPaths.addAll(0, defaultPaths);
+		addNodeToResult(result, source, query.getTree());
+		return result;
+	}
 
-		for (String path : filterPaths) {
-			addPathToResult(result, source, path);
+	/**
+	 * Adds the properties selected by the children of the given node into the result.
+	 * A property selected as a whole takes precedence over its selected sub-properties.
+	 * The accessors are taken from the execution plan of the node for the source class.
+	 *
+	 * @param result the result map of the source object
+	 * @param source the source object
+	 * @param node the node holding the properties to select
+	 */
+	private <T> void addNodeToResult(Map<String, Object> result, T source, PathTrie node) {
+		if (source == null) {
+			return;
 		}
 
-		return result;
-	}
+		if (findAccessor(source) != null) {
+			for (int i = 0; i < node.size(); i++) {
+				addValueToResult(result, getPropertyValue(source, node.name(i)), node.name(i), node.child(i));
+			}
+			return;
+		}
 
-	private <T> void addPathToResult(Map<String, Object> result, T source, String path) {
-		String[] parts = path.split("\\.", 2);
-		String currentProperty = parts[0];
-		String remainingPath = parts.length > 1 ? parts[1] : null;
+		FilterPlan plan = filterPlan(source, node);
+		for (int i = 0; i < plan.size(); i++) {
+			Object value = readProperty(source, plan.resolution(i));
+			addValueToResult(result, value, plan.name(i), plan.child(i));
+		}
+	}
 
-		Object value = getPropertyValue(source, currentProperty);
+	private void addValueToResult(Map<String, Object> result, Object value, String property, PathTrie node) {
 		if (value == null) {
 			return;
 		}
 
-		if (remainingPath == null) {
-			result.put(currentProperty, value);
+		if (node.isTerminal()) {
+			result.put(property, value);
 		} else {
-			extractFromNestedStructure(result, value, currentProperty, remainingPath);
+			extractFromNestedStructure(result, value, property, node);
 		}
 	}
 
-	private void extractFromNestedStructure(Map<String, Object> result, Object value, String currentProperty,
-											String remainingPath) {
-		// Nested property using Collection
-		if (value instanceof Collection<?> collection) {
-			getNestedStructure(result, collection, currentProperty, remainingPath).removeIf(Map::isEmpty);
+	private void extractFromNestedStructure(Map<String, Object> result, Object value, String property,
+											PathTrie node) {
+		// Nested property using a registered accessor, which takes precedence over the built-in structures
+		if (findAccessor(value) != null) {
+			addNodeToResult(nestedResult(result, property), value, node);
+
+			// Nested property using Collection
+		} else if (value instanceof Collection<?> collection) {
+			result.put(property, getNestedStructure(collection, node));
 
 			// Nested property using Array
 		} else if (value.getClass().isArray()) {
-			Object[] array = (Object[]) value;
-			getNestedStructure(result, Arrays.asList(array), currentProperty, remainingPath).removeIf(Map::isEmpty);
+			Collection<?> elements = value instanceof Object[] array ? Arrays.asList(array) : List.of();
+			result.put(property, getNestedStructure(elements, node));
 
 			// Nested property using Map
 		} else if (value instanceof Map<?, ?> map) {
-			Map<String, Object> nestedResult = (Map<String, Object>)
-					result.computeIfAbsent(currentProperty, k -> new LinkedHashMap<>());
-
-			// Split the remaining path to get the next property we're looking for
-			String[] remainingParts = remainingPath.split("\\.", 2);
-			String targetKey = remainingParts[0];
-			String nextRemainingPath = remainingParts.length > 1 ? remainingParts[1] : null;
-
-			// Only process the specific key we're looking for
-			if (map.containsKey(targetKey)) {
-				Object entryValue = map.get(targetKey);
-				if (nextRemainingPath == null) {
+			Map<String, Object> nestedResult = nestedResult(result, property);
+
+			// Only process the specific keys we're looking for
+			for (int i = 0; i < node.size(); i++) {
+				String key = node.name(i);
+				if (!map.containsKey(key)) {
+					continue;
+				}
+
+				Object entryValue = map.get(key);
+				if (node.child(i).isTerminal()) {
 					// This is the final property - set the value directly
-					nestedResult.put(targetKey, entryValue);
+					nestedResult.put(key, entryValue);
 				} else {
-					// Get or create a nested map for this key (don't overwrite existing)
-					Map<String, Object> keyNestedResult = (Map<String, Object>)
-							nestedResult.computeIfAbsent(targetKey, k -> new LinkedHashMap<>());
-
-					addPathToResult(keyNestedResult, entryValue, nextRemainingPath);
+					addNodeToResult(nestedResult(nestedResult, key), entryValue, node.child(i));
 				}
 			}
 
 			// Single nested object - get or create the nested map
 		} else {
-			Map<String, Object> nestedResult = (Map<String, Object>)
-					result.computeIfAbsent(currentProperty, k -> new LinkedHashMap<>());
-			addPathToResult(nestedResult, value, remainingPath);
+			addNodeToResult(nestedResult(result, property), value, node);
+		}
+	}
+
+	private List<Map<String, Object>> getNestedStructure(Collection<?> collection, PathTrie node) {
+		List<Map<String, Object>> nestedResults = new ArrayList<>(collection.size());
+
+		// Process each item in the collection, skipping the ones without any selected property
+		for (Object item : collection) {
+			Map<String, Object> nestedMap = new LinkedHashMap<>();
+			addNodeToResult(nestedMap, item, node);
+			if (!nestedMap.isEmpty()) {
+				nestedResults.add(nestedMap);
+			}
 		}
+
+		return nestedResults;
 	}
 
-	private List<Map<String, Object>> getNestedStructure(Map<String, Object> result, Collection<?> collection,
-														 String currentProperty, String remainingPath) {
-		List<Map<String, Object>> nestedResults = (List<Map<String, Object>>)
-				result.computeIfAbsent(currentProperty, k -> new ArrayList<>());
-		result.put(currentProperty, nestedResults);
+	private Map<String, Object> nestedResult(Map<String, Object> result, String property) {
+		return (Map<String, Object>) result.computeIfAbsent(property, k -> new LinkedHashMap<>());
+	}
+
+	@Override
+	<T> Map<String, Object> view(T source, PathQuery query, boolean lazy) {
+		return nodeView(source, query.getTree(), lazy);
+	}
 
-		// Ensure we have enough maps in the list for all collection items
-		while (nestedResults.size() < collection.size()) {
-			nestedResults.add(new LinkedHashMap<>());
+	/**
+	 * Returns a read-only result of the properties selected by the children of the given node,
+	 * following the same rules as {@link #addNodeToResult(Map, Object, PathTrie)}.
+	 * A lazy view reads a property once its entry is accessed, a null value leaving the entry out.
+	 */
+	private Map<String, Object> nodeView(Object source, PathTrie node, boolean lazy) {
+		if (source == null || node.size() == 0) {
+			return Collections.emptyMap();
 		}
 
-		// Process each item in the collection
-		for (int index = 0; index < collection.size(); index++) {
-			Map<String, Object> nestedMap = nestedResults.get(index);
-			addPathToResult(nestedMap, ((List<?>) collection).get(index), remainingPath);
+		if (findAccessor(source) != null) {
+			return resultMap(node.shape(), true,
+					i -> selectedValue(getPropertyValue(source, node.name(i)), node.child(i), lazy), lazy);
 		}
 
-		return nestedResults;
+		FilterPlan plan = filterPlan(source, node);
+		return resultMap(node.shape(), true, i -> {
+			Object value = readProperty(source, plan.resolution(i));
+			return selectedValue(value, plan.child(i), lazy);
+		}, lazy);
+	}
+
+	private Object selectedValue(Object value, PathTrie node, boolean lazy) {
+		if (value == null) {
+			return LazyResultMap.ABSENT;
+		}
+
+		return node.isTerminal() ? value : nestedView(value, node, lazy);
+	}
+
+	/**
+	 * Returns a read-only result of a nested structure, following the same rules as
+	 * {@link #extractFromNestedStructure(Map, Object, String, PathTrie)}.
+	 */
+	private Object nestedView(Object value, PathTrie node, boolean lazy) {
+		if (findAccessor(value) != null) {
+			return nodeView(value, node, lazy);
+		}
+
+		if (value instanceof Collection<?> collection) {
+			return elementsView(collection.toArray(), node, lazy);
+		}
+
+		if (value.getClass().isArray()) {
+			return value instanceof Object[] array ? elementsView(array, node, lazy) : List.of();
+		}
+
+		if (value instanceof Map<?, ?> map) {
+			return resultMap(node.shape(), true, i -> {
+				String key = node.name(i);
+				if (!map.containsKey(key)) {
+					return LazyResultMap.ABSENT;
+				}
+
+				Object entryValue = map.get(key);
+				return node.child(i).isTerminal() ? entryValue : nodeView(entryValue, node.child(i), lazy);
+			}, lazy);
+		}
+
+		return nodeView(value, node, lazy);
+	}
+
+	private List<Object> elementsView(Object[] elements, PathTrie node, boolean lazy) {
+		return resultList(elements.length, true, i -> nodeView(elements[i], node, lazy), lazy);
+	}
+
+	@Override
+	<T> void write(JsonWriter writer, T source, PathQuery query) throws IOException {
+		writeNode(writer, source, query.getTree());
+	}
+
+	/**
+	 * Writes the properties selected by the children of the given node as entries of the current object,
+	 * following the same rules as {@link #addNodeToResult(Map, Object, PathTrie)}.
+	 *
+	 * @param writer the writer of the source object
+	 * @param source the source object
+	 * @param node the node holding the properties to select
+	 */
+	private <T> void writeNode(JsonWriter writer, T source, PathTrie node) throws IOException {
+		if (source == null) {
+			return;
+		}
+
+		if (findAccessor(source) != null) {
+			for (int i = 0; i < node.size(); i++) {
+				writeValue(writer, getPropertyValue(source, node.name(i)), node.name(i), null, node.child(i));
+			}
+			return;
+		}
+
+		FilterPlan plan = filterPlan(source, node);
+		for (int i = 0; i < plan.size(); i++) {
+			byte[] encodedName = writer.encodesNames() ? plan.encodedName(i) : null;
+			if (plan.child(i).isTerminal() &&
+					writer.primitiveEntry(plan.name(i), encodedName, plan.resolution(i).accessor(), source)) {
+				continue;
+			}
+
+			Object value = readProperty(source, plan.resolution(i));
+			writeValue(writer, value, plan.name(i), encodedName, plan.child(i));
+		}
+	}
+
+	private void writeValue(JsonWriter writer, Object value, String property, byte[] encodedProperty,
+							PathTrie node) throws IOException {
+		if (value == null) {
+			return;
+		}
+
+		writer.name(property, encodedProperty);
+		if (node.isTerminal()) {
+			writer.value(value);
+		} else {
+			writeNestedStructure(writer, value, node);
+		}
+	}
+
+	private void writeNestedStructure(JsonWriter writer, Object value, PathTrie node) throws IOException {
+		if (findAccessor(value) != null) {
+			writeNestedObject(writer, value, node);
+		} else if (value instanceof Collection<?> collection) {
+			writeElements(writer, collection, node);
+		} else if (value.getClass().isArray()) {
+			writeElements(writer, value instanceof Object[] array ? Arrays.asList(array) : List.of(), node);
+		} else if (value instanceof Map<?, ?> map) {
+			writer.beginObject(false);
+			for (int i = 0; i < node.size(); i++) {
+				String key = node.name(i);
+				if (!map.containsKey(key)) {
+					continue;
+				}
+
+				writer.name(key);
+				if (node.child(i).isTerminal()) {
+					writer.value(map.get(key));
+				} else {
+					writeNestedObject(writer, map.get(key), node.child(i));
+				}
+			}
+			writer.end();
+		} else {
+			writeNestedObject(writer, value, node);
+		}
 	}
 
+	private void writeNestedObject(JsonWriter writer, Object value, PathTrie node) throws IOException {
+		writer.beginObject(false);
+		writeNode(writer, value, node);
+		writer.end();
+	}
+
+	/**
+	 * Writes each element of the collection, leaving out the ones without any selected property.
+	 */
+	private void writeElements(JsonWriter writer, Collection<?> collection, PathTrie node) throws IOException {
+		writer.beginArray();
+		for (Object item : collection) {
+			writer.beginObject(true);
+			writeNode(writer, item, node);
+			writer.end();
+		}
+		writer.end();
+	}
+
+	/**
+	 * Returns the execution plan of the given node for the class of the source object, counting the missing
+	 * members it resolved when it is built.
+	 */
+	private FilterPlan filterPlan(Object source, PathTrie node) {
+		return plan(source.getClass(), node, () -> {
+			FilterPlan plan = new FilterPlan(source, node, accessors);
+			countAvoidedExceptions(plan.missingMembers());
+			return plan;
+		});
+	}
 }
@@ -2,8 +2,10 @@ package ca.trackerforce.path;
 
 import ca.trackerforce.path.api.DotParse;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Parser for dot notation paths with support for nested bracket expressions.
@@ -53,4 +55,154 @@ public class PathParser implements DotParse {
 
         return paths;
     }
+
+    /**
+     * Parses a dot notation string in a single pass, handing the segments of each path to the given consumer.
+     * Grouped paths like "parent[child1.prop,child2[prop1,prop2]]" are nested at any depth without being expanded
+     * into intermediate strings: only the segment names are allocated, and the ones of a group prefix once per group.
+     * <p>
+     * The paths are the ones {@link #parse(String)} followed by the grouped path expansion gives, split on every dot
+     * with the empty segments kept: items and grouped items are trimmed, blank items inside groups and empty groups
+     * add no path, and whatever follows a closing bracket up to the next comma is ignored.
+     *
+     * @param input the dot notation string to parse
+     * @param paths receives the segments of each path, in order
+     */
+    void parseInto(String input, Consumer<String[]> paths) {
+        if (input == null || input.trim().isEmpty()) {
+            return;
+        }
+
+        new SegmentParser(input, paths).parseList(0, NO_SEGMENTS, false);
+    }
+
+    private static final String[] NO_SEGMENTS = new String[0];
+
+    /**
+     * Single-pass parser state, holding the positions of the segments of the item being read.
+     */
+    private static final class SegmentParser {
+
+        private final String input;
+
+        private final Consumer<String[]> paths;
+
+        private int[] bounds = new int[16];
+
+        private SegmentParser(String input, Consumer<String[]> paths) {
+            this.input = input;
+            this.paths = paths;
+        }
+
+        /**
+         * Parses comma-separated items until the end of the input, or the closing bracket of a nested list.
+         *
+         * @return the position of the closing bracket, or the input length
+         */
+        private int parseList(int position, String[] prefix, boolean nested) {
+            while (position < input.length()) {
+                position = parseItem(position, prefix, nested);
+                if (position >= input.length()) {
+                    break;
+                }
+
+                char c = input.charAt(position);
+                if (c == ']' && nested) {
+                    return position;
+                }
+                position++; // comma, or unbalanced closing bracket at the top level
+            }
+
+            return position;
+        }
+
+        /**
+         * Parses a single item: a dotted path, optionally followed by a bracketed list of sub-items.
+         * A blank top-level item is an empty path, like the empty item {@link #parse(String)} gives for it.
+         *
+         * @return the position of the comma or closing bracket ending the item, or the input length
+         */
+        private int parseItem(int position, String[] prefix, boolean nested) {
+            int count = 0;
+            int start = skipWhitespace(position);
+            int cursor = start;
+
+            while (cursor < input.length()) {
+                char c = input.charAt(cursor);
+                if (c == ',' || c == ']' || c == '[') {
+                    break;
+                }
+
+                if (c == '.') {
+                    count = addBounds(count, start, cursor);
+                    start = cursor + 1;
+                }
+                cursor++;
+            }
+
+            boolean grouped = cursor < input.length() && input.charAt(cursor) == '[';
+            int end = grouped ? cursor : trimEnd(start, cursor);
+            if (count == 0 && end == start && !grouped) {
+                if (!nested && cursor > position) {
+                    paths.accept(concat(prefix, 0));
+                }
+                return cursor;
+            }
+            count = addBounds(count, start, end);
+
+            String[] segments = concat(prefix, count);
+            if (!grouped) {
+                paths.accept(segments);
+                return cursor;
+            }
+
+            cursor = parseList(cursor + 1, segments, true);
+            return skipUntilSeparator(cursor + 1);
+        }
+
+        /**
+         * Trims like {@link String#trim()}, the way the parsed items are.
+         */
+        private int trimEnd(int start, int end) {
+            while (end > start && input.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            return end;
+        }
+
+        /**
+         * Appends the segments read so far to the given prefix, an empty segment when there is none.
+         */
+        private String[] concat(String[] prefix, int count) {
+            int length = Math.max(count / 2, 1);
+            String[] segments = Arrays.copyOf(prefix, prefix.length + length);
+            for (int i = 0; i < length; i++) {
+                segments[prefix.length + i] = count == 0 ? "" : input.substring(bounds[i * 2], bounds[i * 2 + 1]);
+            }
+            return segments;
+        }
+
+        private int addBounds(int count, int start, int end) {
+            if (count + 2 > bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[count] = start;
+            bounds[count + 1] = end;
+            return count + 2;
+        }
+
+        private int skipWhitespace(int position) {
+            while (position < input.length() && input.charAt(position) <= ' ') {
+                position++;
+            }
+            return position;
+        }
+
+        private int skipUntilSeparator(int position) {
+            while (position < input.length() && input.charAt(position) != ',' && input.charAt(position) != ']') {
+                position++;
+            }
+            return position;
+        }
+    }
 }
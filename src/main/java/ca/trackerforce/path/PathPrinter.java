@@ -1,168 +1,106 @@
 package ca.trackerforce.path;
 
 import ca.trackerforce.path.api.DotPrinter;
-
-import java.lang.reflect.Array;
-import java.util.List;
-import java.util.Map;
-import java.util.StringJoiner;
-
+import ca.trackerforce.path.api.PrinterOptions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Prints objects as JSON, writing every token once into the output through a {@link JsonWriter}
+ * instead of concatenating the nested levels into intermediate strings.
+ * The formatting is taken from immutable {@link PrinterOptions} and every call writes with its own
+ * {@link JsonWriter}, so one printer can be shared by concurrent callers.
+ * Byte outputs are encoded to UTF-8 while written, into a pooled buffer, see {@link Utf8Output}.
+ */
 class PathPrinter implements DotPrinter {
 
-    private String indent;
-
-	private boolean prettier;
+	/**
+	 * Options used by the methods taking a prettier flag, replaced as a whole when the indent size changes.
+	 */
+	private volatile PrinterOptions prettyOptions;
 
 	PathPrinter(int indentSize) {
 		setIndentSize(indentSize);
 	}
 
 	@Override
-    public String toJson(Object obj, boolean prettier) {
-		this.prettier = prettier;
-        return toJsonInternal(obj, 0);
-    }
+	public String toJson(Object obj, boolean prettier) {
+		return toJson(obj, options(prettier));
+	}
 
 	@Override
-	public void setIndentSize(int indentSize) {
-		indent = " ".repeat(indentSize);
+	public String toJson(Object obj, PrinterOptions options) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			toJson(obj, options, sb);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public void toJson(Object obj, boolean prettier, Appendable out) throws IOException {
+		toJson(obj, options(prettier), out);
 	}
 
-    private String toJsonInternal(Object obj, int depth) {
-        if (obj == null) {
-            return "null";
-        }
+	@Override
+	public void toJson(Object obj, PrinterOptions options, Appendable out) throws IOException {
+		new JsonWriter(new AppendableOutput(out), options).value(obj);
+	}
+
+	@Override
+	public void toJson(Object obj, boolean prettier, OutputStream out) throws IOException {
+		toJson(obj, options(prettier), out);
+	}
 
-		if (obj instanceof String value) {
-			return "\"" + escapeString(value) + "\"";
+	@Override
+	public void toJson(Object obj, PrinterOptions options, OutputStream out) throws IOException {
+		write(obj, options, out::write);
+		out.flush();
+	}
+
+	@Override
+	public void toJson(Object obj, PrinterOptions options, ByteBuffer out) {
+		try {
+			write(obj, options, out::put);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
+	}
 
-		if (obj instanceof Number || obj instanceof Boolean) {
-			return obj.toString();
+	@Override
+	public byte[] toJsonBytes(Object obj, PrinterOptions options) {
+		Utf8Output output = Utf8Output.acquire(null);
+		try {
+			new JsonWriter(output, options).value(obj);
+			return output.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			output.release();
 		}
+	}
 
-		if (obj instanceof List<?> value) {
-			return listToJson(value, depth);
+	@Override
+	public void setIndentSize(int indentSize) {
+		prettyOptions = PrinterOptions.pretty(indentSize);
+	}
+
+	private void write(Object obj, PrinterOptions options, Utf8Output.ByteSink sink) throws IOException {
+		Utf8Output output = Utf8Output.acquire(sink);
+		try {
+			new JsonWriter(output, options).value(obj);
+			output.flush();
+		} finally {
+			output.release();
 		}
+	}
 
-        if (obj instanceof Map<?, ?> value) {
-            return mapToJson(value, depth);
-        }
-
-        if (obj.getClass().isArray()) {
-            return arrayToJson(obj, depth);
-        }
-
-        return "\"" + escapeString(obj.toString()) + "\"";
-    }
-
-    private String mapToJson(Map<?, ?> map, int depth) {
-        if (map.isEmpty()) {
-            return "{}";
-        }
-
-        if (!prettier) {
-            StringJoiner joiner = new StringJoiner(", ", "{", "}");
-            for (Map.Entry<?, ?> entry : map.entrySet()) {
-                String key = "\"" + escapeString(entry.getKey().toString()) + "\"";
-                String value = toJsonInternal(entry.getValue(), depth);
-                joiner.add(key + ": " + value);
-            }
-            return joiner.toString();
-        }
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("{");
-
-        boolean first = true;
-        for (Map.Entry<?, ?> entry : map.entrySet()) {
-            if (!first) {
-                sb.append(",");
-            }
-            sb.append("\n").append(getIndent(depth + 1));
-
-            String key = "\"" + escapeString(entry.getKey().toString()) + "\"";
-            String value = toJsonInternal(entry.getValue(), depth + 1);
-            sb.append(key).append(": ").append(value);
-
-            first = false;
-        }
-
-        sb.append("\n").append(getIndent(depth)).append("}");
-        return sb.toString();
-    }
-
-    private String listToJson(List<?> list, int depth) {
-        if (list.isEmpty()) {
-            return "[]";
-        }
-
-        if (!prettier) {
-            StringJoiner joiner = new StringJoiner(", ", "[", "]");
-            for (Object item : list) {
-                joiner.add(toJsonInternal(item, depth));
-            }
-            return joiner.toString();
-        }
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-
-        boolean first = true;
-        for (Object item : list) {
-            if (!first) {
-                sb.append(",");
-            }
-            sb.append("\n").append(getIndent(depth + 1));
-            sb.append(toJsonInternal(item, depth + 1));
-            first = false;
-        }
-
-        sb.append("\n").append(getIndent(depth)).append("]");
-        return sb.toString();
-    }
-
-    private String arrayToJson(Object array, int depth) {
-        if (Array.getLength(array) == 0) {
-            return "[]";
-        }
-
-        if (!prettier) {
-            StringJoiner joiner = new StringJoiner(", ", "[", "]");
-            for (int i = 0; i < Array.getLength(array); i++) {
-                joiner.add(toJsonInternal(Array.get(array, i), depth));
-            }
-            return joiner.toString();
-        }
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-
-        for (int i = 0; i < Array.getLength(array); i++) {
-            if (i > 0) {
-                sb.append(",");
-            }
-            sb.append("\n").append(getIndent(depth + 1));
-            sb.append(toJsonInternal(Array.get(array, i), depth + 1));
-        }
-
-        sb.append("\n").append(getIndent(depth)).append("]");
-        return sb.toString();
-    }
-
-    private String getIndent(int depth) {
-        return indent.repeat(depth);
-    }
-
-    private String escapeString(String str) {
-        if (str == null) {
-            return "";
-        }
-
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
-    }
+	private PrinterOptions options(boolean prettier) {
+		return prettier ? prettyOptions : PrinterOptions.compact();
+	}
 }
@@ -0,0 +1,54 @@
+package ca.trackerforce.path;
+
+import ca.trackerforce.path.api.DotQuery;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Query compiled by a {@link PathCommon} implementation, holding the expanded paths
+ * and the trie built from them.
+ */
+final class PathQuery implements DotQuery {
+
+	private final PathCommon owner;
+
+	private volatile List<String> paths;
+
+	private final PathTrie tree;
+
+	/**
+	 * @param owner the implementation compiling the query
+	 * @param paths the expanded paths, or null to list them from the trie when first requested
+	 * @param tree the trie of the paths
+	 */
+	PathQuery(PathCommon owner, List<String> paths, PathTrie tree) {
+		this.owner = owner;
+		this.paths = paths == null ? null : Collections.unmodifiableList(paths);
+		this.tree = tree;
+	}
+
+	@Override
+	public List<String> getPaths() {
+		List<String> current = paths;
+		if (current == null) {
+			current = Collections.unmodifiableList(tree.paths());
+			paths = current;
+		}
+		return current;
+	}
+
+	/**
+	 * Checks if this query was compiled by the given implementation.
+	 *
+	 * @param path the implementation running the query
+	 * @return true if the query was compiled by the given implementation, false otherwise
+	 */
+	boolean isOwnedBy(PathCommon path) {
+		return owner == path;
+	}
+
+	PathTrie getTree() {
+		return tree;
+	}
+}
@@ -0,0 +1,300 @@
+package ca.trackerforce.path;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact immutable prefix trie of paths, where each node holds the segments following it.
+ * <p>
+ * Children are kept in two parallel arrays, in the order they first appear in the paths, plus a
+ * sorted index used for lookups by segment. Leaves share the same instances, so a compiled query holds
+ * no per-node map. Tries are built with a {@link Builder}, which can start from an existing trie and
+ * shares every node it does not change.
+ * <p>
+ * Each node also remembers the execution plan it last ran for a source class, so traversing a list of
+ * objects of the same class finds the plan without going through the shared plan cache.
+ */
+final class PathTrie {
+
+	private static final String[] NO_NAMES = new String[0];
+
+	private static final PathTrie[] NO_CHILDREN = new PathTrie[0];
+
+	private static final int[] NO_INDEX = new int[0];
+
+	/**
+	 * Trie without any path.
+	 */
+	static final PathTrie EMPTY = new PathTrie(NO_NAMES, NO_CHILDREN, false);
+
+	private static final PathTrie TERMINAL_LEAF = new PathTrie(NO_NAMES, NO_CHILDREN, true);
+
+	private final String[] names;
+
+	private final PathTrie[] children;
+
+	private final int[] sortedIndex;
+
+	private final boolean terminal;
+
+	private final ResultShape shape;
+
+	/**
+	 * Plan last used at this node, see {@link #cachedPlan(Object, Class)}.
+	 */
+	private volatile PlanSlot planSlot;
+
+	private PathTrie(String[] names, PathTrie[] children, boolean terminal) {
+		this.names = names;
+		this.children = children;
+		this.terminal = terminal;
+		this.sortedIndex = names.length == 0 ? NO_INDEX : sortIndex(names);
+		this.shape = names.length == 0 ? ResultShape.EMPTY : new ResultShape(names);
+	}
+
+	/**
+	 * Builds the trie of the given paths, where every segment is kept, empty ones included.
+	 *
+	 * @param paths the expanded paths
+	 * @return the trie of the paths
+	 */
+	static PathTrie of(List<String> paths) {
+		Builder builder = builder(EMPTY);
+		for (String path : paths) {
+			builder.add(path.split("\\.", -1));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Creates a builder adding paths to the given trie, which is left unchanged.
+	 *
+	 * @param base the trie to start from
+	 * @return the builder
+	 */
+	static Builder builder(PathTrie base) {
+		return new Builder(base);
+	}
+
+	/**
+	 * @return the number of child segments
+	 */
+	int size() {
+		return names.length;
+	}
+
+	/**
+	 * @return the shape of the results of this node, keyed by the child segments in order of first appearance
+	 */
+	ResultShape shape() {
+		return shape;
+	}
+
+	/**
+	 * @param index the child index, in order of first appearance
+	 * @return the segment of the child at the given index
+	 */
+	String name(int index) {
+		return names[index];
+	}
+
+	/**
+	 * @param index the child index, in order of first appearance
+	 * @return the child at the given index
+	 */
+	PathTrie child(int index) {
+		return children[index];
+	}
+
+	/**
+	 * Finds the child of the given segment.
+	 *
+	 * @param name the segment
+	 * @return the child, or null if no path continues with the given segment
+	 */
+	PathTrie find(String name) {
+		int low = 0;
+		int high = sortedIndex.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int slot = sortedIndex[middle];
+			int comparison = names[slot].compareTo(name);
+			if (comparison == 0) {
+				return children[slot];
+			}
+
+			if (comparison < 0) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks if a path ends at this node.
+	 *
+	 * @return true if a path ends at this node, false otherwise
+	 */
+	boolean isTerminal() {
+		return terminal;
+	}
+
+	/**
+	 * Checks if a path ends at this node and none continues after it.
+	 *
+	 * @return true if this node is a terminal leaf, false otherwise
+	 */
+	boolean isTerminalLeaf() {
+		return terminal && names.length == 0;
+	}
+
+	/**
+	 * Returns the plan last cached at this node, if it was cached by the given owner for the given class.
+	 *
+	 * @param owner the token of the plan cache the plan comes from
+	 * @param type the class of the source object
+	 * @return the cached plan, or null if none matches
+	 */
+	Object cachedPlan(Object owner, Class<?> type) {
+		PlanSlot slot = planSlot;
+		return slot != null && slot.owner == owner && slot.type == type ? slot.plan : null;
+	}
+
+	/**
+	 * Remembers the plan run at this node for the given class, replacing the previous one.
+	 * The shared {@link #EMPTY} and terminal leaf nodes never keep one, they belong to every trie.
+	 *
+	 * @param owner the token of the plan cache the plan comes from
+	 * @param type the class of the source object
+	 * @param plan the plan
+	 */
+	void cachePlan(Object owner, Class<?> type, Object plan) {
+		if (this != EMPTY && this != TERMINAL_LEAF) {
+			planSlot = new PlanSlot(owner, type, plan);
+		}
+	}
+
+	/**
+	 * Lists the paths ending in this trie, in the order their segments first appear.
+	 *
+	 * @return the paths of the trie
+	 */
+	List<String> paths() {
+		List<String> paths = new ArrayList<>();
+		collectPaths(null, paths);
+		return paths;
+	}
+
+	private void collectPaths(String prefix, List<String> paths) {
+		for (int i = 0; i < names.length; i++) {
+			String path = prefix == null ? names[i] : prefix + "." + names[i];
+			if (children[i].terminal) {
+				paths.add(path);
+			}
+			children[i].collectPaths(path, paths);
+		}
+	}
+
+	private static int[] sortIndex(String[] names) {
+		int[] slots = new int[names.length];
+		for (int i = 0; i < slots.length; i++) {
+			int slot = i;
+			int j = i - 1;
+			while (j >= 0 && names[slots[j]].compareTo(names[slot]) > 0) {
+				slots[j + 1] = slots[j];
+				j--;
+			}
+			slots[j + 1] = slot;
+		}
+		return slots;
+	}
+
+	/**
+	 * Plan cached at a node, with the owner and class it was cached for.
+	 */
+	private record PlanSlot(Object owner, Class<?> type, Object plan) { }
+
+	/**
+	 * Mutable node used to build a trie. Nodes coming from the base trie are only copied once a path
+	 * goes through them, the untouched ones are reused as is.
+	 */
+	static final class Builder {
+
+		private final PathTrie base;
+
+		private Map<String, Builder> children;
+
+		private boolean terminal;
+
+		private Builder(PathTrie base) {
+			this.base = base;
+			this.terminal = base != null && base.terminal;
+		}
+
+		/**
+		 * Adds a path given by its segments.
+		 *
+		 * @param segments the path segments
+		 * @return this builder
+		 */
+		Builder add(String[] segments) {
+			Builder current = this;
+			for (String segment : segments) {
+				current = current.child(segment);
+			}
+			current.terminal();
+			return this;
+		}
+
+		/**
+		 * Marks a path as ending at this node.
+		 */
+		void terminal() {
+			terminal = true;
+		}
+
+		/**
+		 * Builds the immutable trie.
+		 *
+		 * @return the trie
+		 */
+		PathTrie build() {
+			if (children == null && base != null) {
+				return base.terminal == terminal ? base : new PathTrie(base.names, base.children, terminal);
+			}
+
+			if (children == null || children.isEmpty()) {
+				return terminal ? TERMINAL_LEAF : EMPTY;
+			}
+
+			String[] names = children.keySet().toArray(String[]::new);
+			PathTrie[] nodes = new PathTrie[names.length];
+			for (int i = 0; i < names.length; i++) {
+				nodes[i] = children.get(names[i]).build();
+			}
+			return new PathTrie(names, nodes, terminal);
+		}
+
+		/**
+		 * Returns the node of the given segment under this one, creating it if needed.
+		 *
+		 * @param segment the segment
+		 * @return the child node
+		 */
+		Builder child(String segment) {
+			if (children == null) {
+				children = new LinkedHashMap<>();
+				if (base != null) {
+					for (int i = 0; i < base.names.length; i++) {
+						children.put(base.names[i], new Builder(base.children[i]));
+					}
+				}
+			}
+			return children.computeIfAbsent(segment, k -> new Builder(null));
+		}
+	}
+}
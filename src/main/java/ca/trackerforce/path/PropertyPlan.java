@@ -0,0 +1,103 @@
+package ca.trackerforce.path;
+
+/**
+ * Immutable list of the properties a class exposes when it is fully traversed,
+ * in declaration order, each paired with its resolved {@link Accessor}.
+ * The names are encoded once, by the first JSON written as UTF-8.
+ */
+final class PropertyPlan {
+
+	private final String[] names;
+
+	private final Accessor[] accessors;
+
+	private volatile byte[][] encodedNames;
+
+	private volatile ExcludePlan excludingNothing;
+
+	PropertyPlan(String[] names, Accessor[] accessors) {
+		this.names = names;
+		this.accessors = accessors;
+	}
+
+	/**
+	 * @return the number of properties
+	 */
+	int size() {
+		return names.length;
+	}
+
+	/**
+	 * @return the property names, in declaration order, shared with this plan and not to be modified
+	 */
+	String[] names() {
+		return names;
+	}
+
+	/**
+	 * @param index the property index
+	 * @return the property name at the given index
+	 */
+	String name(int index) {
+		return names[index];
+	}
+
+	/**
+	 * @param index the property index
+	 * @return the property name at the given index as encoded by {@link Utf8Output#encodeName(String)}
+	 */
+	byte[] encodedName(int index) {
+		byte[][] encoded = encodedNames;
+		if (encoded == null) {
+			encoded = new byte[names.length][];
+			for (int i = 0; i < names.length; i++) {
+				encoded[i] = Utf8Output.encodeName(names[i]);
+			}
+			encodedNames = encoded;
+		}
+		return encoded[index];
+	}
+
+	/**
+	 * Returns the exclusion plan of this class under a node excluding nothing, built on the first call.
+	 * It only depends on the properties, so it is kept here rather than in the plan cache.
+	 *
+	 * @return the exclusion plan keeping every property
+	 */
+	ExcludePlan excludingNothing() {
+		ExcludePlan plan = excludingNothing;
+		if (plan == null) {
+			plan = new ExcludePlan(this, PathTrie.EMPTY);
+			excludingNothing = plan;
+		}
+		return plan;
+	}
+
+	/**
+	 * @param index the property index
+	 * @return the accessor of the property at the given index, or null if it cannot be read
+	 */
+	Accessor accessor(int index) {
+		return accessors[index];
+	}
+
+	/**
+	 * Reads the property at the given index.
+	 *
+	 * @param index the property index
+	 * @param source the source object
+	 * @return the property value, or null if it cannot be read
+	 */
+	Object read(int index, Object source) {
+		Accessor accessor = accessors[index];
+		if (accessor == null) {
+			return null;
+		}
+
+		try {
+			return accessor.get(source);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+}
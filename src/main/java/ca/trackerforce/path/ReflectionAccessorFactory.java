@@ -0,0 +1,21 @@
+package ca.trackerforce.path;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Creates accessors backed by plain reflection.
+ */
+class ReflectionAccessorFactory implements AccessorFactory {
+
+	@Override
+	public Accessor ofMethod(Method method) {
+		return method::invoke;
+	}
+
+	@Override
+	public Accessor ofField(Field field) {
+		field.setAccessible(true);
+		return field::get;
+	}
+}
@@ -0,0 +1,169 @@
+package ca.trackerforce.path;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Ordered keys shared by the result maps built for the same query node or execution plan,
+ * so each result only holds its values, see {@link CompactResultMap}.
+ * Keys are looked up by a linear scan when few, through an open-addressing table built on first lookup otherwise.
+ * Shapes of the results leaving some keys out are kept for the first few combinations of present keys,
+ * up to 64 keys, and derived on each use for any further combination.
+ * Instances are immutable from the outside and safe to share across threads.
+ */
+final class ResultShape {
+
+	static final ResultShape EMPTY = new ResultShape(new String[0]);
+
+	/**
+	 * Shapes with up to this many keys are scanned instead of hashed.
+	 */
+	private static final int LINEAR_SCAN_LIMIT = 8;
+
+	/**
+	 * Maximum number of subset shapes kept per shape.
+	 */
+	private static final int SUBSET_CACHE_SIZE = 8;
+
+	private static final Subset[] NO_SUBSETS = new Subset[0];
+
+	private final String[] keys;
+
+	/**
+	 * Index plus one of the key in each slot, zero for an empty slot, created on first lookup.
+	 */
+	private volatile int[] table;
+
+	/**
+	 * Shapes derived for the results leaving out some keys, replaced by a larger copy when one is added.
+	 */
+	private volatile Subset[] subsets = NO_SUBSETS;
+
+	/**
+	 * @param keys the keys, in iteration order, which must not be modified afterward
+	 */
+	ResultShape(String[] keys) {
+		this.keys = keys;
+	}
+
+	/**
+	 * @return the number of keys
+	 */
+	int size() {
+		return keys.length;
+	}
+
+	/**
+	 * @param index the key index
+	 * @return the key at the given index
+	 */
+	String key(int index) {
+		return keys[index];
+	}
+
+	/**
+	 * Finds the index of the given key.
+	 *
+	 * @param key the key
+	 * @return the index of the key, or -1 if the shape has no such key
+	 */
+	int indexOf(Object key) {
+		if (!(key instanceof String)) {
+			return -1;
+		}
+
+		if (keys.length <= LINEAR_SCAN_LIMIT) {
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i].equals(key)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		int[] slots = table();
+		int mask = slots.length - 1;
+		for (int slot = spread(key.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			if (keys[slots[slot] - 1].equals(key)) {
+				return slots[slot] - 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the shape keeping the keys whose bit is set in the given mask.
+	 * The shapes of the first {@value #SUBSET_CACHE_SIZE} masks are kept, so results mostly missing the same
+	 * keys share their shape while results with ever-changing masks do not grow this shape.
+	 *
+	 * @param present the bit mask of the present keys, this shape having at most 64 keys
+	 * @return the shape of the present keys
+	 */
+	ResultShape subset(long present) {
+		if (present == -1L >>> (Long.SIZE - keys.length)) {
+			return this;
+		}
+
+		Subset[] cached = subsets;
+		for (Subset subset : cached) {
+			if (subset.present() == present) {
+				return subset.shape();
+			}
+		}
+
+		String[] kept = new String[Long.bitCount(present)];
+		int count = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if ((present & (1L << i)) != 0) {
+				kept[count++] = keys[i];
+			}
+		}
+
+		ResultShape shape = new ResultShape(kept);
+		if (cached.length < SUBSET_CACHE_SIZE) {
+			// A copy racing with another one may drop its entry, the shape is then derived again later
+			Subset[] grown = Arrays.copyOf(cached, cached.length + 1);
+			grown[cached.length] = new Subset(present, shape);
+			subsets = grown;
+		}
+		return shape;
+	}
+
+	/**
+	 * Returns a new shape keeping the keys whose bit is set, for shapes too large to cache their subsets.
+	 *
+	 * @param present the present keys
+	 * @return the shape of the present keys
+	 */
+	ResultShape subset(BitSet present) {
+		String[] kept = new String[present.cardinality()];
+		int count = 0;
+		for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+			kept[count++] = keys[i];
+		}
+		return new ResultShape(kept);
+	}
+
+	private int[] table() {
+		int[] slots = table;
+		if (slots == null) {
+			slots = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+			int mask = slots.length - 1;
+			for (int i = 0; i < keys.length; i++) {
+				int slot = spread(keys[i].hashCode()) & mask;
+				while (slots[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				slots[slot] = i + 1;
+			}
+			table = slots;
+		}
+		return slots;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private record Subset(long present, ResultShape shape) { }
+}
@@ -0,0 +1,467 @@
+package ca.trackerforce.path;
+
+import ca.trackerforce.path.api.BinaryFormat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Writes the JSON tokens as UTF-8 bytes into a byte array, encoding and escaping the strings in a single pass.
+ * The array is either grown to hold the whole document or drained into a {@link ByteSink} whenever it is full.
+ * Instances are pooled with their buffer, see {@link #acquire(ByteSink)}, and are not thread-safe.
+ * Entry names are copied from their pre-encoded bytes, taken from the execution plans or from a small cache
+ * of the last names written by the instance.
+ * The binary encoders write their heads and raw UTF-8 strings through the same buffer, see {@link BinaryEncoder}.
+ * <p>
+ * A pooled output keeps a buffer of at most 32 KiB, and its two caches only hold the names and keys encoded
+ * in at most 64 bytes, up to 32 KiB more. The pool holds twice the number of processors, capped at 64 outputs,
+ * so it retains at most about 4 MiB.
+ */
+final class Utf8Output implements JsonOutput {
+
+	private static final int INITIAL_SIZE = 8192;
+
+	/**
+	 * Buffers grown beyond this size are replaced by a new one of the initial size when given back to the pool.
+	 */
+	private static final int MAX_RETAINED_SIZE = 4 * INITIAL_SIZE;
+
+	/**
+	 * Names and keys whose encoding is longer than this are written without being cached.
+	 */
+	private static final int MAX_CACHED_NAME_SIZE = 64;
+
+	/**
+	 * Largest number of bytes a single char can be written as, a control character escaped with its six-character form.
+	 */
+	private static final int MAX_BYTES_PER_CHAR = 6;
+
+	/**
+	 * Number of chars encoded between two buffer capacity checks.
+	 */
+	private static final int CHUNK_SIZE = 1024;
+
+	private static final int NAME_CACHE_SIZE = 256;
+
+	private static final int POOL_SIZE = Math.min(64, Runtime.getRuntime().availableProcessors() * 2);
+
+	private static final AtomicReferenceArray<Utf8Output> POOL = new AtomicReferenceArray<>(POOL_SIZE);
+
+	private final String[] cachedNames = new String[NAME_CACHE_SIZE];
+
+	private final byte[][] cachedEncodings = new byte[NAME_CACHE_SIZE][];
+
+	private final String[] cachedKeys = new String[NAME_CACHE_SIZE];
+
+	private final byte[][] cachedKeyEncodings = new byte[NAME_CACHE_SIZE][];
+
+	/**
+	 * Format of the cached map keys, the cache being cleared when another format is written.
+	 */
+	private BinaryFormat keyFormat;
+
+	private byte[] buffer = new byte[INITIAL_SIZE];
+
+	private int position;
+
+	private ByteSink sink;
+
+	private Utf8Output() { }
+
+	/**
+	 * Takes an output from the pool, or creates one if the pool is empty.
+	 * It must be given back with {@link #release()} once the document is written.
+	 *
+	 * @param sink where the buffer is drained when full, or null to grow the buffer instead
+	 * @return the output
+	 */
+	static Utf8Output acquire(ByteSink sink) {
+		int start = (Thread.currentThread().hashCode() & Integer.MAX_VALUE) % POOL_SIZE;
+		for (int i = 0; i < POOL_SIZE; i++) {
+			Utf8Output pooled = POOL.getAndSet((start + i) % POOL_SIZE, null);
+			if (pooled != null) {
+				pooled.sink = sink;
+				return pooled;
+			}
+		}
+
+		Utf8Output output = new Utf8Output();
+		output.sink = sink;
+		return output;
+	}
+
+	/**
+	 * Resets this output and gives it back to the pool, unless the pool is full.
+	 */
+	void release() {
+		sink = null;
+		position = 0;
+		if (buffer.length > MAX_RETAINED_SIZE) {
+			buffer = new byte[INITIAL_SIZE];
+		}
+
+		int start = (Thread.currentThread().hashCode() & Integer.MAX_VALUE) % POOL_SIZE;
+		for (int i = 0; i < POOL_SIZE; i++) {
+			if (POOL.compareAndSet((start + i) % POOL_SIZE, null, this)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Encodes an entry name the way it is written, quoted, escaped and followed by the name separator.
+	 *
+	 * @param name the entry name
+	 * @return the UTF-8 bytes
+	 */
+	static byte[] encodeName(String name) {
+		StringBuilder sb = new StringBuilder(name.length() + 4);
+		try {
+			new AppendableOutput(sb).name(name, null);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Drains the bytes written so far into the sink.
+	 *
+	 * @throws IOException if the sink fails to be written
+	 */
+	void flush() throws IOException {
+		if (sink != null && position > 0) {
+			sink.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	/**
+	 * @return a copy of the bytes written so far
+	 */
+	byte[] toByteArray() {
+		return Arrays.copyOf(buffer, position);
+	}
+
+	@Override
+	public void append(char c) throws IOException {
+		ensureCapacity(1);
+		buffer[position++] = (byte) c;
+	}
+
+	@Override
+	public void append(String text) throws IOException {
+		int length = text.length();
+		ensureCapacity(length);
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c >= 0x80) {
+				// Not ASCII, such as the text of a custom Number, encoded the slow way
+				byte[] bytes = text.substring(i).getBytes(StandardCharsets.UTF_8);
+				ensureCapacity(bytes.length);
+				System.arraycopy(bytes, 0, buffer, position, bytes.length);
+				position += bytes.length;
+				return;
+			}
+			buffer[position++] = (byte) c;
+		}
+	}
+
+	@Override
+	public void number(long value) throws IOException {
+		ensureCapacity(JsonNumbers.MAX_LENGTH);
+		position = JsonNumbers.writeLong(value, buffer, position);
+	}
+
+	@Override
+	public void number(double value) throws IOException {
+		ensureCapacity(JsonNumbers.MAX_LENGTH);
+		int end = JsonNumbers.writeDouble(value, buffer, position);
+		if (end < 0) {
+			append(Double.toString(value));
+		} else {
+			position = end;
+		}
+	}
+
+	@Override
+	public void number(float value) throws IOException {
+		ensureCapacity(JsonNumbers.MAX_LENGTH);
+		int end = JsonNumbers.writeFloat(value, buffer, position);
+		if (end < 0) {
+			append(Float.toString(value));
+		} else {
+			position = end;
+		}
+	}
+
+	@Override
+	public void string(String value) throws IOException {
+		append('"');
+
+		int length = value.length();
+		for (int start = 0; start < length; ) {
+			int end = Math.min(length, start + CHUNK_SIZE);
+			if (end < length && Character.isHighSurrogate(value.charAt(end - 1))) {
+				end++;
+			}
+
+			ensureCapacity((end - start) * MAX_BYTES_PER_CHAR);
+			encode(value, start, end, true);
+			start = end;
+		}
+
+		append('"');
+	}
+
+	/**
+	 * Writes a single byte.
+	 *
+	 * @param b the byte, only its low-order 8 bits being written
+	 * @throws IOException if the sink fails to be written
+	 */
+	void writeByte(int b) throws IOException {
+		ensureCapacity(1);
+		buffer[position++] = (byte) b;
+	}
+
+	/**
+	 * Writes a byte followed by the given number of low-order bytes of a value, most significant first,
+	 * the layout of the heads of both CBOR and MessagePack.
+	 *
+	 * @param head the first byte
+	 * @param value the value following it
+	 * @param length the number of bytes of the value to write, from 0 to 8
+	 * @throws IOException if the sink fails to be written
+	 */
+	void writeHead(int head, long value, int length) throws IOException {
+		ensureCapacity(1 + length);
+		byte[] bytes = buffer;
+		int pos = position;
+		bytes[pos++] = (byte) head;
+		for (int shift = (length - 1) * Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+			bytes[pos++] = (byte) (value >>> shift);
+		}
+		position = pos;
+	}
+
+	/**
+	 * Writes the given bytes as they are. Arrays larger than half the buffer go straight to the sink,
+	 * after the bytes written before them.
+	 *
+	 * @param bytes the bytes to write
+	 * @throws IOException if the sink fails to be written
+	 */
+	void writeBytes(byte[] bytes) throws IOException {
+		if (sink != null && bytes.length > buffer.length / 2) {
+			flush();
+			sink.write(bytes, 0, bytes.length);
+			return;
+		}
+
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, buffer, position, bytes.length);
+		position += bytes.length;
+	}
+
+	/**
+	 * Writes the UTF-8 bytes of the given string, without quotes nor escapes.
+	 * The number of bytes written is the one returned by {@link #utf8Length(String)}.
+	 *
+	 * @param value the string to write
+	 * @throws IOException if the sink fails to be written
+	 */
+	void writeUtf8(String value) throws IOException {
+		int length = value.length();
+		for (int start = 0; start < length; ) {
+			int end = Math.min(length, start + CHUNK_SIZE);
+			if (end < length && Character.isHighSurrogate(value.charAt(end - 1))) {
+				end++;
+			}
+
+			ensureCapacity((end - start) * MAX_BYTES_PER_CHAR);
+			encode(value, start, end, false);
+			start = end;
+		}
+	}
+
+	/**
+	 * Makes room for the given number of bytes, so the next writes up to that size are not drained
+	 * into the sink and can be read back by {@link #cacheKey(String, BinaryFormat, int)}.
+	 *
+	 * @param size the number of bytes
+	 * @return the position of the next byte written
+	 * @throws IOException if the sink fails to be written
+	 */
+	int reserve(int size) throws IOException {
+		ensureCapacity(size);
+		return position;
+	}
+
+	/**
+	 * Returns the encoding of a map key, head included, cached by a previous document or entry.
+	 *
+	 * @param key the map key
+	 * @param format the format of the document being written
+	 * @return the encoded key, or null if not cached
+	 */
+	byte[] cachedKey(String key, BinaryFormat format) {
+		if (format != keyFormat) {
+			Arrays.fill(cachedKeys, null);
+			keyFormat = format;
+			return null;
+		}
+
+		int slot = key.hashCode() & (NAME_CACHE_SIZE - 1);
+		String cached = cachedKeys[slot];
+		return cached == key || key.equals(cached) ? cachedKeyEncodings[slot] : null;
+	}
+
+	/**
+	 * Caches the encoding of a map key, written from the given position, see {@link #reserve(int)}.
+	 * Keys longer than {@link #MAX_CACHED_NAME_SIZE} bytes once encoded are not cached.
+	 *
+	 * @param key the map key
+	 * @param format the format of the document being written
+	 * @param start the position of the first byte of the key
+	 */
+	void cacheKey(String key, BinaryFormat format, int start) {
+		if (position - start > MAX_CACHED_NAME_SIZE) {
+			return;
+		}
+
+		int slot = key.hashCode() & (NAME_CACHE_SIZE - 1);
+		cachedKeyEncodings[slot] = Arrays.copyOfRange(buffer, start, position);
+		cachedKeys[slot] = key;
+		keyFormat = format;
+	}
+
+	/**
+	 * Counts the UTF-8 bytes of the given string, as written by {@link #writeUtf8(String)},
+	 * for the formats writing the length ahead of the string.
+	 *
+	 * @param value the string
+	 * @return the number of bytes
+	 */
+	static int utf8Length(String value) {
+		int length = value.length();
+		int count = length;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				continue;
+			}
+
+			if (c < 0x800) {
+				count++;
+			} else if (!Character.isSurrogate(c)) {
+				count += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				// Four bytes for the two chars
+				count += 2;
+				i++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public void name(String name, byte[] encoded) throws IOException {
+		byte[] bytes = encoded != null ? encoded : cachedName(name);
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, buffer, position, bytes.length);
+		position += bytes.length;
+	}
+
+	/**
+	 * Returns the encoding of a name written by a previous document or entry, the names of result maps
+	 * being mostly the same instances taken from the queries.
+	 */
+	private byte[] cachedName(String name) {
+		int slot = name.hashCode() & (NAME_CACHE_SIZE - 1);
+		String cached = cachedNames[slot];
+		if (cached == name || name.equals(cached)) {
+			return cachedEncodings[slot];
+		}
+
+		byte[] encoded = encodeName(name);
+		if (encoded.length <= MAX_CACHED_NAME_SIZE) {
+			cachedEncodings[slot] = encoded;
+			cachedNames[slot] = name;
+		}
+		return encoded;
+	}
+
+	/**
+	 * Encodes the given range of chars, escaped for JSON or not, the buffer having room for the worst case.
+	 * Unpaired surrogates are written as '?', like the UTF-8 encoder of the JDK does.
+	 */
+	private void encode(String value, int start, int end, boolean escaped) {
+		byte[] bytes = buffer;
+		int pos = position;
+
+		for (int i = start; i < end; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				String escape = escaped ? JsonEscaper.escapeOf(c) : null;
+				if (escape == null) {
+					bytes[pos++] = (byte) c;
+				} else {
+					for (int j = 0; j < escape.length(); j++) {
+						bytes[pos++] = (byte) escape.charAt(j);
+					}
+				}
+			} else if (c < 0x800) {
+				bytes[pos++] = (byte) (0xC0 | (c >> 6));
+				bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+			} else if (!Character.isSurrogate(c)) {
+				bytes[pos++] = (byte) (0xE0 | (c >> 12));
+				bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				bytes[pos++] = (byte) (0xF0 | (codePoint >> 18));
+				bytes[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				bytes[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				bytes[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+			} else {
+				bytes[pos++] = '?';
+			}
+		}
+
+		position = pos;
+	}
+
+	/**
+	 * Makes room for the given number of bytes, draining the buffer into the sink or growing it.
+	 */
+	private void ensureCapacity(int required) throws IOException {
+		if (position + required <= buffer.length) {
+			return;
+		}
+
+		flush();
+		if (position + required > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + required));
+		}
+	}
+
+	/**
+	 * Destination of the bytes drained from the buffer.
+	 */
+	@FunctionalInterface
+	interface ByteSink {
+
+		/**
+		 * Writes the given range of bytes.
+		 *
+		 * @param bytes the bytes
+		 * @param offset the start of the range
+		 * @param length the length of the range
+		 * @throws IOException if the bytes fail to be written
+		 */
+		void write(byte[] bytes, int offset, int length) throws IOException;
+	}
+}
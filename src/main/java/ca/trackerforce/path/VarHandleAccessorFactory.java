@@ -0,0 +1,24 @@
+package ca.trackerforce.path;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+
+/**
+ * Creates accessors like {@link MethodHandleAccessorFactory}, reading fields through cached {@link VarHandle}s.
+ * Fields are looked up with {@link MethodHandles#privateLookupIn(Class, MethodHandles.Lookup)} when the
+ * declaring module opens them to this library, so they do not need to be made accessible.
+ */
+class VarHandleAccessorFactory extends MethodHandleAccessorFactory {
+
+	@Override
+	public Accessor ofField(Field field) {
+		try {
+			VarHandle handle = MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP)
+					.unreflectVarHandle(field);
+			return new HandleAccessor(handle.toMethodHandle(VarHandle.AccessMode.GET));
+		} catch (IllegalAccessException e) {
+			return super.ofField(field);
+		}
+	}
+}
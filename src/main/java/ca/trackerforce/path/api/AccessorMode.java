@@ -0,0 +1,34 @@
+package ca.trackerforce.path.api;
+
+/**
+ * Defines how resolved properties are read from the source objects.
+ */
+public enum AccessorMode {
+
+	/**
+	 * Reads properties with {@link java.lang.reflect.Method#invoke(Object, Object...)} and
+	 * {@link java.lang.reflect.Field#get(Object)}.
+	 */
+	REFLECTION,
+
+	/**
+	 * Reads properties with functions compiled through {@link java.lang.invoke.LambdaMetafactory},
+	 * or with {@link java.lang.invoke.MethodHandle} when a function cannot be generated.
+	 * Both can be inlined by the JIT, getting close to hand-written getter calls.
+	 */
+	METHOD_HANDLE,
+
+	/**
+	 * Reads getters like {@link #METHOD_HANDLE}, and fields with {@link java.lang.invoke.VarHandle}
+	 * obtained from a private lookup instead of making them accessible.
+	 * Primitive members are read through typed handles.
+	 */
+	VAR_HANDLE,
+
+	/**
+	 * Reads the properties of types annotated with {@link DotPathQLType} through the {@link PropertyAccessor}
+	 * table generated at build time by the annotation processor.
+	 * Other types, and the names a table does not list, are read like {@link #REFLECTION}.
+	 */
+	GENERATED
+}
@@ -0,0 +1,19 @@
+package ca.trackerforce.path.api;
+
+/**
+ * Defines the binary formats results can be encoded to, see {@link DotEncoder}.
+ */
+public enum BinaryFormat {
+
+	/**
+	 * Concise Binary Object Representation, as defined by RFC 8949.
+	 * Big integers and decimals keep their exact value through the bignum and decimal fraction tags.
+	 */
+	CBOR,
+
+	/**
+	 * MessagePack, as defined by its specification at msgpack.org.
+	 * Numbers having no MessagePack type, such as decimals, are written as strings.
+	 */
+	MESSAGE_PACK
+}
@@ -0,0 +1,34 @@
+package ca.trackerforce.path.api;
+
+/**
+ * Statistics of a bounded cache.
+ *
+ * @param hitCount the number of lookups answered from the cache
+ * @param missCount the number of lookups that had to build the cached value
+ * @param evictionCount the number of entries evicted to stay within the maximum size
+ * @param size the current number of entries
+ * @param maximumSize the maximum number of entries
+ */
+public record CacheStats(long hitCount, long missCount, long evictionCount, long size, long maximumSize) {
+
+	/**
+	 * Returns the ratio of lookups answered from the cache.
+	 *
+	 * @return the hit rate between 0 and 1, or 1 if there was no lookup
+	 */
+	public double hitRate() {
+		long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+	}
+
+	/**
+	 * Sums these statistics with the given ones, used to aggregate several caches.
+	 *
+	 * @param other the statistics to add
+	 * @return the aggregated statistics
+	 */
+	public CacheStats plus(CacheStats other) {
+		return new CacheStats(hitCount + other.hitCount, missCount + other.missCount,
+				evictionCount + other.evictionCount, size + other.size, maximumSize + other.maximumSize);
+	}
+}
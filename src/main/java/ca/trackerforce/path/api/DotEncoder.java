@@ -0,0 +1,48 @@
+package ca.trackerforce.path.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Defines common APIs for encoding objects to a binary format, the compact counterpart of {@link DotPrinter}.
+ * Maps, collections and arrays are encoded recursively, with their size ahead of their entries,
+ * numbers, booleans and byte arrays with their own types, and anything else as a string.
+ * Encoders hold no state and are safe to share across threads.
+ */
+public interface DotEncoder {
+
+	/**
+	 * @return the format written by this encoder
+	 */
+	BinaryFormat getFormat();
+
+	/**
+	 * Encodes the given object.
+	 *
+	 * @param obj the object to encode
+	 * @return the encoded bytes
+	 */
+	byte[] encode(Object obj);
+
+	/**
+	 * Writes the encoding of the given object into the given stream, as it is produced.
+	 * The stream is flushed but not closed.
+	 *
+	 * @param obj the object to encode
+	 * @param out the stream to write to
+	 * @throws IOException if the stream fails to be written
+	 */
+	void encode(Object obj, OutputStream out) throws IOException;
+
+	/**
+	 * Writes the encoding of the given object into the given buffer, heap or direct,
+	 * starting at its position and advancing it.
+	 *
+	 * @param obj the object to encode
+	 * @param out the buffer to write to
+	 * @throws java.nio.BufferOverflowException if the buffer has not enough room left, part of the encoding
+	 * may have been written already
+	 */
+	void encode(Object obj, ByteBuffer out);
+}
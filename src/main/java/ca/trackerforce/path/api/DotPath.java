@@ -1,5 +1,7 @@
 package ca.trackerforce.path.api;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +20,78 @@ public interface DotPath {
 	 */
 	<T> Map<String, Object> run(T source, List<String> paths);
 
+	/**
+	 * Parses the given paths once, merged with the default paths, so they can be run against many source objects.
+	 * Default paths added afterward are not part of the returned query.
+	 *
+	 * @param paths the list of paths to compile
+	 * @return the compiled query
+	 */
+	DotQuery compile(List<String> paths);
+
+	/**
+	 * Parses a comma-separated query string, such as "username,address[street,city]", straight into a compiled query
+	 * merged with the default paths, without expanding the grouped paths into intermediate strings.
+	 * Default paths added afterward are not part of the returned query.
+	 *
+	 * @param query the comma-separated paths to compile
+	 * @return the compiled query
+	 */
+	DotQuery compile(String query);
+
+	/**
+	 * Runs the path processing logic for the given source object with a compiled query.
+	 *
+	 * @param <T>    the type of the source object
+	 * @param source the source object to process
+	 * @param query  the query compiled by this instance
+	 * @return a map containing the processed properties
+	 * @throws IllegalArgumentException if the query was compiled by another instance
+	 */
+	<T> Map<String, Object> run(T source, DotQuery query);
+
+	/**
+	 * Runs the path processing logic for the given source object lazily, returning a read-only view of the result.
+	 * Each property is read from the source on first access through {@link Map#get(Object)} or iteration,
+	 * then memoized, and nested objects and collections are returned as lazy views as well.
+	 * Once resolved, the view holds the same entries as the result of {@link #run(Object, List)}.
+	 *
+	 * @param <T>    the type of the source object
+	 * @param source the source object to process
+	 * @param paths  the list of paths to process
+	 * @return a read-only view of the processed properties
+	 */
+	<T> Map<String, Object> runView(T source, List<String> paths);
+
+	/**
+	 * Runs the path processing logic for the given source object and writes the result as JSON into the given output,
+	 * walking the source once without building the result map. The output is the same as printing the result of
+	 * {@link #run(Object, List)} with a {@link DotPrinter}.
+	 *
+	 * @param <T>        the type of the source object
+	 * @param source     the source object to process
+	 * @param paths      the list of paths to process
+	 * @param options    the JSON output options
+	 * @param out        the output to write to
+	 * @throws IOException if the output fails to be written
+	 */
+	<T> void runToJson(T source, List<String> paths, PrinterOptions options, Appendable out) throws IOException;
+
+	/**
+	 * Runs the path processing logic for the given source object and writes the result as UTF-8 encoded JSON
+	 * into the given stream, like {@link #runToJson(Object, List, PrinterOptions, Appendable)} does.
+	 * The bytes are encoded straight into a pooled buffer, copying the property names from their encoding
+	 * cached per class. The stream is flushed but not closed.
+	 *
+	 * @param <T>     the type of the source object
+	 * @param source  the source object to process
+	 * @param paths   the list of paths to process
+	 * @param options the JSON output options
+	 * @param out     the stream to write to
+	 * @throws IOException if the stream fails to be written
+	 */
+	<T> void runToJson(T source, List<String> paths, PrinterOptions options, OutputStream out) throws IOException;
+
 	/**
 	 * Adds default paths to the list of paths that can be used
 	 * when processing objects.
@@ -32,4 +106,80 @@ public interface DotPath {
 	 * @return true if there are default paths, false otherwise
 	 */
 	boolean hasDefaultPaths();
+
+	/**
+	 * Sets how properties are read from the source objects.
+	 *
+	 * @param accessorMode the accessor mode to use
+	 */
+	void setAccessorMode(AccessorMode accessorMode);
+
+	/**
+	 * Returns the number of missing members resolved without a NoSuchMethodException or NoSuchFieldException,
+	 * counted once per execution plan when it is built rather than on every property read.
+	 *
+	 * @return the number of avoided exceptions
+	 */
+	long getAvoidedExceptions();
+
+	/**
+	 * Registers an accessor used to read the properties of its type, and of its subtypes,
+	 * instead of the built-in property resolution. A later registration for the same type replaces the former.
+	 *
+	 * @param accessor the accessor to register
+	 */
+	void registerAccessor(PropertyAccessor<?> accessor);
+
+	/**
+	 * Sets whether {@link #run(Object, List)} and {@link #run(Object, DotQuery)} return compact results.
+	 * Compact result maps hold an array of values, their ordered keys being shared by all the objects selected
+	 * by the same query node, such as the elements of a collection, instead of a {@code LinkedHashMap} each.
+	 * They hold the same entries in the same order, but the maps and lists of the result are read-only.
+	 * Disabled by default.
+	 *
+	 * @param compactResults true to return compact read-only results
+	 */
+	void setCompactResults(boolean compactResults);
+
+	/**
+	 * Sets whether the results of an exclusion reuse the maps and lists of the source under which nothing
+	 * is excluded nor obfuscated, instead of copying them. Only the maps and lists leading to an excluded path
+	 * are copied, so the result shares the others with the source, and they must not be modified through it.
+	 * Lists are reused when all of their elements are simple values or reused maps. Has no effect on filters,
+	 * which already return the values they select as a whole. Disabled by default.
+	 *
+	 * @param structuralSharing true to reuse the source maps and lists left untouched
+	 */
+	void setStructuralSharing(boolean structuralSharing);
+
+	/**
+	 * Sets the maximum number of compiled queries kept, evicting the least recently used ones when exceeded.
+	 * Queries, including the expansion of their grouped paths, are compiled once per raw path list.
+	 * Zero disables the cache.
+	 *
+	 * @param maximumSize the maximum number of queries
+	 */
+	void setQueryCacheSize(int maximumSize);
+
+	/**
+	 * Returns the statistics of the compiled query cache.
+	 *
+	 * @return the query cache statistics
+	 */
+	CacheStats getQueryCacheStats();
+
+	/**
+	 * Sets the maximum number of execution plans kept, evicting the least recently used ones when exceeded.
+	 * Plans are specialized per source class and query, zero disables the cache.
+	 *
+	 * @param maximumSize the maximum number of plans
+	 */
+	void setPlanCacheSize(int maximumSize);
+
+	/**
+	 * Returns the statistics of the execution plan cache.
+	 *
+	 * @return the plan cache statistics
+	 */
+	CacheStats getPlanCacheStats();
 }
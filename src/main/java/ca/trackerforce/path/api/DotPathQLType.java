@@ -0,0 +1,20 @@
+package ca.trackerforce.path.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record or class to have its {@link PropertyAccessor} generated at build time.
+ * The generated accessor is used instead of reflection to read and list the type properties.
+ * <p>
+ * Records expose their components. Classes expose the fields that have an accessible getter,
+ * like {@code getName()}, {@code isName()} or {@code name()}.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface DotPathQLType {
+}
@@ -1,7 +1,13 @@
 package ca.trackerforce.path.api;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
 /**
  * Defines common APIs for printing objects to JSON format.
+ * The methods taking {@link PrinterOptions} do not depend on any printer state, so they are safe to call
+ * concurrently with different options on a shared printer.
  */
 public interface DotPrinter {
 
@@ -15,7 +21,80 @@ public interface DotPrinter {
 	String toJson(Object obj, boolean prettier);
 
 	/**
-	 * Sets the number of spaces to use for indentation in the JSON output.
+	 * Converts the given object to its JSON representation, formatted with the given options.
+	 *
+	 * @param obj the object to convert to JSON
+	 * @param options the JSON output options
+	 * @return a JSON string representation of the object
+	 */
+	String toJson(Object obj, PrinterOptions options);
+
+	/**
+	 * Writes the JSON representation of the given object into the given output, as it is produced.
+	 *
+	 * @param obj the object to convert to JSON
+	 * @param prettier if true, the JSON output will be formatted with indentation and line breaks
+	 * @param out the output to write to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+	 * @throws IOException if the output fails to be written
+	 */
+	void toJson(Object obj, boolean prettier, Appendable out) throws IOException;
+
+	/**
+	 * Writes the JSON representation of the given object, formatted with the given options, into the given output.
+	 *
+	 * @param obj the object to convert to JSON
+	 * @param options the JSON output options
+	 * @param out the output to write to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+	 * @throws IOException if the output fails to be written
+	 */
+	void toJson(Object obj, PrinterOptions options, Appendable out) throws IOException;
+
+	/**
+	 * Writes the UTF-8 encoded JSON representation of the given object into the given stream, as it is produced.
+	 * The stream is flushed but not closed.
+	 *
+	 * @param obj the object to convert to JSON
+	 * @param prettier if true, the JSON output will be formatted with indentation and line breaks
+	 * @param out the stream to write to
+	 * @throws IOException if the stream fails to be written
+	 */
+	void toJson(Object obj, boolean prettier, OutputStream out) throws IOException;
+
+	/**
+	 * Writes the UTF-8 encoded JSON representation of the given object, formatted with the given options,
+	 * into the given stream. The stream is flushed but not closed.
+	 *
+	 * @param obj the object to convert to JSON
+	 * @param options the JSON output options
+	 * @param out the stream to write to
+	 * @throws IOException if the stream fails to be written
+	 */
+	void toJson(Object obj, PrinterOptions options, OutputStream out) throws IOException;
+
+	/**
+	 * Writes the UTF-8 encoded JSON representation of the given object, formatted with the given options,
+	 * into the given buffer, heap or direct, starting at its position and advancing it.
+	 *
+	 * @param obj the object to convert to JSON
+	 * @param options the JSON output options
+	 * @param out the buffer to write to
+	 * @throws java.nio.BufferOverflowException if the buffer has not enough room left, part of the JSON
+	 * may have been written already
+	 */
+	void toJson(Object obj, PrinterOptions options, ByteBuffer out);
+
+	/**
+	 * Converts the given object to its UTF-8 encoded JSON representation, without building it as a string first.
+	 *
+	 * @param obj the object to convert to JSON
+	 * @param options the JSON output options
+	 * @return the UTF-8 bytes of the JSON representation
+	 */
+	byte[] toJsonBytes(Object obj, PrinterOptions options);
+
+	/**
+	 * Sets the number of spaces to use for indentation in the JSON output of the methods taking a prettier flag.
+	 * It affects every caller of this printer, pass {@link PrinterOptions} instead to format a single call.
 	 *
 	 * @param indentSize the number of spaces for indentation
 	 */
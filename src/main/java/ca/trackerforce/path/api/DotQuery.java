@@ -0,0 +1,17 @@
+package ca.trackerforce.path.api;
+
+import java.util.List;
+
+/**
+ * Paths parsed and merged once by a {@link DotPath}, ready to be run against any number of source objects.
+ * A query can only be run by the {@link DotPath} that compiled it.
+ */
+public interface DotQuery {
+
+	/**
+	 * Returns the individual paths of this query, with the default paths first and grouped paths expanded.
+	 *
+	 * @return the expanded paths
+	 */
+	List<String> getPaths();
+}
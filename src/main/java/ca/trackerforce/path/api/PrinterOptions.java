@@ -0,0 +1,101 @@
+package ca.trackerforce.path.api;
+
+/**
+ * Immutable JSON output options, safe to share across threads and calls.
+ * The indentation of the first nesting levels is computed once, so printing does not build it per line.
+ */
+public final class PrinterOptions {
+
+	/**
+	 * Default number of spaces per indentation level.
+	 */
+	public static final int DEFAULT_INDENT_SIZE = 2;
+
+	private static final int PRECOMPUTED_LEVELS = 16;
+
+	private static final PrinterOptions COMPACT = new PrinterOptions(false, 0);
+
+	private static final PrinterOptions PRETTY = new PrinterOptions(true, DEFAULT_INDENT_SIZE);
+
+	private final boolean prettier;
+
+	private final int indentSize;
+
+	private final String[] indents;
+
+	private PrinterOptions(boolean prettier, int indentSize) {
+		if (indentSize < 0) {
+			throw new IllegalArgumentException("The indent size cannot be negative: " + indentSize);
+		}
+
+		this.prettier = prettier;
+		this.indentSize = indentSize;
+		this.indents = new String[prettier ? PRECOMPUTED_LEVELS : 0];
+		for (int level = 0; level < indents.length; level++) {
+			indents[level] = " ".repeat(level * indentSize);
+		}
+	}
+
+	/**
+	 * Returns the options of the compact single-line format.
+	 *
+	 * @return the compact options
+	 */
+	public static PrinterOptions compact() {
+		return COMPACT;
+	}
+
+	/**
+	 * Returns the options of the indented format, with {@value #DEFAULT_INDENT_SIZE} spaces per level.
+	 *
+	 * @return the pretty options
+	 */
+	public static PrinterOptions pretty() {
+		return PRETTY;
+	}
+
+	/**
+	 * Returns the options of the indented format with the given number of spaces per level.
+	 *
+	 * @param indentSize the number of spaces for indentation
+	 * @return the pretty options
+	 * @throws IllegalArgumentException if the indent size is negative
+	 */
+	public static PrinterOptions pretty(int indentSize) {
+		return indentSize == DEFAULT_INDENT_SIZE ? PRETTY : new PrinterOptions(true, indentSize);
+	}
+
+	/**
+	 * Returns the compact options, or the pretty ones with {@value #DEFAULT_INDENT_SIZE} spaces per level.
+	 *
+	 * @param prettier if true, the JSON output will be formatted with indentation and line breaks
+	 * @return the options
+	 */
+	public static PrinterOptions of(boolean prettier) {
+		return prettier ? PRETTY : COMPACT;
+	}
+
+	/**
+	 * @return true if the JSON output is formatted with indentation and line breaks
+	 */
+	public boolean isPrettier() {
+		return prettier;
+	}
+
+	/**
+	 * @return the number of spaces per indentation level
+	 */
+	public int getIndentSize() {
+		return indentSize;
+	}
+
+	/**
+	 * Returns the indentation of the given nesting level.
+	 *
+	 * @param level the nesting level, 0 being the top level
+	 * @return the spaces to write at the start of a line of that level
+	 */
+	public String indent(int level) {
+		return level < indents.length ? indents[level] : " ".repeat(level * indentSize);
+	}
+}
@@ -0,0 +1,39 @@
+package ca.trackerforce.path.api;
+
+import java.util.List;
+
+/**
+ * Reads the properties of a specific type without going through reflection.
+ * Implementations are generated at build time for types annotated with {@link DotPathQLType},
+ * or written by hand and registered with {@link DotPath#registerAccessor(PropertyAccessor)}
+ * for types such as proxies, types with computed properties or {@link java.util.Map} subclasses.
+ *
+ * @param <T> the type handled by this accessor
+ */
+public interface PropertyAccessor<T> {
+
+	/**
+	 * Returns the type handled by this accessor.
+	 *
+	 * @return the handled type
+	 */
+	Class<T> getType();
+
+	/**
+	 * Returns the names of the properties exposed by the given source object, in declaration order.
+	 * Used when all properties are traversed, such as in exclude, obfuscate and toMap operations.
+	 *
+	 * @param source the source object
+	 * @return the property names
+	 */
+	List<String> getPropertyNames(T source);
+
+	/**
+	 * Returns the value of the given property.
+	 *
+	 * @param source the source object
+	 * @param propertyName the name of the property
+	 * @return the property value, or null if the property does not exist
+	 */
+	Object getValue(T source, String propertyName);
+}
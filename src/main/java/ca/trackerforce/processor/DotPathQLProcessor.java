@@ -0,0 +1,225 @@
+package ca.trackerforce.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.NoSuchFileException;
+import java.util.*;
+
+/**
+ * Annotation processor generating a {@link ca.trackerforce.path.api.PropertyAccessor} for each type annotated with
+ * {@link ca.trackerforce.path.api.DotPathQLType}.
+ * <p>
+ * Each accessor is a static table of the type properties, named after the type with the
+ * {@value #SUFFIX} suffix, and is registered in {@code META-INF/services} so it can be found without reflection.
+ * The registrations already written by earlier compilations are kept, so incremental builds do not lose them.
+ * The library types are only referred to by name, the processor does not load them.
+ */
+@SupportedAnnotationTypes(DotPathQLProcessor.ANNOTATION)
+public class DotPathQLProcessor extends AbstractProcessor {
+
+	static final String SUFFIX = "_DotPathQLAccessor";
+
+	static final String ANNOTATION = "ca.trackerforce.path.api.DotPathQLType";
+
+	static final String SERVICE_FILE = "META-INF/services/ca.trackerforce.path.api.PropertyAccessor";
+
+	private final Set<String> generated = new LinkedHashSet<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if ((element.getKind() != ElementKind.RECORD && element.getKind() != ElementKind.CLASS) ||
+						element.getModifiers().contains(Modifier.PRIVATE)) {
+					error(element, "@DotPathQLType must be placed on a non-private record or class");
+					continue;
+				}
+
+				generate((TypeElement) element);
+			}
+		}
+
+		if (roundEnv.processingOver() && !generated.isEmpty()) {
+			writeServiceFile();
+		}
+
+		return false;
+	}
+
+	private void generate(TypeElement type) {
+		String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		String typeName = type.getQualifiedName().toString();
+		String simpleName = (packageName.isEmpty() ? typeName : typeName.substring(packageName.length() + 1))
+				.replace('.', '_') + SUFFIX;
+		String accessorName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+		Map<String, String> properties = type.getKind() == ElementKind.RECORD ?
+				getRecordProperties(type) : getClassProperties(type);
+
+		try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(accessorName, type)
+				.openWriter())) {
+			writeAccessor(out, packageName, typeName, simpleName, properties);
+			generated.add(accessorName);
+		} catch (IOException e) {
+			error(type, "Unable to generate " + accessorName + ": " + e.getMessage());
+		}
+	}
+
+	private Map<String, String> getRecordProperties(TypeElement type) {
+		Map<String, String> properties = new LinkedHashMap<>();
+		for (RecordComponentElement component : type.getRecordComponents()) {
+			properties.put(component.getSimpleName().toString(), component.getAccessor().getSimpleName().toString());
+		}
+		return properties;
+	}
+
+	/**
+	 * Collects the declared instance fields having a public getter with the same type,
+	 * mirroring the properties listed at runtime for exclusion.
+	 */
+	private Map<String, String> getClassProperties(TypeElement type) {
+		Map<String, String> properties = new LinkedHashMap<>();
+		List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+
+		for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+			if (field.getModifiers().contains(Modifier.STATIC)) {
+				continue;
+			}
+
+			String fieldName = field.getSimpleName().toString();
+			String capitalized = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+
+			for (String getterName : List.of("get" + capitalized, "is" + capitalized, fieldName)) {
+				if (hasGetter(methods, getterName, field.asType())) {
+					properties.put(fieldName, getterName);
+					break;
+				}
+			}
+		}
+
+		return properties;
+	}
+
+	private boolean hasGetter(List<ExecutableElement> methods, String getterName, TypeMirror fieldType) {
+		return methods.stream().anyMatch(method -> method.getSimpleName().contentEquals(getterName) &&
+				method.getParameters().isEmpty() &&
+				method.getModifiers().contains(Modifier.PUBLIC) &&
+				!method.getModifiers().contains(Modifier.STATIC) &&
+				processingEnv.getTypeUtils().isSameType(method.getReturnType(), fieldType));
+	}
+
+	private void writeAccessor(PrintWriter out, String packageName, String typeName, String simpleName,
+							   Map<String, String> properties) {
+		if (!packageName.isEmpty()) {
+			out.println("package " + packageName + ";");
+			out.println();
+		}
+
+		out.println("import ca.trackerforce.path.api.PropertyAccessor;");
+		out.println();
+		out.println("import java.util.List;");
+		out.println();
+		out.println("/**");
+		out.println(" * Generated accessor table for {@link " + typeName + "}.");
+		out.println(" */");
+		out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+		out.println("@SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+		out.println("public final class " + simpleName + " implements PropertyAccessor<" + typeName + "> {");
+		out.println();
+		out.println("\tprivate static final List<String> PROPERTY_NAMES = List.of(" +
+				String.join(", ", properties.keySet().stream().map(name -> "\"" + name + "\"").toList()) + ");");
+		out.println();
+		out.println("\t@Override");
+		out.println("\tpublic Class<" + typeName + "> getType() {");
+		out.println("\t\treturn " + typeName + ".class;");
+		out.println("\t}");
+		out.println();
+		out.println("\t@Override");
+		out.println("\tpublic List<String> getPropertyNames(" + typeName + " source) {");
+		out.println("\t\treturn PROPERTY_NAMES;");
+		out.println("\t}");
+		out.println();
+		out.println("\t@Override");
+		out.println("\tpublic Object getValue(" + typeName + " source, String propertyName) {");
+		out.println("\t\treturn switch (propertyName) {");
+		properties.forEach((name, getter) ->
+				out.println("\t\t\tcase \"" + name + "\" -> source." + getter + "();"));
+		out.println("\t\t\tdefault -> null;");
+		out.println("\t\t};");
+		out.println("\t}");
+		out.println("}");
+	}
+
+	/**
+	 * Writes the service file listing the accessors registered by earlier compilations followed by
+	 * the ones generated by this compilation.
+	 */
+	private void writeServiceFile() {
+		Set<String> registered = readServiceFile();
+		registered.addAll(generated);
+
+		try {
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+					SERVICE_FILE);
+
+			try (Writer writer = file.openWriter()) {
+				for (String accessorName : registered) {
+					writer.write(accessorName);
+					writer.write(System.lineSeparator());
+				}
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Unable to register generated accessors: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads the accessors listed by the service file of the class output, if any, ignoring comments.
+	 */
+	private Set<String> readServiceFile() {
+		Set<String> registered = new LinkedHashSet<>();
+		try {
+			FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+			try (Reader reader = file.openReader(true); BufferedReader lines = new BufferedReader(reader)) {
+				String line;
+				while ((line = lines.readLine()) != null) {
+					int comment = line.indexOf('#');
+					String accessorName = (comment < 0 ? line : line.substring(0, comment)).trim();
+					if (!accessorName.isEmpty()) {
+						registered.add(accessorName);
+					}
+				}
+			}
+		} catch (FileNotFoundException | NoSuchFileException e) {
+			// First compilation, nothing was registered yet
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+					"Unable to read the registered accessors: " + e.getMessage());
+		}
+		return registered;
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
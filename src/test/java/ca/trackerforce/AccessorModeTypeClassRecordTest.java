@@ -0,0 +1,222 @@
+package ca.trackerforce;
+
+import ca.trackerforce.fixture.clazz.customer.Customer;
+import ca.trackerforce.path.api.AccessorMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessorModeTypeClassRecordTest {
+
+	DotPathQL reflection = new DotPathQL();
+
+	DotPathQL methodHandle = new DotPathQL();
+
+	DotPathQL varHandle = new DotPathQL();
+
+	AccessorModeTypeClassRecordTest() {
+		methodHandle.setAccessorMode(AccessorMode.METHOD_HANDLE);
+		varHandle.setAccessorMode(AccessorMode.VAR_HANDLE);
+	}
+
+	static Stream<Arguments> userDetailProvider() {
+		return Stream.of(
+				Arguments.of("Record type", ca.trackerforce.fixture.record.UserDetail.of()),
+				Arguments.of("Class type", ca.trackerforce.fixture.clazz.UserDetail.of())
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldFilterSameAsReflection(String implementation, Object userDetail) {
+		// Given
+		var paths = List.of(
+				"username",
+				"address.street",
+				"orders.products.name",
+				"occupations.title",
+				"locations[home[street,city],work[city]]",
+				"scoresArray"
+		);
+
+		// When
+		var expected = reflection.filter(userDetail, paths);
+		var result = methodHandle.filter(userDetail, paths);
+
+		// Then
+		assertEquals(reflection.toJson(expected, false), methodHandle.toJson(result, false));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldExcludeSameAsReflection(String implementation, Object userDetail) {
+		// Given
+		var paths = List.of("email", "orders.products.price", "address[coordinates,code]");
+
+		// When
+		var expected = reflection.exclude(userDetail, paths);
+		var result = methodHandle.exclude(userDetail, paths);
+
+		// Then
+		assertEquals(reflection.toJson(expected, false), methodHandle.toJson(result, false));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldObfuscateSameAsReflection(String implementation, Object userDetail) {
+		// Given
+		var paths = List.of("email", "occupations.salary");
+
+		// When
+		var expected = reflection.obfuscate(userDetail, paths);
+		var result = methodHandle.obfuscate(userDetail, paths);
+
+		// Then
+		assertEquals(reflection.toJson(expected, false), methodHandle.toJson(result, false));
+	}
+
+	@Test
+	void shouldFilterPrivateAttributesUsingMethodHandle() {
+		// Given
+		var customer = Customer.of();
+
+		// When
+		var result = methodHandle.filter(customer, List.of("metadata.password", "features.name"));
+
+		// Then
+		assertEquals("securePassword", DotUtils.mapFrom(result, "metadata").get("password"));
+		assertEquals("Default Feature", DotUtils.listFrom(result, "features").get(0).get("name"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldFilterUsingVarHandleSameAsReflection(String implementation, Object userDetail) {
+		// Given
+		var paths = List.of(
+				"username",
+				"address.coordinates",
+				"orders.products.price",
+				"occupations.salary",
+				"scoresArray"
+		);
+
+		// When
+		var expected = reflection.filter(userDetail, paths);
+		var result = varHandle.filter(userDetail, paths);
+
+		// Then
+		assertEquals(reflection.toJson(expected, false), varHandle.toJson(result, false));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldExcludeUsingVarHandleSameAsReflection(String implementation, Object userDetail) {
+		// Given
+		var paths = List.of("email", "orders.products.price", "address[coordinates,code]");
+
+		// When
+		var expected = reflection.exclude(userDetail, paths);
+		var result = varHandle.exclude(userDetail, paths);
+
+		// Then
+		assertEquals(reflection.toJson(expected, false), varHandle.toJson(result, false));
+	}
+
+	@Test
+	void shouldFilterPrivateAttributesUsingVarHandle() {
+		// Given
+		var customer = Customer.of();
+
+		// When
+		var result = varHandle.filter(customer, List.of("metadata.password", "features.name"));
+
+		// Then
+		assertEquals("securePassword", DotUtils.mapFrom(result, "metadata").get("password"));
+		assertEquals("Default Feature", DotUtils.listFrom(result, "features").get(0).get("name"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldWritePrimitiveMembersWithoutBoxingSameAsReflection(String implementation, Object userDetail)
+			throws IOException {
+		// Given
+		var paths = List.of("orders.products.price", "orders.products.stockQuantity", "occupations.salary",
+				"occupations.yearsOfExperience");
+
+		for (DotPathQL handles : List.of(methodHandle, varHandle)) {
+			// When
+			var expected = new StringBuilder();
+			reflection.filterToJson(userDetail, paths, false, expected);
+			var filtered = new StringBuilder();
+			handles.filterToJson(userDetail, paths, false, filtered);
+			var excluded = new ByteArrayOutputStream();
+			handles.excludeToJson(userDetail, List.of("email"), false, excluded);
+			var expectedExcluded = new ByteArrayOutputStream();
+			reflection.excludeToJson(userDetail, List.of("email"), false, expectedExcluded);
+
+			// Then
+			assertEquals(expected.toString(), filtered.toString());
+			assertTrue(filtered.toString().contains("\"stockQuantity\": 5}"));
+			assertEquals(expectedExcluded.toString(StandardCharsets.UTF_8), excluded.toString(StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void shouldReadThrowingGetterSameAsReflectionUsingMethodHandle() throws IOException {
+		// Given
+		var paths = List.of("name", "count", "label");
+
+		// When
+		var expected = reflection.filter(new FailingGetters(), paths);
+		var result = methodHandle.filter(new FailingGetters(), paths);
+		var json = new StringBuilder();
+		methodHandle.filterToJson(new FailingGetters(), paths, false, json);
+
+		// Then
+		assertEquals(expected, result);
+		assertEquals("label", result.get("label"));
+		assertEquals(reflection.toJson(expected, false), json.toString());
+	}
+
+	@Test
+	void shouldReadThrowingGetterSameAsReflectionUsingVarHandle() throws IOException {
+		// Given
+		var paths = List.of("name", "count", "label");
+
+		// When
+		var expected = reflection.filter(new FailingGetters(), paths);
+		var result = varHandle.filter(new FailingGetters(), paths);
+		var json = new StringBuilder();
+		varHandle.filterToJson(new FailingGetters(), paths, false, json);
+
+		// Then
+		assertEquals(expected, result);
+		assertEquals("label", result.get("label"));
+		assertEquals(reflection.toJson(expected, false), json.toString());
+	}
+
+	public static class FailingGetters {
+
+		public String getName() {
+			throw new AssertionError("name is not available");
+		}
+
+		public int getCount() {
+			throw new AssertionError("count is not available");
+		}
+
+		public String getLabel() {
+			return "label";
+		}
+	}
+}
@@ -0,0 +1,276 @@
+package ca.trackerforce;
+
+import ca.trackerforce.path.BinaryDecoders;
+import ca.trackerforce.path.DotPathFactory;
+import ca.trackerforce.path.api.BinaryFormat;
+import ca.trackerforce.path.api.DotEncoder;
+import ca.trackerforce.path.api.PrinterOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryTypeClassRecordTest {
+
+	static final HexFormat HEX = HexFormat.of();
+
+	DotPathQL dotPathQL = new DotPathQL();
+
+	static Stream<Arguments> userDetailProvider() {
+		List<Arguments> arguments = new ArrayList<>();
+		for (BinaryFormat format : BinaryFormat.values()) {
+			arguments.add(Arguments.of("Record type " + format, ca.trackerforce.fixture.record.UserDetail.of(), format));
+			arguments.add(Arguments.of("Class type " + format, ca.trackerforce.fixture.clazz.UserDetail.of(), format));
+		}
+		return arguments.stream();
+	}
+
+	static String encodeHex(DotEncoder encoder, Object value) {
+		return HEX.formatHex(encoder.encode(value));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldDecodeFilterResultTypeClassRecord(String implementation, Object userDetail, BinaryFormat format) {
+		// Given
+		var result = dotPathQL.filter(userDetail, List.of("username", "address.street", "orders.products.name",
+				"roles", "scoresArray", "locations[home[street,city],work[city]]"));
+
+		// When
+		var bytes = dotPathQL.toBinary(result, format);
+
+		// Then
+		assertEquals(dotPathQL.toJson(result, false),
+				dotPathQL.toJson(BinaryDecoders.decodeMap(bytes, format), false));
+		assertTrue(bytes.length < dotPathQL.toJsonBytes(result, PrinterOptions.compact()).length);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldDecodeExcludeAndObfuscateResultsTypeClassRecord(String implementation, Object userDetail,
+			BinaryFormat format) {
+		// Given
+		var excluded = dotPathQL.exclude(userDetail, List.of("orders.products", "email"));
+		var obfuscated = dotPathQL.obfuscate(userDetail, List.of("email", "address.street"));
+
+		// When
+		var decodedExcluded = BinaryDecoders.decodeMap(dotPathQL.toBinary(excluded, format), format);
+		var decodedObfuscated = BinaryDecoders.decodeMap(dotPathQL.toBinary(obfuscated, format), format);
+
+		// Then
+		assertEquals(dotPathQL.toJson(excluded, true), dotPathQL.toJson(decodedExcluded, true));
+		assertEquals(dotPathQL.toJson(obfuscated, true), dotPathQL.toJson(decodedObfuscated, true));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldEncodeIntoStreamsAndBuffersTypeClassRecord(String implementation, Object userDetail,
+			BinaryFormat format) throws IOException {
+		// Given
+		var result = dotPathQL.exclude(userDetail, List.of());
+		var expected = dotPathQL.toBinary(result, format);
+		var stream = new ByteArrayOutputStream();
+		var heap = ByteBuffer.allocate(expected.length + 8);
+		var direct = ByteBuffer.allocateDirect(expected.length);
+
+		// When
+		dotPathQL.toBinary(result, format, stream);
+		dotPathQL.toBinary(result, format, heap);
+		dotPathQL.toBinary(result, format, direct);
+
+		// Then
+		assertArrayEquals(expected, stream.toByteArray());
+		assertArrayEquals(expected, Arrays.copyOf(heap.array(), heap.position()));
+		var directBytes = new byte[direct.position()];
+		direct.flip().get(directBytes);
+		assertArrayEquals(expected, directBytes);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldThrowWhenByteBufferIsTooSmallTypeClassRecord(String implementation, Object userDetail,
+			BinaryFormat format) {
+		// Given
+		var result = dotPathQL.filter(userDetail, List.of("username", "email"));
+
+		// Then
+		assertThrows(BufferOverflowException.class, () -> dotPathQL.toBinary(result, format, ByteBuffer.allocate(8)));
+	}
+
+	@Test
+	void shouldEncodeCborLikeRfc8949Examples() {
+		// Given
+		var cbor = DotPathFactory.buildEncoder(BinaryFormat.CBOR);
+
+		// Then
+		assertEquals("00", encodeHex(cbor, 0));
+		assertEquals("17", encodeHex(cbor, 23));
+		assertEquals("1818", encodeHex(cbor, 24));
+		assertEquals("1903e8", encodeHex(cbor, 1000));
+		assertEquals("1a000f4240", encodeHex(cbor, 1000000));
+		assertEquals("1b000000e8d4a51000", encodeHex(cbor, 1000000000000L));
+		assertEquals("20", encodeHex(cbor, -1));
+		assertEquals("3903e7", encodeHex(cbor, -1000));
+		assertEquals("c249010000000000000000", encodeHex(cbor, new BigInteger("18446744073709551616")));
+		assertEquals("c349010000000000000000", encodeHex(cbor, new BigInteger("-18446744073709551617")));
+		assertEquals("c48221196ab3", encodeHex(cbor, new BigDecimal("273.15")));
+		assertEquals("fb3ff199999999999a", encodeHex(cbor, 1.1));
+		assertEquals("fa47c35000", encodeHex(cbor, 100000.0f));
+		assertEquals("f4f5f6", encodeHex(cbor, false) + encodeHex(cbor, true) + encodeHex(cbor, null));
+		assertEquals("6161", encodeHex(cbor, "a"));
+		assertEquals("62c3bc", encodeHex(cbor, "ü"));
+		assertEquals("64f0908591", encodeHex(cbor, "𐅑"));
+		assertEquals("4401020304", encodeHex(cbor, new byte[] { 1, 2, 3, 4 }));
+		assertEquals("8201820203", encodeHex(cbor, List.of(1, new int[] { 2, 3 })));
+		assertEquals("a26161016162820203", encodeHex(cbor, orderedMap("a", 1, "b", List.of(2, 3))));
+	}
+
+	@Test
+	void shouldEncodeMessagePackWithTheSmallestFormats() {
+		// Given
+		var msgpack = DotPathFactory.buildEncoder(BinaryFormat.MESSAGE_PACK);
+
+		// Then
+		assertEquals("7f", encodeHex(msgpack, 127));
+		assertEquals("cc80", encodeHex(msgpack, 128));
+		assertEquals("cd0100", encodeHex(msgpack, 256));
+		assertEquals("ce00010000", encodeHex(msgpack, 65536));
+		assertEquals("cf0000000100000000", encodeHex(msgpack, 1L << 32));
+		assertEquals("cfffffffffffffffff", encodeHex(msgpack, new BigInteger("18446744073709551615")));
+		assertEquals("ff", encodeHex(msgpack, -1));
+		assertEquals("e0", encodeHex(msgpack, -32));
+		assertEquals("d0df", encodeHex(msgpack, -33));
+		assertEquals("d1ff7f", encodeHex(msgpack, -129));
+		assertEquals("d2ffff7fff", encodeHex(msgpack, -32769));
+		assertEquals("d38000000000000000", encodeHex(msgpack, Long.MIN_VALUE));
+		assertEquals("cb3ff8000000000000", encodeHex(msgpack, 1.5));
+		assertEquals("ca3fc00000", encodeHex(msgpack, 1.5f));
+		assertEquals("c2c3c0", encodeHex(msgpack, false) + encodeHex(msgpack, true) + encodeHex(msgpack, null));
+		assertEquals("a161", encodeHex(msgpack, "a"));
+		assertEquals("d920" + "61".repeat(32), encodeHex(msgpack, "a".repeat(32)));
+		assertEquals("c4020102", encodeHex(msgpack, new byte[] { 1, 2 }));
+		assertEquals("920102", encodeHex(msgpack, List.of(1, 2)));
+		assertEquals("dc0010" + "00".repeat(16), encodeHex(msgpack, new long[16]));
+		assertEquals("82a16101a16292c3c2", encodeHex(msgpack, orderedMap("a", 1, "b", new boolean[] { true, false })));
+	}
+
+	@ParameterizedTest
+	@EnumSource(BinaryFormat.class)
+	void shouldDecodeNumbersToTheirValue(BinaryFormat format) {
+		// Given
+		var encoder = DotPathFactory.buildEncoder(format);
+		var numbers = List.of(0, -1, 127, -33, 255, 65535, Integer.MAX_VALUE, Integer.MIN_VALUE,
+				(long) Integer.MAX_VALUE + 1, (long) Integer.MIN_VALUE - 1, Long.MAX_VALUE, Long.MIN_VALUE,
+				0.1, -2.5e300, 3.4f, Double.NaN, Float.NEGATIVE_INFINITY);
+
+		// When
+		var decoded = BinaryDecoders.decode(encoder.encode(numbers), format);
+
+		// Then
+		assertEquals(numbers, decoded);
+	}
+
+	@Test
+	void shouldDecodeBigNumbersExactlyFromCbor() {
+		// Given
+		var cbor = DotPathFactory.buildEncoder(BinaryFormat.CBOR);
+		var numbers = List.of(new BigInteger("123456789012345678901234567890"),
+				new BigInteger("-123456789012345678901234567890"), new BigDecimal("-1234.5678"),
+				new BigDecimal("1.5E+400"), new BigDecimal("98765432109876543210.0123456789"));
+
+		// When
+		var decoded = BinaryDecoders.decode(cbor.encode(numbers), BinaryFormat.CBOR);
+
+		// Then
+		assertEquals(numbers, decoded);
+	}
+
+	@Test
+	void shouldDecodeBigNumbersAsTextFromMessagePack() {
+		// Given
+		var msgpack = DotPathFactory.buildEncoder(BinaryFormat.MESSAGE_PACK);
+		var numbers = List.of(new BigInteger("123456789012345678901234567890"), new BigDecimal("-1234.5678"));
+
+		// When
+		var decoded = BinaryDecoders.decode(msgpack.encode(numbers), BinaryFormat.MESSAGE_PACK);
+
+		// Then
+		assertEquals(List.of("123456789012345678901234567890", "-1234.5678"), decoded);
+	}
+
+	@ParameterizedTest
+	@EnumSource(BinaryFormat.class)
+	void shouldEncodeStringsLargerThanTheBuffer(BinaryFormat format) throws IOException {
+		// Given
+		var encoder = DotPathFactory.buildEncoder(format);
+		var text = "ascii é中😀 ".repeat(5000);
+		var bytes = new byte[100_000];
+		Arrays.fill(bytes, (byte) 7);
+		Map<String, Object> source = orderedMap("text", text, "bytes", bytes, "unpaired", "a\ud800b");
+		var out = new ByteArrayOutputStream();
+
+		// When
+		encoder.encode(source, out);
+		var decoded = BinaryDecoders.decodeMap(out.toByteArray(), format);
+
+		// Then
+		assertArrayEquals(encoder.encode(source), out.toByteArray());
+		assertEquals(text, decoded.get("text"));
+		assertArrayEquals(bytes, (byte[]) decoded.get("bytes"));
+		assertEquals(new String("a\ud800b".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8),
+				decoded.get("unpaired"));
+	}
+
+	@Test
+	void shouldDecodeIndefiniteLengthCbor() {
+		// When
+		var decoded = BinaryDecoders.decode(HEX.parseHex("bf61619f0102ff7f61616162fff93e00ff"), BinaryFormat.CBOR);
+
+		// Then
+		assertEquals(orderedMap("a", List.of(1, 2), "ab", 1.5f), decoded);
+	}
+
+	@ParameterizedTest
+	@EnumSource(BinaryFormat.class)
+	void shouldRejectMalformedInput(BinaryFormat format) {
+		// Given
+		var bytes = dotPathQL.toBinary(orderedMap("name", "value"), format);
+		var truncated = Arrays.copyOf(bytes, bytes.length - 1);
+		var trailing = Arrays.copyOf(bytes, bytes.length + 1);
+		var notMap = DotPathFactory.buildEncoder(format).encode(List.of(1));
+
+		// Then
+		assertThrows(IllegalArgumentException.class, () -> BinaryDecoders.decodeMap(truncated, format));
+		assertThrows(IllegalArgumentException.class, () -> BinaryDecoders.decodeMap(trailing, format));
+		assertThrows(IllegalArgumentException.class, () -> BinaryDecoders.decodeMap(notMap, format));
+	}
+
+	static Map<String, Object> orderedMap(Object... entries) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		for (int i = 0; i < entries.length; i += 2) {
+			map.put((String) entries[i], entries[i + 1]);
+		}
+		return map;
+	}
+}
@@ -0,0 +1,208 @@
+package ca.trackerforce;
+
+import ca.trackerforce.fixture.record.UserDetail;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static ca.trackerforce.ResultAssertions.assertSameResult;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactResultTypeClassRecordTest {
+
+	DotPathQL dotPathQL = new DotPathQL();
+
+	DotPathQL compactPathQL = new DotPathQL();
+
+	CompactResultTypeClassRecordTest() {
+		compactPathQL.setCompactResults(true);
+	}
+
+	static Stream<Arguments> userDetailProvider() {
+		return Stream.of(
+				Arguments.of("Record type", ca.trackerforce.fixture.record.UserDetail.of()),
+				Arguments.of("Class type", ca.trackerforce.fixture.clazz.UserDetail.of())
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldFilterLikeDefaultResultsTypeClassRecord(String implementation, Object userDetail, List<String> paths) {
+		// When
+		var compact = compactPathQL.filter(userDetail, paths);
+
+		// Then
+		var result = dotPathQL.filter(userDetail, paths);
+		assertEquals(result, compact);
+		assertSameResult(result, compact);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldExcludeAndObfuscateLikeDefaultResultsTypeClassRecord(String implementation, Object userDetail,
+																	List<String> paths) {
+		// When
+		var excluded = compactPathQL.exclude(userDetail, paths);
+		var obfuscated = compactPathQL.obfuscate(userDetail, paths);
+
+		// Then
+		assertSameResult(dotPathQL.exclude(userDetail, paths), excluded);
+		assertSameResult(dotPathQL.obfuscate(userDetail, paths), obfuscated);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldRunCompiledQueryTypeClassRecord(String implementation, Object userDetail) {
+		// Given
+		var query = compactPathQL.compile("username,address[street,city],orders.products.name");
+
+		// When
+		var compact = query.filter(userDetail);
+
+		// Then
+		assertEquals(dotPathQL.compile("username,address[street,city],orders.products.name").filter(userDetail),
+				compact);
+		assertThrows(UnsupportedOperationException.class, () -> compact.put("username", "other"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldReadNestedValuesFromCompactMapTypeClassRecord(String implementation, Object userDetail) {
+		// When
+		var result = compactPathQL.toMap(userDetail);
+
+		// Then
+		assertEquals("john_doe", result.get("username"));
+		assertEquals("Springfield", DotUtils.mapFrom(result, "address").get("city"));
+		assertEquals(2, DotUtils.listFrom(result, "orders").size());
+		assertEquals(dotPathQL.toMap(userDetail), result);
+		assertEquals(dotPathQL.toMap(userDetail).hashCode(), result.hashCode());
+		assertNull(result.get("invalidProperty"));
+		assertFalse(result.containsKey("invalidProperty"));
+	}
+
+	@Test
+	void shouldLeaveOutNullValuesAndEmptyElements() {
+		// Given
+		Map<String, Object> first = new HashMap<>();
+		first.put("name", "first");
+		first.put("code", 1);
+		Map<String, Object> second = new HashMap<>();
+		second.put("name", null);
+		Map<String, Object> third = new HashMap<>();
+		third.put("code", 3);
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("items", List.of(first, new Object(), second, third));
+		source.put("missing", null);
+
+		// When
+		var result = compactPathQL.filter(source, List.of("items.name", "items.code", "missing"));
+
+		// Then
+		assertEquals(dotPathQL.filter(source, List.of("items.name", "items.code", "missing")), result);
+		assertEquals(1, result.size());
+		assertFalse(result.containsKey("missing"));
+		assertEquals(List.of(Map.of("name", "first", "code", 1), Map.of("code", 3)), result.get("items"));
+		assertEquals(List.of("code"), List.copyOf(DotUtils.listFrom(result, "items").get(1).keySet()));
+	}
+
+	@Test
+	void shouldKeepKeysOfEachPresenceMaskAcrossRepeatedCalls() {
+		// Given - every combination of present keys, more than the subset shapes kept per shape
+		List<String> keys = List.of("a", "b", "c", "d");
+		List<Object> items = new ArrayList<>();
+		for (int mask = 0; mask < 16; mask++) {
+			Map<String, Object> item = new LinkedHashMap<>();
+			for (int i = 0; i < keys.size(); i++) {
+				if ((mask & (1 << i)) != 0) {
+					item.put(keys.get(i), mask);
+				}
+			}
+			items.add(item);
+		}
+		Map<String, Object> source = Map.of("items", items);
+		var paths = List.of("items.a", "items.b", "items.c", "items.d");
+
+		for (int run = 0; run < 2; run++) {
+			// When
+			var result = DotUtils.listFrom(compactPathQL.filter(source, paths), "items");
+
+			// Then
+			var expected = DotUtils.listFrom(dotPathQL.filter(source, paths), "items");
+			assertEquals(expected, result);
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(List.copyOf(expected.get(i).keySet()), List.copyOf(result.get(i).keySet()));
+			}
+		}
+	}
+
+	@Test
+	void shouldLookUpKeysOfLargeMaps() {
+		// Given
+		Map<String, Object> source = new LinkedHashMap<>();
+		List<String> paths = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			source.put("key" + i, i % 3 == 0 ? null : i);
+			paths.add("key" + i);
+		}
+
+		// When
+		var filtered = compactPathQL.filter(source, paths);
+		var excluded = compactPathQL.exclude(source, List.of("key1"));
+
+		// Then
+		assertEquals(dotPathQL.filter(source, paths), filtered);
+		assertEquals(List.copyOf(dotPathQL.filter(source, paths).keySet()), List.copyOf(filtered.keySet()));
+		assertEquals(98, filtered.get("key98"));
+		assertFalse(filtered.containsKey("key99"));
+		assertEquals(dotPathQL.exclude(source, List.of("key1")), excluded);
+		assertTrue(excluded.containsKey("key99"));
+		assertFalse(excluded.containsKey("key1"));
+	}
+
+	@Test
+	void shouldRejectModifications() {
+		// When
+		var result = compactPathQL.toMap(UserDetail.of());
+		var orders = DotUtils.listFrom(result, "orders");
+
+		// Then
+		assertThrows(UnsupportedOperationException.class, () -> result.put("username", "other"));
+		assertThrows(UnsupportedOperationException.class, () -> result.remove("username"));
+		assertThrows(UnsupportedOperationException.class, result::clear);
+		assertThrows(UnsupportedOperationException.class, () -> orders.add(Map.of()));
+		assertThrows(UnsupportedOperationException.class, () -> orders.get(0).put("id", 0));
+	}
+
+	@Test
+	void shouldReturnMutableResultsWhenDisabled() {
+		// Given
+		compactPathQL.setCompactResults(false);
+
+		// When
+		var result = compactPathQL.filter(UserDetail.of(), List.of("username"));
+		result.put("other", "value");
+
+		// Then
+		assertEquals(Map.of("username", "john_doe", "other", "value"), result);
+	}
+
+	@Test
+	void shouldReturnEmptyResultForNullSource() {
+		// Then
+		assertTrue(compactPathQL.filter(null, List.of("username")).isEmpty());
+		assertTrue(compactPathQL.toMap(null).isEmpty());
+	}
+}
@@ -0,0 +1,206 @@
+package ca.trackerforce;
+
+import ca.trackerforce.path.DotPathFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CompiledQueryTypeClassRecordTest {
+
+	DotPathQL dotPathQL = new DotPathQL();
+
+	static Stream<Arguments> userDetailProvider() {
+		return Stream.of(
+				Arguments.of("Record type", ca.trackerforce.fixture.record.UserDetail.of()),
+				Arguments.of("Class type", ca.trackerforce.fixture.clazz.UserDetail.of())
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldRunCompiledQuerySameAsPaths(String implementation, Object userDetail) {
+		// Given
+		var paths = List.of(
+				"username",
+				"address.street",
+				"orders.products.name",
+				"locations[home[street,city],work[city]]"
+		);
+
+		// When
+		var query = dotPathQL.compile(paths);
+
+		// Then
+		assertEquals(dotPathQL.filter(userDetail, paths), query.filter(userDetail));
+		assertEquals(dotPathQL.exclude(userDetail, paths), query.exclude(userDetail));
+		assertEquals(dotPathQL.obfuscate(userDetail, paths), query.obfuscate(userDetail));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldCompileQueryStringSameAsParsedPaths(String implementation, Object userDetail) {
+		// Given
+		var fields = "username, address[street,city] ,orders[orderId,products[name,price]],locations[home[street]]," +
+				"additionalInfo.lastLogin,,roles[]";
+
+		// When
+		var expected = dotPathQL.compile(DotUtils.parsePaths(fields));
+		var query = dotPathQL.compile(fields);
+
+		// Then
+		assertEquals(expected.filter(userDetail), query.filter(userDetail));
+		assertEquals(expected.exclude(userDetail), query.exclude(userDetail));
+		assertEquals(expected.obfuscate(userDetail), query.obfuscate(userDetail));
+	}
+
+	static Stream<String> edgeQueryProvider() {
+		return Stream.of(
+				"address.",
+				"address.city.",
+				".username",
+				"address..city",
+				"username,",
+				"address.city,",
+				" username , address.city ",
+				"username, ,email",
+				"address[]",
+				"address[ , ]",
+				"address [city]",
+				"address[city ,street ]",
+				"address[city].ignored,username",
+				"locations[home[street,city],work[city]]",
+				"locations[home[street[name]]]",
+				"[username]",
+				"address[.city]",
+				"address[city.]"
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("edgeQueryProvider")
+	void shouldCompileQueryStringSameAsParsedPathsOnEdgeCases(String fields) {
+		// Given
+		var record = ca.trackerforce.fixture.record.UserDetail.of();
+		var sources = List.of(record, ca.trackerforce.fixture.clazz.UserDetail.of(), dotPathQL.toMap(record));
+
+		// When
+		var expected = dotPathQL.compile(DotUtils.parsePaths(fields));
+		var query = dotPathQL.compile(fields);
+
+		// Then
+		for (Object source : sources) {
+			assertEquals(expected.filter(source), query.filter(source));
+			assertEquals(expected.exclude(source), query.exclude(source));
+			assertEquals(expected.obfuscate(source), query.obfuscate(source));
+		}
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("edgeQueryProvider")
+	void shouldCompileSinglePathSameAsListOnEdgeCases(String fields) {
+		// Given
+		var record = ca.trackerforce.fixture.record.UserDetail.of();
+		var sources = List.of(record, ca.trackerforce.fixture.clazz.UserDetail.of(), dotPathQL.toMap(record));
+		var path = fields.trim();
+		assumeTrue(!path.contains(",") && !path.isEmpty());
+
+		// When
+		var expected = dotPathQL.compile(List.of(path));
+		var query = dotPathQL.compile(fields);
+
+		// Then
+		for (Object source : sources) {
+			assertEquals(expected.filter(source), query.filter(source));
+			assertEquals(expected.exclude(source), query.exclude(source));
+			assertEquals(expected.obfuscate(source), query.obfuscate(source));
+		}
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldCompileQueryStringWithDeeplyNestedGroups(String implementation, Object userDetail) {
+		// When
+		var query = dotPathQL.compile("orders[products[name],orderId],address[city]");
+		var result = query.filter(userDetail);
+
+		// Then
+		assertEquals(dotPathQL.filter(userDetail, List.of("orders.products.name", "orders.orderId", "address.city")),
+				result);
+	}
+
+	@Test
+	void shouldCompileBlankQueryString() {
+		// Given
+		var userDetail = ca.trackerforce.fixture.record.UserDetail.of();
+
+		// When
+		var query = dotPathQL.compile(" ");
+
+		// Then
+		assertTrue(query.filter(userDetail).isEmpty());
+		assertEquals(dotPathQL.toMap(userDetail), query.exclude(userDetail));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldRunCompiledQueryAgainstManySources(String implementation, Object userDetail) {
+		// Given
+		var query = dotPathQL.compile(List.of("username", "address.city"));
+
+		// When
+		var first = query.filter(userDetail);
+		var second = query.filter(ca.trackerforce.fixture.record.UserDetail.of());
+
+		// Then
+		assertEquals(first, second);
+		assertEquals("john_doe", first.get("username"));
+		assertEquals("Springfield", DotUtils.mapFrom(first, "address").get("city"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldCompileDefaultPaths(String implementation, Object userDetail) {
+		// Given
+		dotPathQL.addDefaultFilterPaths(List.of("email"));
+		dotPathQL.addDefaultExcludePaths(List.of("email"));
+		var query = dotPathQL.compile(List.of("username"));
+
+		// When
+		dotPathQL.addDefaultFilterPaths(List.of("fullName"));
+		var filtered = query.filter(userDetail);
+		var excluded = query.exclude(userDetail);
+
+		// Then
+		assertEquals(List.of("email", "username"), List.copyOf(filtered.keySet()));
+		assertFalse(excluded.containsKey("email"));
+		assertFalse(excluded.containsKey("username"));
+	}
+
+	@Test
+	void shouldReturnEmptyResultForNullSource() {
+		// When
+		var query = dotPathQL.compile(List.of("username"));
+
+		// Then
+		assertTrue(query.filter(null).isEmpty());
+		assertTrue(query.exclude(null).isEmpty());
+	}
+
+	@Test
+	void shouldRejectQueryCompiledByAnotherInstance() {
+		// Given
+		var query = DotPathFactory.buildFilter().compile(List.of("username"));
+		var pathFilter = DotPathFactory.buildFilter();
+		var userDetail = ca.trackerforce.fixture.record.UserDetail.of();
+
+		// Then
+		assertThrows(IllegalArgumentException.class, () -> pathFilter.run(userDetail, query));
+	}
+}
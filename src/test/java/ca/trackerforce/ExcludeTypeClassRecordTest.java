@@ -121,6 +121,27 @@ class ExcludeTypeClassRecordTest {
 		assertTrue(address.containsKey("street"));
 	}
 
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldKeepDefaultExclusionPathsUnchangedByExtraPaths(String implementation, Object userDetail) {
+		// Given
+		dotPathQL.setPlanCacheSize(0);
+		dotPathQL.addDefaultExcludePaths(List.of("address.city"));
+
+		// When
+		var withExtraPaths = dotPathQL.exclude(userDetail, List.of("address.street"));
+		var withDefaultPaths = dotPathQL.exclude(userDetail, List.of());
+
+		// Then
+		var address = DotUtils.mapFrom(withExtraPaths, "address");
+		assertFalse(address.containsKey("city"));
+		assertFalse(address.containsKey("street"));
+
+		address = DotUtils.mapFrom(withDefaultPaths, "address");
+		assertFalse(address.containsKey("city"));
+		assertTrue(address.containsKey("street"));
+	}
+
 	@ParameterizedTest(name = "{0}")
 	@MethodSource("userDetailProvider")
 	void shouldExcludeSimpleNestedFieldFromMapSource(String implementation, Object userDetail) {
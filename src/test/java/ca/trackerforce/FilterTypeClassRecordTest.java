@@ -5,6 +5,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -236,4 +237,74 @@ class FilterTypeClassRecordTest {
 		assertTrue(result.isEmpty());
 	}
 
+	@Test
+	void shouldCountAvoidedExceptionsForMissingPropertiesTypeRecord() {
+		// Given
+		var userDetail = ca.trackerforce.fixture.record.UserDetail.of();
+		var source = dotPathQL.toMap(userDetail);
+
+		// When - the map probes getUsername and getInvalidProperty, the map answers before any field
+		dotPathQL.filter(source, List.of("username", "invalidProperty"));
+
+		// Then
+		assertEquals(2, dotPathQL.getAvoidedExceptions());
+
+		// When - the record probes the invalidProperty component only
+		dotPathQL.filter(userDetail, List.of("username", "invalidProperty"));
+
+		// Then
+		assertEquals(3, dotPathQL.getAvoidedExceptions());
+
+		// When - the plans are cached, their lookups are counted once
+		dotPathQL.filter(userDetail, List.of("username", "invalidProperty"));
+
+		// Then
+		assertEquals(3, dotPathQL.getAvoidedExceptions());
+	}
+
+	@Test
+	void shouldCountAvoidedExceptionsForMissingPropertiesTypeClass() {
+		// Given
+		var userDetail = ca.trackerforce.fixture.clazz.UserDetail.of();
+		var source = dotPathQL.toMap(userDetail);
+
+		// When - the map probes getUsername and getInvalidProperty, the map answers before any field
+		dotPathQL.filter(source, List.of("username", "invalidProperty"));
+
+		// Then
+		assertEquals(2, dotPathQL.getAvoidedExceptions());
+
+		// When - the class probes getInvalidProperty and the invalidProperty field
+		dotPathQL.filter(userDetail, List.of("username", "invalidProperty"));
+
+		// Then
+		assertEquals(4, dotPathQL.getAvoidedExceptions());
+
+		// When - the plans are cached, their lookups are counted once
+		dotPathQL.filter(userDetail, List.of("username", "invalidProperty"));
+
+		// Then
+		assertEquals(4, dotPathQL.getAvoidedExceptions());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldResolveManyMissingPropertiesTypeClassRecord(String implementation, Object userDetail) {
+		// Given
+		var source = dotPathQL.toMap(userDetail);
+		var paths = new ArrayList<String>();
+		for (int i = 0; i < 500; i++) {
+			paths.add("missing" + i);
+		}
+		paths.add("username");
+
+		// When
+		var result = dotPathQL.filter(userDetail, paths);
+		var mapResult = dotPathQL.filter(source, paths);
+
+		// Then
+		assertEquals(List.of("username"), List.copyOf(result.keySet()));
+		assertEquals(List.of("username"), List.copyOf(mapResult.keySet()));
+	}
+
 }
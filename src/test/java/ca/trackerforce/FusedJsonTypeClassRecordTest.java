@@ -0,0 +1,180 @@
+package ca.trackerforce;
+
+import ca.trackerforce.fixture.record.UserDetail;
+import ca.trackerforce.path.api.PrinterOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FusedJsonTypeClassRecordTest {
+
+	DotPathQL dotPathQL = new DotPathQL();
+
+	static Stream<Arguments> userDetailProvider() {
+		return Stream.of(
+				Arguments.of("Record type", ca.trackerforce.fixture.record.UserDetail.of()),
+				Arguments.of("Class type", ca.trackerforce.fixture.clazz.UserDetail.of())
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldFilterToJsonTypeClassRecord(String implementation, Object userDetail, List<String> paths)
+			throws IOException {
+		// Given
+		var compact = new StringBuilder();
+		var pretty = new StringBuilder();
+
+		// When
+		dotPathQL.filterToJson(userDetail, paths, false, compact);
+		dotPathQL.filterToJson(userDetail, paths, true, pretty);
+
+		// Then
+		var result = dotPathQL.filter(userDetail, paths);
+		assertEquals(dotPathQL.toJson(result, false), compact.toString());
+		assertEquals(dotPathQL.toJson(result, true), pretty.toString());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldExcludeToJsonTypeClassRecord(String implementation, Object userDetail, List<String> paths)
+			throws IOException {
+		// Given
+		var compact = new StringBuilder();
+		var pretty = new StringBuilder();
+
+		// When
+		dotPathQL.excludeToJson(userDetail, paths, false, compact);
+		dotPathQL.excludeToJson(userDetail, paths, true, pretty);
+
+		// Then
+		var result = dotPathQL.exclude(userDetail, paths);
+		assertEquals(dotPathQL.toJson(result, false), compact.toString());
+		assertEquals(dotPathQL.toJson(result, true), pretty.toString());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldObfuscateToJsonTypeClassRecord(String implementation, Object userDetail, List<String> paths)
+			throws IOException {
+		// Given
+		var out = new StringBuilder();
+
+		// When
+		dotPathQL.obfuscateToJson(userDetail, paths, true, out);
+
+		// Then
+		assertEquals(dotPathQL.toJson(dotPathQL.obfuscate(userDetail, paths), true), out.toString());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldFilterToJsonOutputStreamTypeClassRecord(String implementation, Object userDetail) throws IOException {
+		// Given
+		var paths = List.of("username", "locations[home.street,work.city]");
+		var out = new ByteArrayOutputStream();
+
+		// When
+		dotPathQL.filterToJson(userDetail, paths, false, out);
+
+		// Then
+		assertEquals(dotPathQL.toJson(dotPathQL.filter(userDetail, paths), false), out.toString(StandardCharsets.UTF_8));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldExcludeToJsonWithIndentTypeClassRecord(String implementation, Object userDetail) throws IOException {
+		// Given
+		var json = dotPathQL.toJson(dotPathQL.exclude(userDetail, List.of("orders")), 4);
+		var out = new StringBuilder();
+
+		// When
+		dotPathQL.excludeToJson(userDetail, List.of("orders"), PrinterOptions.pretty(4), out);
+
+		// Then
+		assertEquals(json, out.toString());
+	}
+
+	@Test
+	void shouldFilterToJsonFromMapSource() throws IOException {
+		// Given
+		Map<String, Object> source = Map.of("user", UserDetail.of(), "tags", List.of("a", "b"));
+		var paths = List.of("user.address.city", "user.orders.orderId", "tags");
+		var out = new StringBuilder();
+
+		// When
+		dotPathQL.filterToJson(source, paths, false, out);
+
+		// Then
+		assertEquals(dotPathQL.toJson(dotPathQL.filter(source, paths), false), out.toString());
+	}
+
+	@Test
+	void shouldWriteEmptyJsonForNullSource() throws IOException {
+		// Given
+		var filtered = new StringBuilder();
+		var excluded = new StringBuilder();
+
+		// When
+		dotPathQL.filterToJson(null, List.of("username"), true, filtered);
+		dotPathQL.excludeToJson(null, List.of("username"), true, excluded);
+
+		// Then
+		assertEquals("{}", filtered.toString());
+		assertEquals("{}", excluded.toString());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldExcludeToJsonOutputStreamTypeClassRecord(String implementation, Object userDetail, List<String> paths)
+			throws IOException {
+		// Given
+		var out = new ByteArrayOutputStream();
+
+		// When
+		dotPathQL.excludeToJson(userDetail, paths, true, out);
+
+		// Then
+		assertEquals(dotPathQL.toJson(dotPathQL.exclude(userDetail, paths), true), out.toString(StandardCharsets.UTF_8));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldObfuscateToJsonOutputStreamTypeClassRecord(String implementation, Object userDetail, List<String> paths)
+			throws IOException {
+		// Given
+		var out = new ByteArrayOutputStream();
+
+		// When
+		dotPathQL.obfuscateToJson(userDetail, paths, false, out);
+
+		// Then
+		assertEquals(dotPathQL.toJson(dotPathQL.obfuscate(userDetail, paths), false),
+				out.toString(StandardCharsets.UTF_8));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldObfuscateToJsonWithIndentTypeClassRecord(String implementation, Object userDetail) throws IOException {
+		// Given
+		var paths = List.of("email", "address.street");
+		var json = dotPathQL.toJson(dotPathQL.obfuscate(userDetail, paths), 4);
+		var out = new StringBuilder();
+
+		// When
+		dotPathQL.obfuscateToJson(userDetail, paths, PrinterOptions.pretty(4), out);
+
+		// Then
+		assertEquals(json, out.toString());
+	}
+}
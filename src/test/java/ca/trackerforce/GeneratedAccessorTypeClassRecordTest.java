@@ -0,0 +1,133 @@
+package ca.trackerforce;
+
+import ca.trackerforce.fixture.annotated.Account;
+import ca.trackerforce.fixture.annotated.Profile;
+import ca.trackerforce.path.api.AccessorMode;
+import ca.trackerforce.path.api.PropertyAccessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedAccessorTypeClassRecordTest {
+
+	DotPathQL dotPathQL = new DotPathQL();
+
+	DotPathQL generatedPathQL = new DotPathQL();
+
+	GeneratedAccessorTypeClassRecordTest() {
+		generatedPathQL.setAccessorMode(AccessorMode.GENERATED);
+	}
+
+	static Stream<Arguments> pathsProvider() {
+		return Stream.of(
+				Arguments.of("Record type", Profile.of(), List.of("username", "preferences.language", "displayName",
+						"hashCode", "invalidProperty")),
+				Arguments.of("Class type", Account.of(), List.of("id", "active", "note", "invalidProperty"))
+		);
+	}
+
+	/**
+	 * The table lists "id" and "active" of the account, read without probing "getActive", while "note" and
+	 * "invalidProperty" are resolved like reflection does.
+	 */
+	static Stream<Arguments> avoidedExceptionsProvider() {
+		return Stream.of(
+				Arguments.of("Record type", Profile.of(), List.of("username", "displayName", "invalidProperty"), 1L, 1L),
+				Arguments.of("Class type", Account.of(), List.of("id", "active", "note", "invalidProperty"), 4L, 3L)
+		);
+	}
+
+	@Test
+	void shouldRegisterGeneratedAccessor() {
+		// When
+		var accessor = ServiceLoader.load(PropertyAccessor.class).stream()
+				.map(ServiceLoader.Provider::get)
+				.filter(provider -> provider.getType() == Profile.class)
+				.findFirst();
+
+		// Then
+		assertTrue(accessor.isPresent());
+
+		@SuppressWarnings("unchecked")
+		var profileAccessor = (PropertyAccessor<Profile>) accessor.get();
+		var profile = Profile.of();
+
+		assertEquals(List.of("username", "email", "preferences"), profileAccessor.getPropertyNames(profile));
+		assertEquals("john_doe", profileAccessor.getValue(profile, "username"));
+		assertNull(profileAccessor.getValue(profile, "invalidProperty"));
+	}
+
+	@Test
+	void shouldNotUseGeneratedAccessorByDefault() {
+		// Given
+		int reads = Account.ACTIVE_READS.get();
+
+		// When
+		var result = dotPathQL.filter(Account.of(), List.of("active"));
+
+		// Then
+		assertEquals(true, result.get("active"));
+		assertEquals(reads, Account.ACTIVE_READS.get());
+	}
+
+	@Test
+	void shouldUseGeneratedAccessorWhenEnabled() {
+		// Given
+		int reads = Account.ACTIVE_READS.get();
+
+		// When
+		var filtered = generatedPathQL.filter(Account.of(), List.of("active"));
+		var excluded = generatedPathQL.exclude(Account.of(), List.of("id"));
+
+		// Then
+		assertEquals(true, filtered.get("active"));
+		assertEquals(true, excluded.get("active"));
+		assertEquals(reads + 2, Account.ACTIVE_READS.get());
+	}
+
+	@Test
+	void shouldUseGeneratedAccessorToListProperties() {
+		// When
+		var profile = generatedPathQL.toMap(Profile.of());
+		var account = generatedPathQL.toMap(Account.of());
+
+		// Then
+		assertEquals(List.of("username", "email", "preferences"), List.copyOf(profile.keySet()));
+		assertEquals(List.of("language", "newsletter"), List.copyOf(DotUtils.mapFrom(profile, "preferences").keySet()));
+		assertEquals(List.of("id", "active"), List.copyOf(account.keySet()));
+		assertEquals(dotPathQL.toMap(Profile.of()), profile);
+		assertEquals(dotPathQL.toMap(Account.of()), account);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("pathsProvider")
+	void shouldResolveNamesMissingFromTableLikeReflectionTypeClassRecord(String implementation, Object source,
+																		 List<String> paths) {
+		// When
+		var result = generatedPathQL.filter(source, paths);
+
+		// Then
+		assertEquals(dotPathQL.filter(source, paths), result);
+		assertFalse(result.containsKey("invalidProperty"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("avoidedExceptionsProvider")
+	void shouldCountOnlyNamesMissingFromTableTypeClassRecord(String implementation, Object source, List<String> paths,
+															 long reflectionCount, long generatedCount) {
+		// When
+		dotPathQL.filter(source, paths);
+		generatedPathQL.filter(source, paths);
+
+		// Then
+		assertEquals(reflectionCount, dotPathQL.getAvoidedExceptions());
+		assertEquals(generatedCount, generatedPathQL.getAvoidedExceptions());
+	}
+}
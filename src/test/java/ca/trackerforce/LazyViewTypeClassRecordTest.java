@@ -0,0 +1,227 @@
+package ca.trackerforce;
+
+import ca.trackerforce.fixture.record.Address;
+import ca.trackerforce.fixture.record.UserDetail;
+import ca.trackerforce.path.api.PropertyAccessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static ca.trackerforce.ResultAssertions.assertSameResult;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyViewTypeClassRecordTest {
+
+	DotPathQL dotPathQL = new DotPathQL();
+
+	static Stream<Arguments> userDetailProvider() {
+		return Stream.of(
+				Arguments.of("Record type", ca.trackerforce.fixture.record.UserDetail.of()),
+				Arguments.of("Class type", ca.trackerforce.fixture.clazz.UserDetail.of())
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldFilterViewLikeFilterTypeClassRecord(String implementation, Object userDetail, List<String> paths) {
+		// When
+		var view = dotPathQL.filterView(userDetail, paths);
+
+		// Then
+		var result = dotPathQL.filter(userDetail, paths);
+		assertEquals(result, view);
+		assertSameResult(result, view);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldExcludeViewLikeExcludeTypeClassRecord(String implementation, Object userDetail, List<String> paths) {
+		// When
+		var view = dotPathQL.excludeView(userDetail, paths);
+
+		// Then
+		var result = dotPathQL.exclude(userDetail, paths);
+		assertSameResult(result, view);
+		assertEquals(result.size(), view.size());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldReadNestedValuesFromMapViewTypeClassRecord(String implementation, Object userDetail) {
+		// When
+		var view = dotPathQL.toMapView(userDetail);
+
+		// Then
+		assertEquals("john_doe", view.get("username"));
+		assertEquals("Springfield", DotUtils.mapFrom(view, "address").get("city"));
+		assertEquals(2, DotUtils.listFrom(view, "orders").size());
+		assertEquals(dotPathQL.toMap(userDetail).keySet(), view.keySet());
+		assertNull(view.get("invalidProperty"));
+		assertFalse(view.containsKey("invalidProperty"));
+	}
+
+	@Test
+	void shouldResolveOnlyAccessedPropertiesOnce() {
+		// Given
+		var reads = new AtomicInteger();
+		dotPathQL.registerAccessor(new CountingAddressAccessor(reads));
+
+		// When
+		var view = dotPathQL.toMapView(UserDetail.of());
+		var username = view.get("username");
+		var address = DotUtils.mapFrom(view, "address");
+		int readsBeforeGet = reads.get();
+		var city = address.get("city");
+		address.get("city");
+
+		// Then
+		assertEquals("john_doe", username);
+		assertEquals(0, readsBeforeGet);
+		assertEquals("Springfield", city);
+		assertEquals(1, reads.get());
+	}
+
+	@Test
+	void shouldLeaveOutNullValuesAndEmptyElementsFromFilterView() {
+		// Given
+		Map<String, Object> first = new HashMap<>();
+		first.put("name", "first");
+		Map<String, Object> second = new HashMap<>();
+		second.put("name", null);
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("items", List.of(first, new Object(), second));
+		source.put("missing", null);
+
+		// When
+		var view = dotPathQL.filterView(source, List.of("items.name", "missing"));
+
+		// Then
+		assertEquals(dotPathQL.filter(source, List.of("items.name", "missing")), view);
+		assertEquals(1, view.size());
+		assertFalse(view.containsKey("missing"));
+		assertEquals(List.of(Map.of("name", "first")), view.get("items"));
+	}
+
+	@Test
+	void shouldObfuscateAndExcludeFromMapSourceView() {
+		// Given
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("user", "john");
+		source.put("password", "secret");
+		source.put("nested", Map.of("token", "abc"));
+
+		// When
+		var view = dotPathQL.excludeView(source, List.of("password", "nested.token"));
+
+		// Then
+		assertEquals(Map.of("user", "john", "nested", Map.of()), view);
+	}
+
+	@Test
+	void shouldRejectModifications() {
+		// When
+		var view = dotPathQL.toMapView(UserDetail.of());
+		var orders = DotUtils.listFrom(view, "orders");
+
+		// Then
+		assertThrows(UnsupportedOperationException.class, () -> view.put("username", "other"));
+		assertThrows(UnsupportedOperationException.class, () -> view.remove("username"));
+		assertThrows(UnsupportedOperationException.class, view::clear);
+		assertThrows(UnsupportedOperationException.class, () -> orders.add(Map.of()));
+	}
+
+	@Test
+	void shouldReflectSourceChangesUntilEntriesAreRead() {
+		// Given
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("name", "first");
+		source.put("status", "new");
+		source.put("note", "kept");
+		var view = dotPathQL.filterView(source, List.of("name", "status", "note"));
+		var name = view.get("name");
+
+		// When
+		source.put("name", "second");
+		source.put("status", "done");
+		source.remove("note");
+
+		// Then - the entry read before stays memoized, the others are read as the source is now
+		assertEquals("first", name);
+		assertEquals("first", view.get("name"));
+		assertEquals("done", view.get("status"));
+		assertFalse(view.containsKey("note"));
+		assertEquals(Map.of("name", "first", "status", "done"), view);
+	}
+
+	@Test
+	void shouldReadNestedEntriesOfCopiedViewOnAccess() {
+		// Given
+		Map<String, Object> address = new LinkedHashMap<>();
+		address.put("city", "Springfield");
+		address.put("street", "Main St");
+		List<Object> tags = new ArrayList<>(List.of("a", "b"));
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("address", address);
+		source.put("tags", tags);
+		var copy = new LinkedHashMap<>(dotPathQL.toMapView(source));
+		var street = DotUtils.mapFrom(copy, "address").get("street");
+
+		// When
+		address.put("city", "Shelbyville");
+		address.put("street", "Elm St");
+		tags.add("c");
+
+		// Then - the copy holds the nested views, whose entries not read yet follow the source
+		assertEquals("Main St", street);
+		assertEquals("Main St", DotUtils.mapFrom(copy, "address").get("street"));
+		assertEquals("Shelbyville", DotUtils.mapFrom(copy, "address").get("city"));
+		assertEquals(List.of("a", "b"), copy.get("tags"));
+		assertEquals(Map.of("address", Map.of("city", "Shelbyville", "street", "Elm St"),
+				"tags", List.of("a", "b", "c")), dotPathQL.toMap(source));
+	}
+
+	@Test
+	void shouldReturnEmptyViewForNullSource() {
+		// Then
+		assertTrue(dotPathQL.filterView(null, List.of("username")).isEmpty());
+		assertTrue(dotPathQL.toMapView(null).isEmpty());
+	}
+
+	static class CountingAddressAccessor implements PropertyAccessor<Address> {
+
+		private final AtomicInteger reads;
+
+		CountingAddressAccessor(AtomicInteger reads) {
+			this.reads = reads;
+		}
+
+		@Override
+		public Class<Address> getType() {
+			return Address.class;
+		}
+
+		@Override
+		public List<String> getPropertyNames(Address source) {
+			return List.of("street", "city");
+		}
+
+		@Override
+		public Object getValue(Address source, String propertyName) {
+			reads.incrementAndGet();
+			return "city".equals(propertyName) ? source.city() : source.street();
+		}
+	}
+}
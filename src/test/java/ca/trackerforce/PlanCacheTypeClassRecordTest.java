@@ -0,0 +1,204 @@
+package ca.trackerforce;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanCacheTypeClassRecordTest {
+
+	DotPathQL dotPathQL = new DotPathQL();
+
+	static Stream<Arguments> userDetailProvider() {
+		return Stream.of(
+				Arguments.of("Record type", ca.trackerforce.fixture.record.UserDetail.of()),
+				Arguments.of("Class type", ca.trackerforce.fixture.clazz.UserDetail.of())
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldReusePlansOnRepeatedCalls(String implementation, Object userDetail) {
+		// Given
+		var paths = List.of("username", "address.city", "orders.products.name");
+		var expected = dotPathQL.filter(userDetail, paths);
+		var missCount = dotPathQL.getPlanCacheStats().missCount();
+
+		// When
+		var result = dotPathQL.filter(userDetail, paths);
+		var stats = dotPathQL.getPlanCacheStats();
+
+		// Then
+		assertEquals(expected, result);
+		assertEquals(missCount, stats.missCount());
+		assertTrue(stats.hitCount() > 0);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldEvictPlansWhenExceedingMaximumSize(String implementation, Object userDetail) {
+		// Given
+		dotPathQL.setPlanCacheSize(2);
+
+		// When
+		var filtered = dotPathQL.filter(userDetail, List.of("username", "address.city", "orders.products.name"));
+		var excluded = dotPathQL.exclude(userDetail, List.of("email"));
+		var stats = dotPathQL.getPlanCacheStats();
+
+		// Then
+		assertEquals(new DotPathQL().filter(userDetail, List.of("username", "address.city", "orders.products.name")),
+				filtered);
+		assertEquals(new DotPathQL().exclude(userDetail, List.of("email")), excluded);
+		assertTrue(stats.size() <= 6);
+		assertTrue(stats.evictionCount() > 0);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldRunWithoutPlanCache(String implementation, Object userDetail) {
+		// Given
+		dotPathQL.setPlanCacheSize(0);
+
+		// When
+		var result = dotPathQL.exclude(userDetail, List.of("email", "orders.products"));
+
+		// Then
+		assertEquals(new DotPathQL().exclude(userDetail, List.of("email", "orders.products")), result);
+		assertEquals(0, dotPathQL.getPlanCacheStats().size());
+		assertEquals(0, dotPathQL.getPlanCacheStats().hitCount());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldApplyDefaultPathsAddedAfterCaching(String implementation, Object userDetail) {
+		// Given
+		dotPathQL.filter(userDetail, List.of("username"));
+
+		// When
+		dotPathQL.addDefaultFilterPaths(List.of("email"));
+		var result = dotPathQL.filter(userDetail, List.of("username"));
+
+		// Then
+		assertEquals(List.of("email", "username"), List.copyOf(result.keySet()));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldKeepQueriesAndPlansInSeparateCaches(String implementation, Object userDetail) {
+		// Given
+		var paths = List.of("username", "address.city");
+		dotPathQL.filter(userDetail, paths);
+		var planStats = dotPathQL.getPlanCacheStats();
+
+		// When
+		dotPathQL.filter(userDetail, paths);
+		var queryStats = dotPathQL.getQueryCacheStats();
+
+		// Then
+		assertEquals(1, queryStats.size());
+		assertEquals(1, queryStats.missCount());
+		assertEquals(1, queryStats.hitCount());
+		assertEquals(2, planStats.size());
+		assertEquals(2, planStats.missCount());
+		assertEquals(planStats.size(), dotPathQL.getPlanCacheStats().size());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldEvictLeastRecentlyUsedQuery(String implementation, Object userDetail) {
+		// Given
+		dotPathQL.setQueryCacheSize(2);
+		dotPathQL.filter(userDetail, List.of("username"));
+		dotPathQL.filter(userDetail, List.of("email"));
+
+		// When
+		dotPathQL.filter(userDetail, List.of("username"));
+		dotPathQL.filter(userDetail, List.of("address.city"));
+		dotPathQL.filter(userDetail, List.of("username"));
+		var stats = dotPathQL.getQueryCacheStats();
+
+		// Then
+		assertEquals(2, stats.size());
+		assertEquals(1, stats.evictionCount());
+		assertEquals(2, stats.hitCount());
+		assertEquals(3, stats.missCount());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldExpandGroupedPathsOncePerCachedQuery(String implementation, Object userDetail) {
+		// Given
+		var paths = List.of("locations[home.street,work.city]", "username");
+		var expected = dotPathQL.filter(userDetail, paths);
+
+		// When
+		var result = dotPathQL.filter(userDetail, paths);
+		var stats = dotPathQL.getQueryCacheStats();
+
+		// Then
+		assertEquals(expected, result);
+		assertEquals(1, stats.missCount());
+		assertEquals(1, stats.hitCount());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldRunWithoutQueryCache(String implementation, Object userDetail) {
+		// Given
+		dotPathQL.setQueryCacheSize(0);
+
+		// When
+		dotPathQL.obfuscate(userDetail, List.of("address[street,city]"));
+		var result = dotPathQL.obfuscate(userDetail, List.of("address[street,city]"));
+
+		// Then
+		assertEquals("****", DotUtils.mapFrom(result, "address").get("city"));
+		assertEquals(0, dotPathQL.getQueryCacheStats().hitCount());
+		assertEquals(0, dotPathQL.getQueryCacheStats().size());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldShareCachesAcrossThreadsTypeClassRecord(String implementation, Object userDetail) throws Exception {
+		// Given
+		dotPathQL.setQueryCacheSize(4);
+		dotPathQL.setPlanCacheSize(4);
+		var queries = List.of(List.of("username"), List.of("address.city"), List.of("orders.products.name"),
+				List.of("locations.home.street"), List.of("email", "address.street"));
+		var reference = new DotPathQL();
+		var executor = Executors.newFixedThreadPool(4);
+
+		// When
+		List<Future<Boolean>> runs = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			var paths = queries.get(i % queries.size());
+			runs.add(executor.submit(() -> reference.filter(userDetail, paths)
+					.equals(dotPathQL.filter(userDetail, paths))));
+		}
+
+		// Then
+		try {
+			for (Future<Boolean> run : runs) {
+				assertTrue(run.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertTrue(dotPathQL.getQueryCacheStats().size() <= 4);
+		assertTrue(dotPathQL.getPlanCacheStats().size() <= 4);
+	}
+
+	@Test
+	void shouldRejectNegativePlanCacheSize() {
+		assertThrows(IllegalArgumentException.class, () -> dotPathQL.setPlanCacheSize(-1));
+		assertThrows(IllegalArgumentException.class, () -> dotPathQL.setQueryCacheSize(-1));
+	}
+}
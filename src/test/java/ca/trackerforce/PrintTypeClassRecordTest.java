@@ -1,15 +1,35 @@
 package ca.trackerforce;
 
+import ca.trackerforce.path.api.PrinterOptions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PrintTypeClassRecordTest {
 
@@ -86,4 +106,324 @@ class PrintTypeClassRecordTest {
 		assertNotNull(json);
 		assertEquals("null", json);
 	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldStreamJsonToAppendableTypeClassRecord(String implementation, Object userDetail) throws IOException {
+		// Given
+		var result = dotPathQL.toMap(userDetail);
+		var compact = new StringBuilder();
+		var pretty = new StringWriter();
+
+		// When
+		dotPathQL.toJson(result, false, compact);
+		dotPathQL.toJson(result, true, pretty);
+
+		// Then
+		assertEquals(dotPathQL.toJson(result, false), compact.toString());
+		assertEquals(dotPathQL.toJson(result, true), pretty.toString());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldStreamJsonToOutputStreamTypeClassRecord(String implementation, Object userDetail) throws IOException {
+		// Given
+		var result = dotPathQL.toMap(userDetail);
+		var out = new ByteArrayOutputStream();
+
+		// When
+		dotPathQL.toJson(result, true, out);
+
+		// Then
+		assertEquals(dotPathQL.toJson(result, true), out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void shouldStreamUtf8JsonToOutputStream() throws IOException {
+		// Given
+		Map<String, Object> result = Map.of("name", "Caf\u00e9 \"\u2615\"", "tags", List.of());
+		var out = new ByteArrayOutputStream();
+
+		// When
+		dotPathQL.toJson(result, false, out);
+
+		// Then
+		assertEquals(dotPathQL.toJson(result, false), out.toString(StandardCharsets.UTF_8));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldKeepIndentOfOtherCallsTypeClassRecord(String implementation, Object userDetail) {
+		// Given
+		var result = dotPathQL.toMap(userDetail);
+		var json = dotPathQL.toJson(result, true);
+
+		// When
+		dotPathQL.toJson(result, 4);
+
+		// Then
+		assertEquals(json, dotPathQL.toJson(result, true));
+		assertEquals(json, dotPathQL.toJson(result, PrinterOptions.pretty()));
+		assertEquals(dotPathQL.toJson(result, 4), dotPathQL.toJson(result, PrinterOptions.pretty(4)));
+		assertEquals(dotPathQL.toJson(result, false), dotPathQL.toJson(result, PrinterOptions.compact()));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldPrintConcurrentlyWithDifferentOptionsTypeClassRecord(String implementation, Object userDetail)
+			throws Exception {
+		// Given
+		var result = dotPathQL.toMap(userDetail);
+		var expected = List.of(dotPathQL.toJson(result, false), dotPathQL.toJson(result, 2),
+				dotPathQL.toJson(result, 4), dotPathQL.toJson(result, 8));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+			// When
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				int variant = i % 4;
+				futures.add(executor.submit(() -> {
+					String json = variant == 0 ? dotPathQL.toJson(result, false) :
+							dotPathQL.toJson(result, 1 << variant);
+					return expected.get(variant).equals(json);
+				}));
+			}
+
+			// Then
+			for (Future<Boolean> future : futures) {
+				assertTrue(future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void shouldPrintNestingDeeperThanPrecomputedIndents() {
+		// Given
+		Map<String, Object> result = Map.of("value", 1);
+		for (int i = 0; i < 20; i++) {
+			result = Map.of("level", result);
+		}
+
+		// When
+		var json = dotPathQL.toJson(result, 3);
+
+		// Then
+		assertEquals(0, json.indexOf("{"));
+		assertTrue(json.contains("\n" + " ".repeat(21 * 3) + "\"value\": 1\n" + " ".repeat(20 * 3) + "}"));
+	}
+
+	@Test
+	void shouldRejectNegativeIndentSize() {
+		assertThrows(IllegalArgumentException.class, () -> PrinterOptions.pretty(-1));
+	}
+
+	@Test
+	void shouldEscapeControlCharactersAsRfc8259() {
+		// Given
+		Map<String, Object> result = Map.of("text", "a\"b\\c\nd\re\tf\bg\fh\u0000i\u001fj/k");
+
+		// When
+		var json = dotPathQL.toJson(result, false);
+
+		// Then
+		assertEquals("{\"text\": \"a\\\"b\\\\c\\nd\\re\\tf\\bg\\fh\\u0000i\\u001fj/k\"}", json);
+	}
+
+	@Test
+	void shouldEscapeLongStringsAtAnyPosition() {
+		for (int length = 1; length < 80; length++) {
+			for (int position = 0; position < length; position++) {
+				// Given
+				char[] chars = "x".repeat(length).toCharArray();
+				chars[position] = position % 2 == 0 ? '"' : '\u0001';
+				String text = new String(chars);
+
+				// When
+				var json = dotPathQL.toJson(Map.of("text", text), false);
+
+				// Then
+				assertEquals("{\"text\": \"" + escape(text) + "\"}", json);
+			}
+		}
+	}
+
+	@Test
+	void shouldNotEscapeCharactersSharingTheLowByteOfEscapedOnes() {
+		// Given
+		String text = "ĢŜā  café 中文 😀".repeat(4);
+
+		// When
+		var json = dotPathQL.toJson(Map.of("text", text, "mixed", text + "\"" + text), false);
+
+		// Then
+		assertTrue(json.contains("\"text\": \"" + text + "\""));
+		assertTrue(json.contains("\"mixed\": \"" + text + "\\\"" + text + "\""));
+	}
+
+	private static String escape(String text) {
+		StringBuilder sb = new StringBuilder();
+		for (char c : text.toCharArray()) {
+			switch (c) {
+				case '"' -> sb.append("\\\"");
+				case '\\' -> sb.append("\\\\");
+				case '\n' -> sb.append("\\n");
+				default -> sb.append(c < 0x20 ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+			}
+		}
+		return sb.toString();
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldPrintUtf8BytesTypeClassRecord(String implementation, Object userDetail) {
+		// Given
+		var result = dotPathQL.toMap(userDetail);
+
+		// When
+		var compact = dotPathQL.toJsonBytes(result, PrinterOptions.compact());
+		var pretty = dotPathQL.toJsonBytes(result, PrinterOptions.pretty(4));
+
+		// Then
+		assertEquals(dotPathQL.toJson(result, false), new String(compact, StandardCharsets.UTF_8));
+		assertEquals(dotPathQL.toJson(result, 4), new String(pretty, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void shouldEncodeUtf8LikeTheJdk() {
+		// Given
+		String text = "café 中文 😀 \"quoted\"\t\u0001 lone \uD800 end";
+		String longText = "x".repeat(1023) + "😀" + "é".repeat(2000) + text;
+		Map<String, Object> result = Map.of("text", text, "long", longText, "名前", List.of(text));
+
+		// When
+		var bytes = dotPathQL.toJsonBytes(result, PrinterOptions.compact());
+
+		// Then
+		assertArrayEquals(dotPathQL.toJson(result, false).getBytes(StandardCharsets.UTF_8), bytes);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldPrintIntoByteBuffersTypeClassRecord(String implementation, Object userDetail) {
+		// Given
+		var result = dotPathQL.toMap(userDetail);
+		var expected = dotPathQL.toJson(result, true);
+		var heap = ByteBuffer.allocate(4096);
+		var direct = ByteBuffer.allocateDirect(4096);
+
+		// When
+		dotPathQL.toJson(result, PrinterOptions.pretty(), heap);
+		dotPathQL.toJson(result, PrinterOptions.pretty(), direct);
+
+		// Then
+		assertEquals(expected, StandardCharsets.UTF_8.decode(heap.flip()).toString());
+		assertEquals(expected, StandardCharsets.UTF_8.decode(direct.flip()).toString());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("userDetailProvider")
+	void shouldThrowWhenByteBufferIsTooSmallTypeClassRecord(String implementation, Object userDetail) {
+		// Given
+		var result = dotPathQL.toMap(userDetail);
+		var buffer = ByteBuffer.allocate(16);
+
+		// Then
+		assertThrows(BufferOverflowException.class, () -> dotPathQL.toJson(result, PrinterOptions.compact(), buffer));
+	}
+
+	@Test
+	void shouldStreamDocumentsLargerThanTheBuffer() throws IOException {
+		// Given
+		List<Object> items = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			items.add(Map.of("id", i, "name", "Item é " + i));
+		}
+		Map<String, Object> result = Map.of("items", items);
+		var out = new ByteArrayOutputStream();
+
+		// When
+		dotPathQL.toJson(result, true, out);
+
+		// Then
+		assertEquals(dotPathQL.toJson(result, true), out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void shouldPrintNumbersLikeTheirText() {
+		// Given
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("int", Integer.MIN_VALUE);
+		result.put("long", Long.MIN_VALUE);
+		result.put("maxLong", Long.MAX_VALUE);
+		result.put("short", (short) -12);
+		result.put("byte", (byte) 7);
+		result.put("price", 19.99);
+		result.put("whole", 1500.0);
+		result.put("small", 0.001);
+		result.put("tiny", 1.0E-4);
+		result.put("large", 1.0E7);
+		result.put("negativeZero", -0.0);
+		result.put("nan", Double.NaN);
+		result.put("float", 1.1f);
+		result.put("decimal", new BigDecimal("12.340"));
+		result.put("bigInteger", new BigInteger("123456789012345678901234567890"));
+		result.put("boolean", true);
+
+		// When
+		var json = dotPathQL.toJson(result, false);
+		var bytes = dotPathQL.toJsonBytes(result, PrinterOptions.compact());
+
+		// Then
+		var expected = "{\"int\": -2147483648, \"long\": -9223372036854775808, \"maxLong\": 9223372036854775807, " +
+				"\"short\": -12, \"byte\": 7, \"price\": 19.99, \"whole\": 1500.0, \"small\": 0.001, \"tiny\": 1.0E-4, " +
+				"\"large\": 1.0E7, \"negativeZero\": -0.0, \"nan\": NaN, \"float\": 1.1, \"decimal\": 12.340, " +
+				"\"bigInteger\": 123456789012345678901234567890, \"boolean\": true}";
+		assertEquals(expected, json);
+		assertEquals(expected, new String(bytes, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void shouldPrintDoublesReadingBackToTheSameValue() {
+		Random random = new Random(42);
+		for (int i = 0; i < 10000; i++) {
+			// Given
+			double value = i % 2 == 0 ? Math.round(random.nextDouble() * 1000000) / 100.0 :
+					random.nextDouble() * Math.pow(10, random.nextInt(10) - 3);
+			float floatValue = (float) value;
+
+			// When
+			var json = dotPathQL.toJson(Map.of("v", value), false);
+			var floatJson = dotPathQL.toJson(Map.of("v", floatValue), false);
+
+			// Then
+			assertEquals(value, Double.parseDouble(json.substring(6, json.length() - 1)));
+			assertEquals(floatValue, Float.parseFloat(floatJson.substring(6, floatJson.length() - 1)));
+		}
+	}
+
+	@Test
+	void shouldPrintPrimitiveArraysWithoutBoxing() {
+		// Given
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("ints", new int[] {85, -90});
+		result.put("longs", new long[] {1L, Long.MAX_VALUE});
+		result.put("doubles", new double[] {1.5, 0.1});
+		result.put("floats", new float[] {2.5f});
+		result.put("shorts", new short[] {3});
+		result.put("bytes", new byte[] {-4});
+		result.put("booleans", new boolean[] {true, false});
+		result.put("chars", new char[] {'a', '"'});
+		result.put("empty", new int[0]);
+
+		// When
+		var json = dotPathQL.toJson(result, false);
+
+		// Then
+		assertEquals("{\"ints\": [85, -90], \"longs\": [1, 9223372036854775807], \"doubles\": [1.5, 0.1], " +
+				"\"floats\": [2.5], \"shorts\": [3], \"bytes\": [-4], \"booleans\": [true, false], " +
+				"\"chars\": [\"a\", \"\\\"\"], \"empty\": []}", json);
+	}
 }
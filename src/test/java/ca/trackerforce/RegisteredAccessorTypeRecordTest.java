@@ -0,0 +1,133 @@
+package ca.trackerforce;
+
+import ca.trackerforce.fixture.record.Address;
+import ca.trackerforce.fixture.record.UserDetail;
+import ca.trackerforce.path.api.PropertyAccessor;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegisteredAccessorTypeRecordTest {
+
+	DotPathQL dotPathQL = new DotPathQL();
+
+	RegisteredAccessorTypeRecordTest() {
+		dotPathQL.registerAccessor(new AddressAccessor());
+		dotPathQL.registerAccessor(new SettingsAccessor());
+	}
+
+	@Test
+	void shouldFilterUsingRegisteredAccessor() {
+		// When
+		var result = dotPathQL.filter(UserDetail.of(), List.of("username", "address.label", "address.street"));
+
+		// Then
+		var address = DotUtils.mapFrom(result, "address");
+		assertEquals("john_doe", result.get("username"));
+		assertEquals("123 Main St, Springfield", address.get("label"));
+		assertNull(address.get("street"));
+	}
+
+	@Test
+	void shouldExcludeUsingRegisteredAccessor() {
+		// When
+		var result = dotPathQL.exclude(UserDetail.of(), List.of("address.city"));
+
+		// Then
+		var address = DotUtils.mapFrom(result, "address");
+		assertEquals(List.of("label"), List.copyOf(address.keySet()));
+		assertEquals("123 Main St, Springfield", address.get("label"));
+	}
+
+	@Test
+	void shouldObfuscateUsingRegisteredAccessor() {
+		// When
+		var result = dotPathQL.obfuscate(Address.of123(), List.of("label"));
+
+		// Then
+		assertEquals(Map.of("label", "****"), result);
+	}
+
+	@Test
+	void shouldUseRegisteredAccessorForMapSubclass() {
+		// Given
+		var settings = new Settings();
+		settings.put("theme", "dark");
+		settings.put("secret", "hidden");
+
+		// When
+		var filtered = dotPathQL.filter(Map.of("settings", settings), List.of("settings.theme", "settings.secret"));
+		var excluded = dotPathQL.toMap(settings);
+
+		// Then
+		assertEquals(Map.of("theme", "DARK"), DotUtils.mapFrom(filtered, "settings"));
+		assertEquals(Map.of("theme", "DARK"), excluded);
+	}
+
+	@Test
+	void shouldNotUseAccessorRegisteredOnAnotherInstance() {
+		// When
+		var result = new DotPathQL().filter(Address.of123(), List.of("label", "street"));
+
+		// Then
+		assertEquals(Map.of("street", "123 Main St"), result);
+	}
+
+	@Test
+	void shouldUseAccessorRegisteredAfterClassWasResolved() {
+		// Given
+		var dotPathQL = new DotPathQL();
+		dotPathQL.registerAccessor(new SettingsAccessor());
+		var before = dotPathQL.filter(Address.of123(), List.of("label", "street"));
+
+		// When
+		dotPathQL.registerAccessor(new AddressAccessor());
+		var after = dotPathQL.filter(Address.of123(), List.of("label", "street"));
+
+		// Then
+		assertEquals(Map.of("street", "123 Main St"), before);
+		assertEquals(Map.of("label", "123 Main St, Springfield"), after);
+	}
+
+	static class AddressAccessor implements PropertyAccessor<Address> {
+
+		@Override
+		public Class<Address> getType() {
+			return Address.class;
+		}
+
+		@Override
+		public List<String> getPropertyNames(Address source) {
+			return List.of("label");
+		}
+
+		@Override
+		public Object getValue(Address source, String propertyName) {
+			return "label".equals(propertyName) ? source.street() + ", " + source.city() : null;
+		}
+	}
+
+	static class Settings extends LinkedHashMap<String, String> { }
+
+	static class SettingsAccessor implements PropertyAccessor<Settings> {
+
+		@Override
+		public Class<Settings> getType() {
+			return Settings.class;
+		}
+
+		@Override
+		public List<String> getPropertyNames(Settings source) {
+			return List.of("theme");
+		}
+
+		@Override
+		public Object getValue(Settings source, String propertyName) {
+			return "theme".equals(propertyName) ? source.get("theme").toUpperCase() : null;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package ca.trackerforce;
+
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Arguments and assertions shared by the tests checking that an alternative way of producing results,
+ * such as views, compact maps or streamed JSON, gives the same results as the default one.
+ */
+final class ResultAssertions {
+
+	private static final DotPathQL DOT_PATH_QL = new DotPathQL();
+
+	private ResultAssertions() { }
+
+	/**
+	 * Path sets selecting simple, nested, grouped, whole and missing properties, for both fixture types.
+	 */
+	static Stream<Arguments> pathsProvider() {
+		List<List<String>> pathSets = List.of(
+				List.of("username", "address.street", "orders.products.name"),
+				List.of("occupations.title", "roles", "scoresArray", "address.coordinates.value"),
+				List.of("locations[home[street,city],work[city]]", "additionalInfo.preferredLanguage"),
+				List.of("additionalInfo", "locations", "roles"),
+				List.of("address", "orders.invalidProperty", "locations.home.invalidProperty"),
+				List.of("invalidProperty"),
+				List.of()
+		);
+
+		List<Arguments> arguments = new ArrayList<>();
+		for (List<String> paths : pathSets) {
+			arguments.add(Arguments.of("Record type " + paths, ca.trackerforce.fixture.record.UserDetail.of(), paths));
+			arguments.add(Arguments.of("Class type " + paths, ca.trackerforce.fixture.clazz.UserDetail.of(), paths));
+		}
+		return arguments.stream();
+	}
+
+	/**
+	 * Asserts both results hold the same entries in the same order, compared through their JSON
+	 * since the arrays they may hold do not define equality.
+	 */
+	static void assertSameResult(Map<String, Object> expected, Map<String, Object> actual) {
+		assertEquals(DOT_PATH_QL.toJson(expected, true), DOT_PATH_QL.toJson(actual, true));
+	}
+}
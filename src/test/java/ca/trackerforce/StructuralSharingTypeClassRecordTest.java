@@ -0,0 +1,205 @@
+package ca.trackerforce;
+
+import ca.trackerforce.fixture.record.UserDetail;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static ca.trackerforce.ResultAssertions.assertSameResult;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StructuralSharingTypeClassRecordTest {
+
+	DotPathQL dotPathQL = new DotPathQL();
+
+	DotPathQL sharingPathQL = new DotPathQL();
+
+	StructuralSharingTypeClassRecordTest() {
+		sharingPathQL.setStructuralSharing(true);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldExcludeLikeDefaultResultsTypeClassRecord(String implementation, Object userDetail, List<String> paths) {
+		// When
+		var excluded = sharingPathQL.exclude(userDetail, paths);
+		var obfuscated = sharingPathQL.obfuscate(userDetail, paths);
+
+		// Then
+		assertSameResult(dotPathQL.exclude(userDetail, paths), excluded);
+		assertSameResult(dotPathQL.obfuscate(userDetail, paths), obfuscated);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldExcludeLikeDefaultCompactResultsTypeClassRecord(String implementation, Object userDetail,
+															   List<String> paths) {
+		// Given
+		sharingPathQL.setCompactResults(true);
+
+		// When
+		var excluded = sharingPathQL.exclude(userDetail, paths);
+		var obfuscated = sharingPathQL.obfuscate(userDetail, paths);
+
+		// Then
+		assertSameResult(dotPathQL.exclude(userDetail, paths), excluded);
+		assertSameResult(dotPathQL.obfuscate(userDetail, paths), obfuscated);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("ca.trackerforce.ResultAssertions#pathsProvider")
+	void shouldNeverModifySharedSourceTypeClassRecord(String implementation, Object userDetail, List<String> paths) {
+		// Given - a source any write into throws
+		Map<String, Object> source = unmodifiable(dotPathQL.toMap(userDetail));
+		var before = dotPathQL.toJson(source, true);
+
+		for (boolean compact : List.of(false, true)) {
+			sharingPathQL.setCompactResults(compact);
+
+			// When
+			var excluded = sharingPathQL.exclude(source, paths);
+			var obfuscated = sharingPathQL.obfuscate(source, paths);
+
+			// Then
+			assertSameResult(dotPathQL.exclude(source, paths), excluded);
+			assertSameResult(dotPathQL.obfuscate(source, paths), obfuscated);
+			assertEquals(before, dotPathQL.toJson(source, true));
+		}
+	}
+
+	@Test
+	void shouldReuseMapsWithoutExclusions() {
+		// Given
+		var userDetail = UserDetail.of();
+
+		// When
+		var result = sharingPathQL.toMap(userDetail);
+
+		// Then
+		assertSame(userDetail.additionalInfo(), result.get("additionalInfo"));
+		assertEquals(dotPathQL.toMap(userDetail), result);
+	}
+
+	@Test
+	void shouldCopyOnlyTheSpineLeadingToExcludedPaths() {
+		// Given
+		Map<String, Object> settings = Map.of("theme", "dark", "language", "en");
+		List<Object> tags = List.of("a", "b", "c");
+		Map<String, Object> credentials = new LinkedHashMap<>();
+		credentials.put("user", "john");
+		credentials.put("password", "secret");
+		Map<String, Object> account = new LinkedHashMap<>();
+		account.put("settings", settings);
+		account.put("credentials", credentials);
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("tags", tags);
+		source.put("account", account);
+		source.put("items", List.of(Map.of("id", 1), Map.of("id", 2)));
+
+		for (boolean compact : List.of(false, true)) {
+			sharingPathQL.setCompactResults(compact);
+
+			// When
+			var result = sharingPathQL.exclude(source, List.of("account.credentials.password"));
+			var accountResult = DotUtils.mapFrom(result, "account");
+
+			// Then
+			assertEquals(dotPathQL.exclude(source, List.of("account.credentials.password")), result);
+			assertNotSame(source, result);
+			assertSame(tags, result.get("tags"));
+			assertSame(source.get("items"), result.get("items"));
+			assertNotSame(account, accountResult);
+			assertSame(settings, accountResult.get("settings"));
+			assertFalse(DotUtils.mapFrom(accountResult, "credentials").containsKey("password"));
+		}
+	}
+
+	@Test
+	void shouldCopyMapsWithObfuscatedEntries() {
+		// Given
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("user", "john");
+		source.put("password", "secret");
+		source.put("roles", List.of("USER"));
+
+		// When
+		var result = sharingPathQL.obfuscate(source, List.of("password"));
+
+		// Then
+		assertEquals(List.of("user", "password", "roles"), List.copyOf(result.keySet()));
+		assertEquals("****", result.get("password"));
+		assertSame(source.get("roles"), result.get("roles"));
+		assertEquals("secret", source.get("password"));
+	}
+
+	@Test
+	void shouldReturnSourceMapWithoutExclusions() {
+		// Given
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("name", "john");
+		source.put("nested", Map.of("city", "Springfield"));
+
+		// When
+		var result = sharingPathQL.toMap(source);
+
+		// Then
+		assertSame(source, result);
+	}
+
+	@Test
+	void shouldCopyMapsWithNonStringKeys() {
+		// Given
+		Map<Object, Object> source = new LinkedHashMap<>();
+		source.put(1, "one");
+		source.put("two", 2);
+
+		// When
+		var result = sharingPathQL.toMap(source);
+
+		// Then
+		assertNotSame(source, result);
+		assertEquals(dotPathQL.toMap(source), result);
+		assertEquals("one", result.get("1"));
+	}
+
+	@Test
+	void shouldCopyEverythingWhenDisabled() {
+		// Given
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("nested", Map.of("city", "Springfield"));
+
+		// When
+		var result = dotPathQL.toMap(source);
+
+		// Then
+		assertNotSame(source, result);
+		assertNotSame(source.get("nested"), result.get("nested"));
+		assertEquals(source, result);
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> T unmodifiable(Object value) {
+		if (value instanceof Map<?, ?> map) {
+			Map<String, Object> copy = new LinkedHashMap<>();
+			map.forEach((key, entry) -> copy.put(String.valueOf(key), unmodifiable(entry)));
+			return (T) Collections.unmodifiableMap(copy);
+		}
+
+		if (value instanceof List<?> list) {
+			List<Object> copy = new ArrayList<>();
+			list.forEach(element -> copy.add(unmodifiable(element)));
+			return (T) Collections.unmodifiableList(copy);
+		}
+
+		return (T) value;
+	}
+}
@@ -0,0 +1,36 @@
+package ca.trackerforce.fixture.annotated;
+
+import ca.trackerforce.path.api.DotPathQLType;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DotPathQLType
+public class Account {
+
+	public static final AtomicInteger ACTIVE_READS = new AtomicInteger();
+
+	private final String id;
+
+	private final boolean active;
+
+	public final String note;
+
+	public Account(String id, boolean active, String note) {
+		this.id = id;
+		this.active = active;
+		this.note = note;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public boolean isActive() {
+		ACTIVE_READS.incrementAndGet();
+		return active;
+	}
+
+	public static Account of() {
+		return new Account("A-1", true, "VIP");
+	}
+}
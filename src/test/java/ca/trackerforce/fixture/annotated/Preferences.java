@@ -0,0 +1,9 @@
+package ca.trackerforce.fixture.annotated;
+
+import ca.trackerforce.path.api.DotPathQLType;
+
+@DotPathQLType
+public record Preferences(
+		String language,
+		boolean newsletter
+) { }
@@ -0,0 +1,22 @@
+package ca.trackerforce.fixture.annotated;
+
+import ca.trackerforce.path.api.DotPathQLType;
+
+@DotPathQLType
+public record Profile(
+		String username,
+		String email,
+		Preferences preferences
+) {
+	public String displayName() {
+		return "@" + username;
+	}
+
+	public static Profile of() {
+		return new Profile(
+				"john_doe",
+				"john.doe@example.com",
+				new Preferences("en", true)
+		);
+	}
+}
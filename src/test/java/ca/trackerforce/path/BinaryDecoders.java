@@ -0,0 +1,46 @@
+package ca.trackerforce.path;
+
+import ca.trackerforce.path.api.BinaryFormat;
+
+import java.util.Map;
+
+/**
+ * Decodes the output of the binary encoders, so the tests can read back what was written.
+ */
+public final class BinaryDecoders {
+
+	private BinaryDecoders() { }
+
+	/**
+	 * Decodes a single item. Maps are decoded as insertion-ordered maps with string keys, arrays as lists,
+	 * integers as Integer when they fit or as Long otherwise.
+	 *
+	 * @param bytes the encoded bytes
+	 * @param format the binary format of the bytes
+	 * @return the decoded item
+	 * @throws IllegalArgumentException if the bytes are not a single well-formed item
+	 */
+	public static Object decode(byte[] bytes, BinaryFormat format) {
+		return switch (format) {
+			case CBOR -> new CborDecoder(bytes).decode();
+			case MESSAGE_PACK -> new MessagePackDecoder(bytes).decode();
+		};
+	}
+
+	/**
+	 * Decodes a single map.
+	 *
+	 * @param bytes the encoded bytes
+	 * @param format the binary format of the bytes
+	 * @return the decoded map
+	 * @throws IllegalArgumentException if the bytes are not a single well-formed map
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, Object> decodeMap(byte[] bytes, BinaryFormat format) {
+		Object decoded = decode(bytes, format);
+		if (!(decoded instanceof Map)) {
+			throw new IllegalArgumentException("The encoded item is not a map");
+		}
+		return (Map<String, Object>) decoded;
+	}
+}
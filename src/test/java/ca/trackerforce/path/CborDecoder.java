@@ -0,0 +1,252 @@
+package ca.trackerforce.path;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes a single CBOR item, the counterpart of {@link CborEncoder}. Indefinite lengths, half-precision floats
+ * and the simple value undefined, read as null, are accepted as well. Tags other than bignums and decimal
+ * fractions are skipped, the tagged item being decoded as it is.
+ * An instance reads a single array of bytes and is not thread-safe.
+ */
+final class CborDecoder {
+
+	private static final int INDEFINITE = 31;
+
+	private static final int BREAK = 0xFF;
+
+	private static final int UNDEFINED = 0xF7;
+
+	private static final int HALF = 0xF9;
+
+	private final byte[] bytes;
+
+	private int position;
+
+	CborDecoder(byte[] bytes) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * Decodes the item held by the bytes.
+	 *
+	 * @return the decoded item
+	 * @throws IllegalArgumentException if the bytes are not a single well-formed item
+	 */
+	Object decode() {
+		Object value = item();
+		if (position != bytes.length) {
+			throw new IllegalArgumentException("Unexpected bytes after the CBOR item at offset " + position);
+		}
+		return value;
+	}
+
+	private Object item() {
+		int initial = readByte();
+		if (initial == BREAK) {
+			throw malformed("Unexpected break");
+		}
+		return item(initial);
+	}
+
+	private Object item(int initial) {
+		int majorType = initial >>> 5;
+		int info = initial & 0x1F;
+
+		return switch (majorType) {
+			case CborEncoder.UNSIGNED -> unsigned(argument(info));
+			case CborEncoder.NEGATIVE -> negative(argument(info));
+			case CborEncoder.BYTES -> info == INDEFINITE ? chunks(CborEncoder.BYTES) : readBytes(length(info));
+			case CborEncoder.TEXT -> info == INDEFINITE ? new String(chunks(CborEncoder.TEXT), StandardCharsets.UTF_8)
+					: new String(readBytes(length(info)), StandardCharsets.UTF_8);
+			case CborEncoder.ARRAY -> array(info);
+			case CborEncoder.MAP -> map(info);
+			case CborEncoder.TAG -> tagged(argument(info));
+			default -> simple(initial);
+		};
+	}
+
+	private List<Object> array(int info) {
+		if (info == INDEFINITE) {
+			List<Object> list = new ArrayList<>();
+			while (peekByte() != BREAK) {
+				list.add(item());
+			}
+			position++;
+			return list;
+		}
+
+		int size = length(info);
+		List<Object> list = new ArrayList<>(Math.min(size, bytes.length - position));
+		for (int i = 0; i < size; i++) {
+			list.add(item());
+		}
+		return list;
+	}
+
+	private Map<String, Object> map(int info) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		if (info == INDEFINITE) {
+			while (peekByte() != BREAK) {
+				map.put(String.valueOf(item()), item());
+			}
+			position++;
+			return map;
+		}
+
+		int size = length(info);
+		for (int i = 0; i < size; i++) {
+			map.put(String.valueOf(item()), item());
+		}
+		return map;
+	}
+
+	private Object tagged(long tag) {
+		if (tag == CborEncoder.POSITIVE_BIGNUM || tag == CborEncoder.NEGATIVE_BIGNUM) {
+			if (!(item() instanceof byte[] magnitude)) {
+				throw malformed("Bignum content is not a byte string");
+			}
+			BigInteger value = new BigInteger(1, magnitude);
+			return tag == CborEncoder.POSITIVE_BIGNUM ? value : value.not();
+		}
+
+		if (tag == CborEncoder.DECIMAL_FRACTION) {
+			if (!(item() instanceof List<?> parts) || parts.size() != 2
+					|| !(parts.get(0) instanceof Number exponent) || !(parts.get(1) instanceof Number mantissa)) {
+				throw malformed("Decimal fraction content is not an exponent and a mantissa");
+			}
+			return new BigDecimal(toBigInteger(mantissa), Math.negateExact(exponent.intValue()));
+		}
+
+		return item();
+	}
+
+	private Object simple(int initial) {
+		return switch (initial) {
+			case CborEncoder.FALSE -> Boolean.FALSE;
+			case CborEncoder.TRUE -> Boolean.TRUE;
+			case CborEncoder.NULL, UNDEFINED -> null;
+			case HALF -> halfToFloat((int) readUnsigned(2));
+			case CborEncoder.FLOAT -> Float.intBitsToFloat((int) readUnsigned(4));
+			case CborEncoder.DOUBLE -> Double.longBitsToDouble(readUnsigned(8));
+			default -> throw malformed("Unsupported simple value " + (initial & 0x1F));
+		};
+	}
+
+	/**
+	 * Concatenates the definite-length chunks of an indefinite-length string of the given major type.
+	 */
+	private byte[] chunks(int majorType) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int initial = readByte(); initial != BREAK; initial = readByte()) {
+			if (initial >>> 5 != majorType || (initial & 0x1F) == INDEFINITE) {
+				throw malformed("Invalid chunk in an indefinite-length string");
+			}
+			out.writeBytes(readBytes(length(initial & 0x1F)));
+		}
+		return out.toByteArray();
+	}
+
+	private static Object unsigned(long value) {
+		if (value < 0) {
+			// Beyond the range of a long, read as an unsigned 64-bit value
+			return new BigInteger(Long.toUnsignedString(value));
+		}
+		return value <= Integer.MAX_VALUE ? (Object) (int) value : (Object) value;
+	}
+
+	private static Object negative(long argument) {
+		if (argument < 0) {
+			return new BigInteger(Long.toUnsignedString(argument)).not();
+		}
+		long value = -1 - argument;
+		return value >= Integer.MIN_VALUE ? (Object) (int) value : (Object) value;
+	}
+
+	private static BigInteger toBigInteger(Number number) {
+		return number instanceof BigInteger bigInteger ? bigInteger : BigInteger.valueOf(number.longValue());
+	}
+
+	/**
+	 * Widens an IEEE 754 half-precision float, as shown in appendix D of RFC 8949.
+	 */
+	private static float halfToFloat(int half) {
+		int exponent = (half >> 10) & 0x1F;
+		int mantissa = half & 0x3FF;
+		float value;
+		if (exponent == 0) {
+			value = mantissa * 0x1p-24f;
+		} else if (exponent != 31) {
+			value = (mantissa + 1024) * (float) Math.pow(2, exponent - 25);
+		} else {
+			value = mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+		}
+		return (half & 0x8000) != 0 ? -value : value;
+	}
+
+	private long argument(int info) {
+		return switch (info) {
+			case 24 -> readUnsigned(1);
+			case 25 -> readUnsigned(2);
+			case 26 -> readUnsigned(4);
+			case 27 -> readUnsigned(8);
+			default -> {
+				if (info > 27) {
+					throw malformed("Invalid additional information " + info);
+				}
+				yield info;
+			}
+		};
+	}
+
+	private int length(int info) {
+		long length = argument(info);
+		if (length < 0 || length > Integer.MAX_VALUE) {
+			throw malformed("Length out of range");
+		}
+		return (int) length;
+	}
+
+	private long readUnsigned(int length) {
+		ensureAvailable(length);
+		long value = 0;
+		for (int i = 0; i < length; i++) {
+			value = (value << Byte.SIZE) | (bytes[position++] & 0xFF);
+		}
+		return value;
+	}
+
+	private byte[] readBytes(int length) {
+		ensureAvailable(length);
+		byte[] value = new byte[length];
+		System.arraycopy(bytes, position, value, 0, length);
+		position += length;
+		return value;
+	}
+
+	private int readByte() {
+		ensureAvailable(1);
+		return bytes[position++] & 0xFF;
+	}
+
+	private int peekByte() {
+		ensureAvailable(1);
+		return bytes[position] & 0xFF;
+	}
+
+	private void ensureAvailable(int length) {
+		if (length > bytes.length - position) {
+			throw malformed("Unexpected end of input");
+		}
+	}
+
+	private IllegalArgumentException malformed(String message) {
+		return new IllegalArgumentException(message + " in CBOR item at offset " + position);
+	}
+}
@@ -0,0 +1,158 @@
+package ca.trackerforce.path;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes a single MessagePack item, the counterpart of {@link MessagePackEncoder}.
+ * Unsigned 64-bit integers beyond the range of a long are read as BigInteger. Extension types are not supported.
+ * An instance reads a single array of bytes and is not thread-safe.
+ */
+final class MessagePackDecoder {
+
+	private static final int NEVER_USED = 0xC1;
+
+	private final byte[] bytes;
+
+	private int position;
+
+	MessagePackDecoder(byte[] bytes) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * Decodes the item held by the bytes.
+	 *
+	 * @return the decoded item
+	 * @throws IllegalArgumentException if the bytes are not a single well-formed item
+	 */
+	Object decode() {
+		Object value = item();
+		if (position != bytes.length) {
+			throw new IllegalArgumentException("Unexpected bytes after the MessagePack item at offset " + position);
+		}
+		return value;
+	}
+
+	private Object item() {
+		int format = readByte();
+		if (format <= MessagePackEncoder.POSITIVE_FIXINT_MAX) {
+			return format;
+		}
+		if (format >= MessagePackEncoder.NEGATIVE_FIXINT) {
+			return (int) (byte) format;
+		}
+		if (format < MessagePackEncoder.FIXARRAY) {
+			return map(format & 0x0F);
+		}
+		if (format < MessagePackEncoder.FIXSTR) {
+			return array(format & 0x0F);
+		}
+		if (format < MessagePackEncoder.NIL) {
+			return string(format & 0x1F);
+		}
+
+		return switch (format) {
+			case MessagePackEncoder.NIL -> null;
+			case MessagePackEncoder.FALSE -> Boolean.FALSE;
+			case MessagePackEncoder.TRUE -> Boolean.TRUE;
+			case MessagePackEncoder.BIN8 -> readBytes(length(1));
+			case MessagePackEncoder.BIN16 -> readBytes(length(2));
+			case MessagePackEncoder.BIN32 -> readBytes(length(4));
+			case MessagePackEncoder.FLOAT32 -> Float.intBitsToFloat((int) readUnsigned(4));
+			case MessagePackEncoder.FLOAT64 -> Double.longBitsToDouble(readUnsigned(8));
+			case MessagePackEncoder.UINT8 -> (int) readUnsigned(1);
+			case MessagePackEncoder.UINT16 -> (int) readUnsigned(2);
+			case MessagePackEncoder.UINT32 -> integer(readUnsigned(4));
+			case MessagePackEncoder.UINT64 -> unsigned(readUnsigned(8));
+			case MessagePackEncoder.INT8 -> (int) (byte) readUnsigned(1);
+			case MessagePackEncoder.INT16 -> (int) (short) readUnsigned(2);
+			case MessagePackEncoder.INT32 -> (int) readUnsigned(4);
+			case MessagePackEncoder.INT64 -> integer(readUnsigned(8));
+			case MessagePackEncoder.STR8 -> string(length(1));
+			case MessagePackEncoder.STR16 -> string(length(2));
+			case MessagePackEncoder.STR32 -> string(length(4));
+			case MessagePackEncoder.ARRAY16 -> array(length(2));
+			case MessagePackEncoder.ARRAY32 -> array(length(4));
+			case MessagePackEncoder.MAP16 -> map(length(2));
+			case MessagePackEncoder.MAP32 -> map(length(4));
+			case NEVER_USED -> throw malformed("Invalid format byte 0xc1");
+			default -> throw malformed("Unsupported extension type");
+		};
+	}
+
+	private List<Object> array(int size) {
+		List<Object> list = new ArrayList<>(Math.min(size, bytes.length - position));
+		for (int i = 0; i < size; i++) {
+			list.add(item());
+		}
+		return list;
+	}
+
+	private Map<String, Object> map(int size) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		for (int i = 0; i < size; i++) {
+			map.put(String.valueOf(item()), item());
+		}
+		return map;
+	}
+
+	private String string(int length) {
+		ensureAvailable(length);
+		String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+		position += length;
+		return value;
+	}
+
+	private static Object integer(long value) {
+		return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (Object) (int) value : (Object) value;
+	}
+
+	private static Object unsigned(long value) {
+		return value < 0 ? new BigInteger(Long.toUnsignedString(value)) : integer(value);
+	}
+
+	private int length(int size) {
+		long length = readUnsigned(size);
+		if (length > Integer.MAX_VALUE) {
+			throw malformed("Length out of range");
+		}
+		return (int) length;
+	}
+
+	private long readUnsigned(int length) {
+		ensureAvailable(length);
+		long value = 0;
+		for (int i = 0; i < length; i++) {
+			value = (value << Byte.SIZE) | (bytes[position++] & 0xFF);
+		}
+		return value;
+	}
+
+	private byte[] readBytes(int length) {
+		ensureAvailable(length);
+		byte[] value = new byte[length];
+		System.arraycopy(bytes, position, value, 0, length);
+		position += length;
+		return value;
+	}
+
+	private int readByte() {
+		ensureAvailable(1);
+		return bytes[position++] & 0xFF;
+	}
+
+	private void ensureAvailable(int length) {
+		if (length > bytes.length - position) {
+			throw malformed("Unexpected end of input");
+		}
+	}
+
+	private IllegalArgumentException malformed(String message) {
+		return new IllegalArgumentException(message + " in MessagePack item at offset " + position);
+	}
+}
@@ -0,0 +1,92 @@
+package ca.trackerforce.processor;
+
+import ca.trackerforce.path.api.DotPathQLType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DotPathQLProcessorTest {
+
+	@TempDir
+	Path workDir;
+
+	@Test
+	void shouldKeepRegistrationsOfEarlierCompilations() throws Exception {
+		// Given
+		Path output = Files.createDirectories(workDir.resolve("classes"));
+		compile(output, "sample/First.java", """
+				package sample;
+
+				@ca.trackerforce.path.api.DotPathQLType
+				public record First(String name) { }
+				""");
+
+		// When
+		compile(output, "sample/Second.java", """
+				package sample;
+
+				@ca.trackerforce.path.api.DotPathQLType
+				public record Second(String name) { }
+				""");
+
+		// Then
+		assertEquals(List.of("sample.First" + DotPathQLProcessor.SUFFIX, "sample.Second" + DotPathQLProcessor.SUFFIX),
+				Files.readAllLines(output.resolve(DotPathQLProcessor.SERVICE_FILE)));
+	}
+
+	@Test
+	void shouldNotRegisterAccessorTwiceWhenRecompiled() throws Exception {
+		// Given
+		Path output = Files.createDirectories(workDir.resolve("classes"));
+		String source = """
+				package sample;
+
+				@ca.trackerforce.path.api.DotPathQLType
+				public record First(String name) { }
+				""";
+		compile(output, "sample/First.java", source);
+
+		// When
+		compile(output, "sample/First.java", source);
+
+		// Then
+		assertEquals(List.of("sample.First" + DotPathQLProcessor.SUFFIX),
+				Files.readAllLines(output.resolve(DotPathQLProcessor.SERVICE_FILE)));
+	}
+
+	private void compile(Path output, String fileName, String content) throws Exception {
+		Path source = workDir.resolve("src").resolve(fileName);
+		Files.createDirectories(source.getParent());
+		Files.writeString(source, content);
+
+		var compiler = ToolProvider.getSystemJavaCompiler();
+		var diagnostics = new DiagnosticCollector<JavaFileObject>();
+		try (var fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+			var task = compiler.getTask(null, fileManager, diagnostics,
+					List.of("-d", output.toString(), "-classpath", libraryClasses() + File.pathSeparator + output),
+					null, fileManager.getJavaFileObjects(source));
+			task.setProcessors(List.of(new DotPathQLProcessor()));
+
+			assertTrue(task.call(), diagnostics.getDiagnostics().toString());
+		}
+	}
+
+	private static String libraryClasses() throws IOException {
+		try {
+			return Path.of(DotPathQLType.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+		} catch (URISyntaxException e) {
+			throw new IOException(e);
+		}
+	}
+}